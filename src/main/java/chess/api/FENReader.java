@@ -1,5 +1,6 @@
 package chess.api;
 
+import chess.api.configuration.MoveHistory;
 import chess.api.configuration.PieceConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -88,8 +89,9 @@ public class FENReader {
         LOGGER.debug("Halfmove clock set successfully");
         pieceConfiguration.setFullMoveNumber(Integer.parseInt(fields[5]));
         LOGGER.debug("Fullmove number set successfully");
+        pieceConfiguration.initialiseZobristKey();
         if (FENWriter.STARTING_POSITION.equals(fen)) {
-            pieceConfiguration.setHistoricMoves(new short[]{});
+            pieceConfiguration.setMoveHistory(MoveHistory.EMPTY);
         }
         return pieceConfiguration;
     }
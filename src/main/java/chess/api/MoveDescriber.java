@@ -24,6 +24,23 @@ public class MoveDescriber {
         return (short) outputInt;
     }
 
+    /**
+     * @return The move in the same notation accepted by getMoveFromAlgebraicNotation, such as e2e4 or b7a8q
+     */
+    public static String getAlgebraicNotation(short move) {
+        final int fromPos = (move & 0b0000111111000000) >> 6;
+        final int toPos = move & 0b0000000000111111;
+        final int promotionBitFlag = (move & 0b1111000000000000) >>> 1;
+        final String notation = Position.getCoordinateString(fromPos) + Position.getCoordinateString(toPos);
+        return switch (promotionBitFlag) {
+            case QUEEN_OCCUPIED -> notation + "q";
+            case ROOK_OCCUPIED -> notation + "r";
+            case BISHOP_OCCUPIED -> notation + "b";
+            case KNIGHT_OCCUPIED -> notation + "n";
+            default -> notation;
+        };
+    }
+
     public static short getMoveFromAlgebraicNotation(String algebraicNotation) {
         final int[] fromAndToPositions = POSITION_PATTERN.matcher(algebraicNotation)
             .results()
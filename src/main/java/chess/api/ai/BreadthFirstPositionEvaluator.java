@@ -39,12 +39,12 @@ public class BreadthFirstPositionEvaluator {
                 currentConfiguration = currentAndParentConfigurations.currentConfiguration;
                 parentConfiguration = currentAndParentConfigurations.parentConfiguration;
 
-                final List<PieceConfiguration> onwardConfigurations = currentConfiguration.getOnwardConfigurations();
-                final Double gameEndValue = getEndgameValue(onwardConfigurations.size(), currentConfiguration);
+                final Double gameEndValue = getEndgameValue(currentConfiguration);
                 if (gameEndValue != null) {
                     inMemoryTrie.setScore(currentConfiguration.getHistoricMoves(), gameEndValue);
                     continue;
                 }
+                final List<PieceConfiguration> onwardConfigurations = currentConfiguration.getOnwardConfigurations();
                 final double currentLesserScore = currentConfiguration.getLesserScore();
                 storeConfigurationScores(onwardConfigurations, inMemoryTrie, isMaximumDepth, currentLesserScore);
             }
@@ -84,8 +84,8 @@ public class BreadthFirstPositionEvaluator {
         return new CurrentAndParentConfigurations(currentConfiguration, parentConfiguration);
     }
 
-    private static Double getEndgameValue(int onwardConfigurationCount, PieceConfiguration currentConfiguration) {
-        if (onwardConfigurationCount == 0) {
+    private static Double getEndgameValue(PieceConfiguration currentConfiguration) {
+        if (!currentConfiguration.hasAnyLegalMove()) {
             final double mateValue;
             if (currentConfiguration.isCheck()) {
                 mateValue = Float.MAX_VALUE;
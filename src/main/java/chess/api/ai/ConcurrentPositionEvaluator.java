@@ -4,11 +4,16 @@ import chess.api.configuration.PieceConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.*;
 import java.util.function.Supplier;
 
+import static chess.api.ai.DepthFirstPositionEvaluator.getBestScoreDifferentialInArena;
 import static chess.api.ai.DepthFirstPositionEvaluator.getBestScoreDifferentialRecursively;
+import static chess.api.ai.DepthFirstPositionEvaluator.getBestScoreDifferentialWithPruning;
+import static chess.api.ai.DepthFirstPositionEvaluator.getQuiescenceScoreDifferential;
 
 public class ConcurrentPositionEvaluator {
 
@@ -20,28 +25,117 @@ public class ConcurrentPositionEvaluator {
 
     private static final ExecutorService executorService = Executors.newFixedThreadPool(THREAD_POOL_SIZE);
 
+    // Whether the searches play moves in place or write onward configurations into their arenas,
+    // rather than creating new ones, which can be switched off to compare the two with SearchBenchmark
+    private static volatile boolean isArenaEnabled = true;
+
     public static PieceConfiguration getBestMoveRecursively(PieceConfiguration pieceConfiguration, int depth) {
         final ConfigurationScorePair bestEntry;
         LOGGER.debug("Thread pool size is {}", THREAD_POOL_SIZE);
         if (depth >= CONCURRENCY_DEPTH_THRESHOLD && THREAD_POOL_SIZE > 1) {
             // Use a multithreading method
-            bestEntry = getBestConfigurationScorePairConcurrently(pieceConfiguration, depth);
+            bestEntry = getBestConfigurationScorePairConcurrently(pieceConfiguration, depth, true);
         } else {
             // Use a single-threaded method
-            bestEntry = DepthFirstPositionEvaluator.getBestConfigurationScorePairRecursively(pieceConfiguration, depth, true);
+            bestEntry = DepthFirstPositionEvaluator.getBestConfigurationScorePairWithPruning(
+                pieceConfiguration, depth, getSearchContext(null));
         }
 
+        logSearchStatistics();
+
         if (bestEntry != null) {
             return bestEntry.pieceConfiguration();
         }
         return null;
     }
 
-    private static ConfigurationScorePair getBestConfigurationScorePairConcurrently(PieceConfiguration pieceConfiguration, int depth) {
+    public static boolean isArenaEnabled() {
+        return isArenaEnabled;
+    }
+
+    public static void setArenaEnabled(boolean arenaEnabled) {
+        isArenaEnabled = arenaEnabled;
+    }
+
+    static ConfigurationScorePair getBestConfigurationScorePairConcurrently(PieceConfiguration pieceConfiguration, int depth) {
+        return getBestConfigurationScorePairConcurrently(pieceConfiguration, depth, false);
+    }
+
+    /**
+     * @param isPruningEnabled Whether each onward configuration is scored with an alpha-beta search.
+     *                         Each is given the full window, so the choice doesn't depend on which thread finishes first.
+     */
+    static ConfigurationScorePair getBestConfigurationScorePairConcurrently(PieceConfiguration pieceConfiguration, int depth,
+                                                                            boolean isPruningEnabled) {
+        if (isPruningEnabled) {
+            SearchContext.forCurrentThread().getTranspositionTable().startNewSearch();
+        }
+        final List<PieceConfiguration> onwardPieceConfigurations = pieceConfiguration.getOnwardConfigurations();
+        final double[] onwardConfigurationScores = new double[onwardPieceConfigurations.size()];
+        final int bestOnwardConfigurationIndex = scoreOnwardConfigurationsConcurrently(pieceConfiguration,
+            onwardPieceConfigurations, depth, isPruningEnabled, null, onwardConfigurationScores);
+
+        if (bestOnwardConfigurationIndex >= 0) {
+            final PieceConfiguration bestOnwardConfiguration = onwardPieceConfigurations.get(bestOnwardConfigurationIndex);
+            return new ConfigurationScorePair(bestOnwardConfiguration, -onwardConfigurationScores[bestOnwardConfigurationIndex]);
+        }
+        return null;
+    }
+
+    /**
+     * Searches to a depth of one, then two, then three and so on up to the maximum depth,
+     * and returns the best configuration of the deepest search to finish within the time allowed.
+     * Each search after the first looks at the onward configurations in order of their scores in the search before,
+     * so that the best found so far is searched first. The first search always finishes, however little time is allowed.
+     */
+    public static PieceConfiguration getBestMoveIteratively(PieceConfiguration pieceConfiguration, int maxDepth,
+                                                            long moveTimeMillis) {
+        final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(moveTimeMillis);
+        SearchContext.forCurrentThread().getTranspositionTable().startNewSearch();
+        List<PieceConfiguration> onwardPieceConfigurations = pieceConfiguration.getOnwardConfigurations();
+        final double[] onwardConfigurationScores = new double[onwardPieceConfigurations.size()];
+        PieceConfiguration bestOnwardConfiguration = null;
+        for (int depth = 1; depth == 1 || depth <= maxDepth; depth++) {
+            final int bestOnwardConfigurationIndex = scoreOnwardConfigurations(pieceConfiguration,
+                onwardPieceConfigurations, depth, depth == 1 ? null : deadlineNanos, onwardConfigurationScores);
+            if (bestOnwardConfigurationIndex < 0) {
+                return null;
+            }
+            if (depth > 1 && System.nanoTime() - deadlineNanos >= 0) {
+                // The search may have been stopped before it finished
+                LOGGER.debug("Ran out of time searching to depth {}", depth);
+                break;
+            }
+            bestOnwardConfiguration = onwardPieceConfigurations.get(bestOnwardConfigurationIndex);
+            onwardPieceConfigurations = orderByScore(onwardPieceConfigurations, onwardConfigurationScores);
+        }
+        logSearchStatistics();
+        return bestOnwardConfiguration;
+    }
+
+    private static int scoreOnwardConfigurations(PieceConfiguration pieceConfiguration,
+                                                 List<PieceConfiguration> onwardPieceConfigurations, int depth,
+                                                 Long deadlineNanos, double[] onwardConfigurationScores) {
+        if (depth >= CONCURRENCY_DEPTH_THRESHOLD && THREAD_POOL_SIZE > 1) {
+            return scoreOnwardConfigurationsConcurrently(pieceConfiguration, onwardPieceConfigurations, depth,
+                true, deadlineNanos, onwardConfigurationScores);
+        }
+        return DepthFirstPositionEvaluator.scoreOnwardConfigurationsWithPruning(pieceConfiguration,
+            onwardPieceConfigurations, depth, getSearchContext(deadlineNanos), onwardConfigurationScores);
+    }
+
+    /**
+     * @param deadlineNanos The System.nanoTime() at which the searches of the onward configurations should stop,
+     *                      or null if they needn't, which only applies with pruning enabled
+     * @return The index of the first best scored onward configuration, or -1 if there are none
+     */
+    private static int scoreOnwardConfigurationsConcurrently(PieceConfiguration pieceConfiguration,
+                                                             List<PieceConfiguration> onwardPieceConfigurations, int depth,
+                                                             boolean isPruningEnabled, Long deadlineNanos,
+                                                             double[] onwardConfigurationScores) {
         final int currentDiff = pieceConfiguration.adjustForDraw(pieceConfiguration.getValueDifferential(), true);
 
         depth--;
-        final List<PieceConfiguration> onwardPieceConfigurations = pieceConfiguration.getOnwardConfigurations();
         final int onwardConfigurationCount = onwardPieceConfigurations.size();
         final CompletableFuture<Double>[] onwardConfigurationScoreFutures = new CompletableFuture[onwardConfigurationCount];
 
@@ -49,7 +143,8 @@ public class ConcurrentPositionEvaluator {
             PieceConfiguration onwardPieceConfiguration = onwardPieceConfigurations.get(i);
 
             CompletableFuture<Double> comparisonFuture = CompletableFuture.supplyAsync(
-                getCallableComparison(onwardPieceConfiguration, currentDiff, depth), executorService);
+                getCallableComparison(onwardPieceConfiguration, currentDiff, depth, isPruningEnabled, deadlineNanos),
+                executorService);
             onwardConfigurationScoreFutures[i] = comparisonFuture;
         }
 
@@ -58,25 +153,68 @@ public class ConcurrentPositionEvaluator {
         double bestOnwardConfigurationScore = -Double.MAX_VALUE;
         for(int i = 0; i < onwardConfigurationCount; i++) {
             double onwardConfigurationScore = onwardConfigurationScoreFutures[i].join() + threatValue;
+            onwardConfigurationScores[i] = onwardConfigurationScore;
             if (onwardConfigurationScore > bestOnwardConfigurationScore) {
                 bestOnwardConfigurationScore = onwardConfigurationScore;
                 bestOnwardConfigurationIndex = i;
             }
         }
+        return bestOnwardConfigurationIndex;
+    }
 
-        if (bestOnwardConfigurationIndex >= 0) {
-            final PieceConfiguration bestOnwardConfiguration = onwardPieceConfigurations.get(bestOnwardConfigurationIndex);
-            return new ConfigurationScorePair(bestOnwardConfiguration, -bestOnwardConfigurationScore);
+    // Sorts the configurations by descending score, keeping the order of those with equal scores
+    private static List<PieceConfiguration> orderByScore(List<PieceConfiguration> pieceConfigurations, double[] scores) {
+        final List<ConfigurationScorePair> configurationScorePairs = new ArrayList<>(pieceConfigurations.size());
+        for (int i = 0; i < pieceConfigurations.size(); i++) {
+            configurationScorePairs.add(new ConfigurationScorePair(pieceConfigurations.get(i), scores[i]));
         }
-        return null;
+        Collections.sort(configurationScorePairs);
+        return configurationScorePairs.stream().map(ConfigurationScorePair::pieceConfiguration).toList();
+    }
+
+    private static void logSearchStatistics() {
+        final SearchContext searchContext = SearchContext.forCurrentThread();
+        final TranspositionTable transpositionTable = searchContext.getTranspositionTable();
+        LOGGER.debug("Transposition table hits: {}, misses: {}, stores: {}", transpositionTable.getHitCount(),
+            transpositionTable.getMissCount(), transpositionTable.getStoreCount());
+        // The move ordering tables are kept by each search thread, so these are only the cutoffs of this thread's searches
+        final MoveOrderingTables moveOrderingTables = searchContext.getMoveOrderingTables();
+        LOGGER.debug("Cutoffs: {}, on the first move: {}", moveOrderingTables.getCutoffCount(),
+            moveOrderingTables.getFirstMoveCutoffRatio());
+    }
+
+    // Prepares the current thread's search context for a search, which may be in a thread pool's thread
+    private static SearchContext getSearchContext(Long deadlineNanos) {
+        final SearchContext searchContext = SearchContext.forCurrentThread();
+        if (deadlineNanos == null) {
+            searchContext.clearDeadline();
+        } else {
+            searchContext.setDeadline(deadlineNanos);
+        }
+        searchContext.setArenaEnabled(isArenaEnabled);
+        return searchContext;
     }
 
     private static Supplier<Double> getCallableComparison(
-        PieceConfiguration onwardConfiguration, double currentDiff, int depth) {
+        PieceConfiguration onwardConfiguration, double currentDiff, int depth, boolean isPruningEnabled, Long deadlineNanos) {
         return () -> {
+            final SearchContext searchContext = getSearchContext(deadlineNanos);
             final int nextDiff = onwardConfiguration.adjustForDraw(onwardConfiguration.getValueDifferential(), true);
             final double comparison = currentDiff - nextDiff;
-            final double recursiveDiff = getBestScoreDifferentialRecursively(onwardConfiguration, depth) * 0.99;
+            if (isPruningEnabled) {
+                searchContext.countNode();
+                if (depth > 0) {
+                    return comparison + getBestScoreDifferentialWithPruning(onwardConfiguration, depth,
+                        Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, searchContext, 1) * 0.99;
+                }
+                return searchContext.isQuiescenceEnabled()
+                    ? comparison + getQuiescenceScoreDifferential(onwardConfiguration,
+                        Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, searchContext, 1) * 0.99
+                    : comparison;
+            }
+            final double recursiveDiff = (isArenaEnabled
+                ? getBestScoreDifferentialInArena(onwardConfiguration, depth, searchContext.getArena(), 1)
+                : getBestScoreDifferentialRecursively(onwardConfiguration, depth)) * 0.99;
             return comparison + recursiveDiff;
         };
     }
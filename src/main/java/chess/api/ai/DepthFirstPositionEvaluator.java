@@ -1,17 +1,31 @@
 package chess.api.ai;
 
+import chess.api.configuration.ConfigurationArena;
+import chess.api.configuration.LongsPieceConfiguration;
 import chess.api.configuration.PieceConfiguration;
+import chess.api.configuration.StagedMoveGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
 
+import static chess.api.ai.TranspositionTable.*;
+import static chess.api.configuration.PieceConfiguration.NO_CAPTURE_OR_PAWN_MOVE_LIMIT;
+import static chess.api.configuration.StagedMoveGenerator.NO_MOVE;
+
 public class DepthFirstPositionEvaluator {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DepthFirstPositionEvaluator.class);
 
+    // A quiescence search stops playing out captures this many moves beyond the horizon
+    private static final int MAX_QUIESCENCE_DEPTH = 16;
+
+    // Beyond any value differential of material, so that the quiescence search can score checkmate
+    private static final int CHECKMATE_VALUE = 1 << 20;
+
     public static PieceConfiguration getBestMoveRecursively(PieceConfiguration pieceConfiguration, int depth) {
-        final ConfigurationScorePair bestEntry = getBestConfigurationScorePairRecursively(pieceConfiguration, depth, true);
+        final ConfigurationScorePair bestEntry = getBestConfigurationScorePairWithPruning(
+            pieceConfiguration, depth, SearchContext.forCurrentThread());
         if (bestEntry != null) {
             return bestEntry.pieceConfiguration();
         }
@@ -19,6 +33,10 @@ public class DepthFirstPositionEvaluator {
     }
 
     static double getBestScoreDifferentialRecursively(PieceConfiguration pieceConfiguration, int depth) {
+        if (pieceConfiguration instanceof LongsPieceConfiguration longsPieceConfiguration) {
+            // Walk the board with make and unmake, instead of creating a configuration for every move
+            return getBestScoreDifferentialInPlace(longsPieceConfiguration, depth, createMoveGenerators(depth));
+        }
         // The entry object below consists of a PieceConfiguration and a Double representing the score
         final ConfigurationScorePair bestEntry = getBestConfigurationScorePairRecursively(pieceConfiguration, depth, false);
         if (bestEntry != null) {
@@ -31,6 +49,562 @@ public class DepthFirstPositionEvaluator {
         return -Float.MAX_VALUE;
     }
 
+    /**
+     * Scores the configuration in the same way as getBestScoreDifferentialRecursively,
+     * but plays each move on the configuration in place and unmakes it afterwards.
+     * The moves are handed out in stages, captures first, so that a search which stops early needn't generate them all.
+     * @param moveGenerators One move generator for each remaining level of depth
+     */
+    static double getBestScoreDifferentialInPlace(LongsPieceConfiguration pieceConfiguration, int depth,
+                                                  StagedMoveGenerator[] moveGenerators) {
+        final int currentDiff = pieceConfiguration.adjustForDraw(pieceConfiguration.getValueDifferential(), false);
+
+        depth--;
+        final StagedMoveGenerator moveGenerator = moveGenerators[depth];
+        moveGenerator.reset(pieceConfiguration, NO_MOVE, NO_MOVE, NO_MOVE);
+        // The scores are taken before any move is played, while the derived data is current
+        final double threatValue = pieceConfiguration.getLesserScore();
+        final boolean isCheck = pieceConfiguration.isCheck();
+        boolean hasBestMove = false;
+        double bestOnwardConfigurationScore = -Double.MAX_VALUE;
+        for (short move = moveGenerator.nextMove(); move != NO_MOVE; move = moveGenerator.nextMove()) {
+            pieceConfiguration.makeMove(move);
+            final int nextDiff = pieceConfiguration.adjustForDraw(pieceConfiguration.getValueDifferential(), false);
+            double comparison = currentDiff - nextDiff;
+            if (depth > 0) {
+                comparison += getBestScoreDifferentialInPlace(pieceConfiguration, depth, moveGenerators) * 0.99;
+            }
+            pieceConfiguration.unmakeMove();
+
+            final double onwardConfigurationScore = comparison + threatValue;
+            if (onwardConfigurationScore > bestOnwardConfigurationScore) {
+                bestOnwardConfigurationScore = onwardConfigurationScore;
+                hasBestMove = true;
+            }
+        }
+
+        if (hasBestMove) {
+            return -bestOnwardConfigurationScore;
+        } else if (isCheck) {
+            // Checkmate
+            return Float.MAX_VALUE;
+        }
+        // Stalemate
+        return -Float.MAX_VALUE;
+    }
+
+    /**
+     * Scores the configuration in the same way as getBestScoreDifferentialRecursively,
+     * but writes each onward configuration into the arena's configuration for its ply instead of creating a new one.
+     * LongsPieceConfiguration is walked in place as before, with the arena's move generators.
+     * @param ply The number of moves between the search's root and the configuration
+     */
+    static double getBestScoreDifferentialInArena(PieceConfiguration pieceConfiguration, int depth,
+                                                  ConfigurationArena arena, int ply) {
+        if (pieceConfiguration instanceof LongsPieceConfiguration longsPieceConfiguration) {
+            return getBestScoreDifferentialInPlace(longsPieceConfiguration, depth, arena.getMoveGenerators(depth));
+        }
+        final int currentDiff = pieceConfiguration.adjustForDraw(pieceConfiguration.getValueDifferential(), false);
+
+        depth--;
+        final short[] moves = arena.getMoveBuffer(ply);
+        final int moveCount = pieceConfiguration.generateMoves(moves);
+        // The scores are taken before any onward configuration is written, while the derived data is current
+        final double threatValue = pieceConfiguration.getLesserScore();
+        final boolean isCheck = pieceConfiguration.isCheck();
+        boolean hasBestMove = false;
+        double bestOnwardConfigurationScore = -Double.MAX_VALUE;
+        for (int i = 0; i < moveCount; i++) {
+            final PieceConfiguration onwardConfiguration = arena.toNewConfigurationFromMove(
+                pieceConfiguration, moves[i], ply);
+            final int nextDiff = onwardConfiguration.adjustForDraw(onwardConfiguration.getValueDifferential(), false);
+            double comparison = currentDiff - nextDiff;
+            if (depth > 0) {
+                comparison += getBestScoreDifferentialInArena(onwardConfiguration, depth, arena, ply + 1) * 0.99;
+            }
+
+            final double onwardConfigurationScore = comparison + threatValue;
+            if (onwardConfigurationScore > bestOnwardConfigurationScore) {
+                bestOnwardConfigurationScore = onwardConfigurationScore;
+                hasBestMove = true;
+            }
+        }
+
+        if (hasBestMove) {
+            return -bestOnwardConfigurationScore;
+        } else if (isCheck) {
+            // Checkmate
+            return Float.MAX_VALUE;
+        }
+        // Stalemate
+        return -Float.MAX_VALUE;
+    }
+
+    /**
+     * Chooses the same configuration with the same score as getBestConfigurationScorePairRecursively,
+     * but searches each onward configuration with a negamax alpha-beta search, which stops looking at a configuration's
+     * moves once one of them is good enough that the configuration can't change the choice above it.
+     * The first of equally scored configurations is still chosen.
+     */
+    static ConfigurationScorePair getBestConfigurationScorePairWithPruning(PieceConfiguration pieceConfiguration, int depth,
+                                                                           SearchContext searchContext) {
+        searchContext.clearDeadline();
+        searchContext.getTranspositionTable().startNewSearch();
+        final List<PieceConfiguration> onwardPieceConfigurations = pieceConfiguration.getOnwardConfigurations();
+        final double[] onwardConfigurationScores = new double[onwardPieceConfigurations.size()];
+        final int bestOnwardConfigurationIndex = scoreOnwardConfigurationsWithPruning(
+            pieceConfiguration, onwardPieceConfigurations, depth, searchContext, onwardConfigurationScores);
+
+        if (bestOnwardConfigurationIndex >= 0) {
+            final PieceConfiguration bestOnwardConfiguration = onwardPieceConfigurations.get(bestOnwardConfigurationIndex);
+            return new ConfigurationScorePair(bestOnwardConfiguration, -onwardConfigurationScores[bestOnwardConfigurationIndex]);
+        }
+        return null;
+    }
+
+    /**
+     * Scores the onward configurations of the search's root in the order given, as getBestConfigurationScorePairWithPruning does.
+     * Any deadline set on the search context is left in place, and once it has passed the scores are meaningless.
+     * @param onwardPieceConfigurations The root's onward configurations, in the order they should be searched
+     * @param onwardConfigurationScores Receives the score of each onward configuration, which is only an upper bound
+     *                                  for those which can't beat an earlier one
+     * @return The index of the first best scored onward configuration, or -1 if there are none
+     */
+    static int scoreOnwardConfigurationsWithPruning(PieceConfiguration pieceConfiguration,
+                                                    List<PieceConfiguration> onwardPieceConfigurations, int depth,
+                                                    SearchContext searchContext, double[] onwardConfigurationScores) {
+        final int currentDiff = pieceConfiguration.adjustForDraw(pieceConfiguration.getValueDifferential(), true);
+
+        depth--;
+        final double threatValue = pieceConfiguration.getLesserScore();
+        int bestOnwardConfigurationIndex = -1;
+        double bestOnwardConfigurationScore = -Double.MAX_VALUE;
+        for (int i = 0; i < onwardPieceConfigurations.size(); i++) {
+            final PieceConfiguration onwardConfiguration = onwardPieceConfigurations.get(i);
+            searchContext.countNode();
+            final int nextDiff = onwardConfiguration.adjustForDraw(onwardConfiguration.getValueDifferential(), true);
+            double comparison = currentDiff - nextDiff;
+            if (depth > 0) {
+                comparison += getBestScoreDifferentialWithPruning(onwardConfiguration, depth,
+                    getOnwardAlpha(comparison, threatValue, Double.POSITIVE_INFINITY),
+                    getOnwardBeta(comparison, threatValue, bestOnwardConfigurationScore),
+                    searchContext, 1) * 0.99;
+            } else if (searchContext.isQuiescenceEnabled()) {
+                comparison += getQuiescenceScoreDifferential(onwardConfiguration,
+                    getOnwardAlpha(comparison, threatValue, Double.POSITIVE_INFINITY),
+                    getOnwardBeta(comparison, threatValue, bestOnwardConfigurationScore),
+                    searchContext, 1) * 0.99;
+            }
+
+            final double onwardConfigurationScore = comparison + threatValue;
+            onwardConfigurationScores[i] = onwardConfigurationScore;
+            if (onwardConfigurationScore > bestOnwardConfigurationScore) {
+                bestOnwardConfigurationScore = onwardConfigurationScore;
+                bestOnwardConfigurationIndex = i;
+            }
+        }
+        return bestOnwardConfigurationIndex;
+    }
+
+    /**
+     * Scores the configuration with an alpha-beta search, playing moves in place for LongsPieceConfiguration
+     * and writing onward configurations into the search context's arena otherwise.
+     * With the search context's arena disabled, each move is played on a new configuration instead.
+     * Only LongsPieceConfiguration uses the search context's transposition table, since the other configurations
+     * score the same positions differently and can't share its entries.
+     * It also tries the killer moves, the counter move and the quiet moves with the best history scores
+     * before the other quiet moves, and teaches the search context's move ordering tables from each cutoff.
+     * The bounds apply to the best onward configuration score, which is the negative of the score differential returned.
+     * When that best score lies between the bounds, the result is exactly that of getBestScoreDifferentialRecursively.
+     * Otherwise the search may stop early, and the result is only a bound on the other side of the one crossed.
+     * Once the search context's deadline has passed, the search unwinds without scoring anything more.
+     * @param alpha The best onward configuration score at or below which the exact score isn't needed
+     * @param beta The best onward configuration score at or above which the exact score isn't needed
+     * @param ply The number of moves between the search's root and the configuration
+     */
+    static double getBestScoreDifferentialWithPruning(PieceConfiguration pieceConfiguration, int depth,
+                                                      double alpha, double beta, SearchContext searchContext, int ply) {
+        if (pieceConfiguration instanceof LongsPieceConfiguration longsPieceConfiguration) {
+            return getBestScoreDifferentialInPlaceWithPruning(longsPieceConfiguration, depth, alpha, beta, searchContext, ply,
+                NO_MOVE);
+        }
+        final int currentDiff = pieceConfiguration.adjustForDraw(pieceConfiguration.getValueDifferential(), false);
+
+        depth--;
+        final short[] moves = searchContext.getArena().getMoveBuffer(ply);
+        final int moveCount = pieceConfiguration.generateMoves(moves);
+        final double threatValue = pieceConfiguration.getLesserScore();
+        final boolean isCheck = pieceConfiguration.isCheck();
+        boolean hasBestMove = false;
+        double bestOnwardConfigurationScore = -Double.MAX_VALUE;
+        for (int i = 0; i < moveCount; i++) {
+            if (searchContext.isStopped()) {
+                return 0;
+            }
+            searchContext.countNode();
+            final PieceConfiguration onwardConfiguration = toOnwardConfiguration(
+                pieceConfiguration, moves[i], searchContext, ply);
+            final int nextDiff = onwardConfiguration.adjustForDraw(onwardConfiguration.getValueDifferential(), false);
+            double comparison = currentDiff - nextDiff;
+            if (depth > 0) {
+                comparison += getBestScoreDifferentialWithPruning(onwardConfiguration, depth,
+                    getOnwardAlpha(comparison, threatValue, beta),
+                    getOnwardBeta(comparison, threatValue, Math.max(alpha, bestOnwardConfigurationScore)),
+                    searchContext, ply + 1) * 0.99;
+            } else if (searchContext.isQuiescenceEnabled()) {
+                comparison += getQuiescenceScoreDifferential(onwardConfiguration,
+                    getOnwardAlpha(comparison, threatValue, beta),
+                    getOnwardBeta(comparison, threatValue, Math.max(alpha, bestOnwardConfigurationScore)),
+                    searchContext, ply + 1) * 0.99;
+            }
+
+            final double onwardConfigurationScore = comparison + threatValue;
+            if (onwardConfigurationScore > bestOnwardConfigurationScore) {
+                bestOnwardConfigurationScore = onwardConfigurationScore;
+                hasBestMove = true;
+                if (bestOnwardConfigurationScore >= beta) {
+                    break;
+                }
+            }
+        }
+
+        if (hasBestMove) {
+            return -bestOnwardConfigurationScore;
+        } else if (isCheck) {
+            // Checkmate
+            return Float.MAX_VALUE;
+        }
+        // Stalemate
+        return -Float.MAX_VALUE;
+    }
+
+    /**
+     * @param previousMove The move which led to the configuration, or NO_MOVE if it isn't known
+     */
+    private static double getBestScoreDifferentialInPlaceWithPruning(LongsPieceConfiguration pieceConfiguration, int depth,
+                                                                     double alpha, double beta,
+                                                                     SearchContext searchContext, int ply,
+                                                                     short previousMove) {
+        final long zobristKey = pieceConfiguration.getZobristKey();
+        final boolean isTransposable = isTransposable(pieceConfiguration, depth);
+        final TranspositionTable.Entry transpositionTableEntry = searchContext.getTranspositionTableEntry();
+        short hashMove = NO_MOVE;
+        if (isTransposable && searchContext.getTranspositionTable().probe(zobristKey, transpositionTableEntry)) {
+            if (isUsable(transpositionTableEntry, depth, alpha, beta)) {
+                return -transpositionTableEntry.getScore();
+            }
+            hashMove = transpositionTableEntry.getMove();
+        }
+        final int currentDiff = pieceConfiguration.adjustForDraw(pieceConfiguration.getValueDifferential(), false);
+
+        depth--;
+        final StagedMoveGenerator moveGenerator = searchContext.getArena().getMoveGenerator(ply);
+        resetMoveGenerator(moveGenerator, pieceConfiguration, hashMove, searchContext, ply, previousMove);
+        final double threatValue = pieceConfiguration.getLesserScore();
+        final boolean isCheck = pieceConfiguration.isCheck();
+        short bestMove = NO_MOVE;
+        double bestOnwardConfigurationScore = -Double.MAX_VALUE;
+        int moveNumber = 0;
+        for (short move = moveGenerator.nextMove(); move != NO_MOVE; move = moveGenerator.nextMove()) {
+            if (searchContext.isStopped()) {
+                return 0;
+            }
+            searchContext.countNode();
+            final LongsPieceConfiguration onwardConfiguration = makeMove(pieceConfiguration, move, searchContext);
+            final int nextDiff = onwardConfiguration.adjustForDraw(onwardConfiguration.getValueDifferential(), false);
+            double comparison = currentDiff - nextDiff;
+            if (depth > 0) {
+                comparison += getBestScoreDifferentialInPlaceWithPruning(onwardConfiguration, depth,
+                    getOnwardAlpha(comparison, threatValue, beta),
+                    getOnwardBeta(comparison, threatValue, Math.max(alpha, bestOnwardConfigurationScore)),
+                    searchContext, ply + 1, move) * 0.99;
+            } else if (searchContext.isQuiescenceEnabled()) {
+                comparison += getQuiescenceScoreDifferential(onwardConfiguration,
+                    getOnwardAlpha(comparison, threatValue, beta),
+                    getOnwardBeta(comparison, threatValue, Math.max(alpha, bestOnwardConfigurationScore)),
+                    searchContext, ply + 1) * 0.99;
+            }
+            unmakeMove(pieceConfiguration, onwardConfiguration);
+
+            final double onwardConfigurationScore = comparison + threatValue;
+            if (onwardConfigurationScore > bestOnwardConfigurationScore) {
+                bestOnwardConfigurationScore = onwardConfigurationScore;
+                bestMove = move;
+                if (bestOnwardConfigurationScore >= beta) {
+                    if (!searchContext.isStopped()) {
+                        searchContext.getMoveOrderingTables().recordCutoff(ply, move, isQuiet(pieceConfiguration, move),
+                            previousMove, depth + 1, moveNumber);
+                    }
+                    break;
+                }
+            }
+            moveNumber++;
+        }
+
+        if (bestMove != NO_MOVE) {
+            if (isTransposable && !searchContext.isStopped()) {
+                store(searchContext, zobristKey, depth + 1, alpha, beta, bestOnwardConfigurationScore, bestMove);
+            }
+            return -bestOnwardConfigurationScore;
+        } else if (isCheck) {
+            // Checkmate
+            return Float.MAX_VALUE;
+        }
+        // Stalemate
+        return -Float.MAX_VALUE;
+    }
+
+    /**
+     * Scores a configuration at the search's horizon as a search of one more move would, but with the value differential
+     * each move leaves once the captures and promotions after it have been played out, so that a piece left hanging
+     * at the horizon is seen to be lost. A stalemate at the horizon isn't seen, since the quiet moves aren't generated.
+     * The bounds and the result are as for getBestScoreDifferentialWithPruning, as is the use of the arena.
+     * The transposition table isn't used.
+     * @param ply The number of moves between the search's root and the configuration
+     */
+    static double getQuiescenceScoreDifferential(PieceConfiguration pieceConfiguration, double alpha, double beta,
+                                                 SearchContext searchContext, int ply) {
+        if (!(pieceConfiguration instanceof LongsPieceConfiguration)) {
+            // The lesser score depends on flags which the other configurations only set when asked
+            pieceConfiguration.setHigherBitFlags();
+        }
+        final int currentDiff = pieceConfiguration.adjustForDraw(pieceConfiguration.getValueDifferential(), false);
+        final double threatValue = pieceConfiguration.getLesserScore();
+        // The best onward configuration score is the current value differential and the quiescent one added together,
+        // just as a quiet move scores the current value differential twice over
+        final int quiescentDiff = getQuiescentValueDifferential(pieceConfiguration,
+            toQuiescentBound(Math.floor(alpha - currentDiff - threatValue) - 1),
+            toQuiescentBound(Math.ceil(beta - currentDiff - threatValue) + 1),
+            searchContext, ply, 0);
+        if (quiescentDiff == -CHECKMATE_VALUE) {
+            // Checkmate
+            return Float.MAX_VALUE;
+        }
+        return -((double) (currentDiff + quiescentDiff) + threatValue);
+    }
+
+    /**
+     * A negamax alpha-beta search of the captures and promotions, scoring each configuration by its value differential alone.
+     * Unless in check, the player can stand pat on the current value differential instead of making a capture.
+     * In check every move is searched, since the escape from check might not be a capture.
+     * @param quiescenceDepth The number of moves played beyond the horizon
+     * @return The value differential for the player to move, as exact as the bounds require,
+     * or a checkmate value which is less extreme the further beyond the horizon the checkmate is
+     */
+    private static int getQuiescentValueDifferential(PieceConfiguration pieceConfiguration, int alpha, int beta,
+                                                     SearchContext searchContext, int ply, int quiescenceDepth) {
+        if (pieceConfiguration instanceof LongsPieceConfiguration longsPieceConfiguration) {
+            return getQuiescentValueDifferentialInPlace(longsPieceConfiguration, alpha, beta, searchContext, ply,
+                quiescenceDepth);
+        }
+        pieceConfiguration.setHigherBitFlags();
+        final int currentDiff = pieceConfiguration.adjustForDraw(pieceConfiguration.getValueDifferential(), false);
+        final boolean isEvading = pieceConfiguration.isCheck() && quiescenceDepth < MAX_QUIESCENCE_DEPTH;
+        int bestDiff = -CHECKMATE_VALUE + quiescenceDepth;
+        if (!isEvading) {
+            bestDiff = currentDiff;
+            if (bestDiff >= beta || quiescenceDepth == MAX_QUIESCENCE_DEPTH) {
+                return bestDiff;
+            }
+        }
+
+        final StagedMoveGenerator moveGenerator = searchContext.getArena().getMoveGenerator(ply);
+        resetQuiescenceMoves(moveGenerator, pieceConfiguration, isEvading);
+        for (short move = moveGenerator.nextMove(); move != NO_MOVE; move = moveGenerator.nextMove()) {
+            if (searchContext.isStopped()) {
+                return 0;
+            }
+            searchContext.countNode();
+            final PieceConfiguration onwardConfiguration = toOnwardConfiguration(pieceConfiguration, move, searchContext, ply);
+            final int nextDiff = onwardConfiguration.adjustForDraw(onwardConfiguration.getValueDifferential(), false);
+            final int bound = Math.max(alpha, bestDiff);
+            // Delta pruning: unless in check, the opponent can stand pat, so a capture gaining too little can't matter
+            if (!isEvading && -nextDiff <= bound) {
+                onwardConfiguration.setHigherBitFlags();
+                if (!onwardConfiguration.isCheck()) {
+                    bestDiff = Math.max(bestDiff, -nextDiff);
+                    continue;
+                }
+            }
+            final int onwardDiff = -getQuiescentValueDifferential(onwardConfiguration, -beta, -bound,
+                searchContext, ply + 1, quiescenceDepth + 1);
+            if (onwardDiff > bestDiff) {
+                bestDiff = onwardDiff;
+                if (bestDiff >= beta) {
+                    break;
+                }
+            }
+        }
+        return bestDiff;
+    }
+
+    private static int getQuiescentValueDifferentialInPlace(LongsPieceConfiguration pieceConfiguration, int alpha, int beta,
+                                                            SearchContext searchContext, int ply, int quiescenceDepth) {
+        final int currentDiff = pieceConfiguration.adjustForDraw(pieceConfiguration.getValueDifferential(), false);
+        final boolean isEvading = pieceConfiguration.isCheck() && quiescenceDepth < MAX_QUIESCENCE_DEPTH;
+        int bestDiff = -CHECKMATE_VALUE + quiescenceDepth;
+        if (!isEvading) {
+            bestDiff = currentDiff;
+            if (bestDiff >= beta || quiescenceDepth == MAX_QUIESCENCE_DEPTH) {
+                return bestDiff;
+            }
+        }
+
+        final StagedMoveGenerator moveGenerator = searchContext.getArena().getMoveGenerator(ply);
+        resetQuiescenceMoves(moveGenerator, pieceConfiguration, isEvading);
+        for (short move = moveGenerator.nextMove(); move != NO_MOVE; move = moveGenerator.nextMove()) {
+            if (searchContext.isStopped()) {
+                return 0;
+            }
+            searchContext.countNode();
+            final LongsPieceConfiguration onwardConfiguration = makeMove(pieceConfiguration, move, searchContext);
+            final int nextDiff = onwardConfiguration.adjustForDraw(onwardConfiguration.getValueDifferential(), false);
+            final int bound = Math.max(alpha, bestDiff);
+            if (!isEvading && -nextDiff <= bound && !onwardConfiguration.isCheck()) {
+                unmakeMove(pieceConfiguration, onwardConfiguration);
+                bestDiff = Math.max(bestDiff, -nextDiff);
+                continue;
+            }
+            final int onwardDiff = -getQuiescentValueDifferentialInPlace(onwardConfiguration, -beta, -bound,
+                searchContext, ply + 1, quiescenceDepth + 1);
+            unmakeMove(pieceConfiguration, onwardConfiguration);
+            if (onwardDiff > bestDiff) {
+                bestDiff = onwardDiff;
+                if (bestDiff >= beta) {
+                    break;
+                }
+            }
+        }
+        return bestDiff;
+    }
+
+    // Writes the onward configuration into the arena, or creates a new one when the arena is disabled
+    private static PieceConfiguration toOnwardConfiguration(PieceConfiguration pieceConfiguration, short move,
+                                                            SearchContext searchContext, int ply) {
+        return searchContext.isArenaEnabled()
+            ? searchContext.getArena().toNewConfigurationFromMove(pieceConfiguration, move, ply)
+            : PieceConfiguration.toNewConfigurationFromMove(pieceConfiguration, move);
+    }
+
+    // Plays the move in place, or on a new configuration when the arena is disabled
+    private static LongsPieceConfiguration makeMove(LongsPieceConfiguration pieceConfiguration, short move,
+                                                    SearchContext searchContext) {
+        if (searchContext.isArenaEnabled()) {
+            pieceConfiguration.makeMove(move);
+            return pieceConfiguration;
+        }
+        return (LongsPieceConfiguration) PieceConfiguration.toNewConfigurationFromMove(pieceConfiguration, move);
+    }
+
+    private static void unmakeMove(LongsPieceConfiguration pieceConfiguration, LongsPieceConfiguration onwardConfiguration) {
+        if (onwardConfiguration == pieceConfiguration) {
+            pieceConfiguration.unmakeMove();
+        }
+    }
+
+    private static void resetQuiescenceMoves(StagedMoveGenerator moveGenerator, PieceConfiguration pieceConfiguration,
+                                             boolean isEvading) {
+        if (isEvading) {
+            moveGenerator.reset(pieceConfiguration, NO_MOVE, NO_MOVE, NO_MOVE);
+        } else {
+            moveGenerator.resetCapturesAndPromotions(pieceConfiguration);
+        }
+    }
+
+    // Keeps a bound of the search's scores within the range of value differentials the quiescence search returns
+    private static int toQuiescentBound(double bound) {
+        return (int) Math.max(-CHECKMATE_VALUE - 1, Math.min(CHECKMATE_VALUE + 1, bound));
+    }
+
+    private static void resetMoveGenerator(StagedMoveGenerator moveGenerator, PieceConfiguration pieceConfiguration,
+                                           short hashMove, SearchContext searchContext, int ply, short previousMove) {
+        if (!searchContext.isMoveOrderingEnabled()) {
+            moveGenerator.setHistoryScores(null);
+            moveGenerator.reset(pieceConfiguration, hashMove, NO_MOVE, NO_MOVE);
+            return;
+        }
+        final MoveOrderingTables moveOrderingTables = searchContext.getMoveOrderingTables();
+        moveGenerator.setHistoryScores(moveOrderingTables.getHistoryScores());
+        moveGenerator.reset(pieceConfiguration, hashMove, moveOrderingTables.getFirstKillerMove(ply),
+            moveOrderingTables.getSecondKillerMove(ply), moveOrderingTables.getCounterMove(previousMove));
+    }
+
+    // Whether the move neither takes a piece nor promotes, assuming it is one of the player's moves
+    private static boolean isQuiet(PieceConfiguration pieceConfiguration, short move) {
+        return (move & 0b1111000000000000) == 0 && !pieceConfiguration.isCapture(move);
+    }
+
+    /**
+     * Whether the configuration's score can be shared with other configurations of the same position.
+     * A draw by the fifty move rule within the search would make the score depend on the half move clock,
+     * which the Zobrist key leaves out. Threefold repetition isn't checked below the search's root.
+     */
+    private static boolean isTransposable(PieceConfiguration pieceConfiguration, int depth) {
+        return pieceConfiguration.getHalfMoveClock() + depth <= NO_CAPTURE_OR_PAWN_MOVE_LIMIT;
+    }
+
+    /**
+     * Only a score searched to the same depth is used, since the depth discount makes the scores of different depths
+     * incomparable, and this keeps the search's choice the same as it would be without the table
+     */
+    private static boolean isUsable(TranspositionTable.Entry transpositionTableEntry, int depth, double alpha, double beta) {
+        if (transpositionTableEntry.getDepth() != depth) {
+            return false;
+        }
+        final double score = transpositionTableEntry.getScore();
+        return switch (transpositionTableEntry.getBound()) {
+            case EXACT_BOUND -> true;
+            case LOWER_BOUND -> score >= beta;
+            default -> score <= alpha;
+        };
+    }
+
+    private static void store(SearchContext searchContext, long zobristKey, int depth, double alpha, double beta,
+                              double bestOnwardConfigurationScore, short bestMove) {
+        final int bound = bestOnwardConfigurationScore >= beta
+            ? LOWER_BOUND
+            : bestOnwardConfigurationScore <= alpha ? UPPER_BOUND : EXACT_BOUND;
+        searchContext.getTranspositionTable().store(zobristKey, depth, bound, bestOnwardConfigurationScore, bestMove);
+    }
+
+    /**
+     * The onward configuration's own best score is worth knowing exactly only above this bound,
+     * since at or below it the move would score at least beta, which is enough to stop the search.
+     * The bound is stepped until it agrees with the rounding of the score calculation.
+     */
+    private static double getOnwardAlpha(double comparison, double threatValue, double beta) {
+        double onwardAlpha = (comparison + threatValue - beta) / 0.99;
+        while (getOnwardConfigurationScore(comparison, threatValue, onwardAlpha) < beta) {
+            onwardAlpha = Math.nextDown(onwardAlpha);
+        }
+        return onwardAlpha;
+    }
+
+    /**
+     * The onward configuration's own best score is worth knowing exactly only below this bound,
+     * since at or above it the move would score no more than alpha, which can't beat the best move found so far.
+     */
+    private static double getOnwardBeta(double comparison, double threatValue, double alpha) {
+        double onwardBeta = (comparison + threatValue - alpha) / 0.99;
+        while (getOnwardConfigurationScore(comparison, threatValue, onwardBeta) > alpha) {
+            onwardBeta = Math.nextUp(onwardBeta);
+        }
+        return onwardBeta;
+    }
+
+    // Calculates the score of a move as the search does, from the onward configuration's own best score
+    private static double getOnwardConfigurationScore(double comparison, double threatValue, double onwardBestScore) {
+        return comparison + -onwardBestScore * 0.99 + threatValue;
+    }
+
+    static StagedMoveGenerator[] createMoveGenerators(int depth) {
+        final StagedMoveGenerator[] moveGenerators = new StagedMoveGenerator[depth];
+        for(int i = 0; i < depth; i++) {
+            moveGenerators[i] = new StagedMoveGenerator();
+        }
+        return moveGenerators;
+    }
+
     static ConfigurationScorePair getBestConfigurationScorePairRecursively(PieceConfiguration pieceConfiguration, int depth, boolean isInitialDepth) {
         final int currentDiff = pieceConfiguration.adjustForDraw(pieceConfiguration.getValueDifferential(), isInitialDepth);
 
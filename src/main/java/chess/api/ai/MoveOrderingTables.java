@@ -0,0 +1,102 @@
+package chess.api.ai;
+
+import java.util.Arrays;
+
+import static chess.api.configuration.StagedMoveGenerator.NO_MOVE;
+
+/**
+ * This class holds what one search thread has learnt about which quiet moves cause cutoffs,
+ * so that the configurations it searches later can try those moves first:
+ * two killer moves for each ply, a history score for each pair of from and to positions,
+ * and a counter move for each pair of from and to positions of the move before.
+ * It also counts the cutoffs, and how many of them came from the first move searched, which shows how well the moves are ordered.
+ * Like the search context which holds it, it isn't thread safe.
+ */
+class MoveOrderingTables {
+
+    // The from and to positions of a move, without any promotion
+    private static final int FROM_TO_MASK = 0b0000111111111111;
+
+    private static final int FROM_TO_COUNT = 1 << 12;
+
+    // The history scores are halved once one of them passes this, so that recent cutoffs count for more
+    private static final int MAX_HISTORY_SCORE = 1 << 24;
+
+    private short[] killerMoves = new short[64];
+
+    private final int[] historyScores = new int[FROM_TO_COUNT];
+
+    private final short[] counterMoves = new short[FROM_TO_COUNT];
+
+    private long cutoffCount;
+
+    private long firstMoveCutoffCount;
+
+    short getFirstKillerMove(int ply) {
+        return ply << 1 < killerMoves.length ? killerMoves[ply << 1] : NO_MOVE;
+    }
+
+    short getSecondKillerMove(int ply) {
+        return ply << 1 < killerMoves.length ? killerMoves[(ply << 1) + 1] : NO_MOVE;
+    }
+
+    /**
+     * @return The quiet move which last caused a cutoff in reply to the previous move, or NO_MOVE
+     */
+    short getCounterMove(short previousMove) {
+        return previousMove == NO_MOVE ? NO_MOVE : counterMoves[previousMove & FROM_TO_MASK];
+    }
+
+    /**
+     * @return The history scores, indexed by a move's from and to positions, which a move generator can order quiet moves by
+     */
+    int[] getHistoryScores() {
+        return historyScores;
+    }
+
+    /**
+     * Counts a cutoff, and learns from it when the move which caused it is quiet
+     * @param previousMove The move which led to the configuration, or NO_MOVE
+     * @param depth The depth searched below the configuration
+     * @param moveNumber The number of moves searched before the move which caused the cutoff
+     */
+    void recordCutoff(int ply, short move, boolean isQuiet, short previousMove, int depth, int moveNumber) {
+        cutoffCount++;
+        if (moveNumber == 0) {
+            firstMoveCutoffCount++;
+        }
+        if (!isQuiet) {
+            return;
+        }
+        final int killerIndex = ply << 1;
+        if (killerIndex >= killerMoves.length) {
+            killerMoves = Arrays.copyOf(killerMoves, Math.max(killerMoves.length << 1, killerIndex + 2));
+        }
+        if (killerMoves[killerIndex] != move) {
+            killerMoves[killerIndex + 1] = killerMoves[killerIndex];
+            killerMoves[killerIndex] = move;
+        }
+        if (previousMove != NO_MOVE) {
+            counterMoves[previousMove & FROM_TO_MASK] = move;
+        }
+        // Cutoffs deeper in the tree rule out more configurations, so they count for more
+        final int historyIndex = move & FROM_TO_MASK;
+        historyScores[historyIndex] += depth * depth;
+        if (historyScores[historyIndex] > MAX_HISTORY_SCORE) {
+            for(int i = 0; i < FROM_TO_COUNT; i++) {
+                historyScores[i] >>= 1;
+            }
+        }
+    }
+
+    long getCutoffCount() {
+        return cutoffCount;
+    }
+
+    /**
+     * @return The proportion of cutoffs which came from the first move searched, or zero before any cutoff
+     */
+    double getFirstMoveCutoffRatio() {
+        return cutoffCount == 0 ? 0 : (double) firstMoveCutoffCount / cutoffCount;
+    }
+}
@@ -0,0 +1,118 @@
+package chess.api.ai;
+
+import chess.api.FENReader;
+import chess.api.FENWriter;
+import chess.api.configuration.CompactPieceConfiguration;
+import chess.api.configuration.IntsPieceConfiguration;
+import chess.api.configuration.LongsPieceConfiguration;
+import chess.api.configuration.PieceConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+import static java.lang.String.format;
+
+/**
+ * Command line entry point for timing the concurrent search with pruning, which is the search the engine plays with,
+ * with and without the search threads' configuration arenas.
+ * Usage: SearchBenchmark depth [fen] [--iterations=count] [--ints] [--compact]
+ * Each mode searches the position the given number of times, after one search to warm up,
+ * and the elapsed time and garbage collections of each mode are logged.
+ * The root moves are always split across the thread pool, whatever the depth and core count.
+ * The transposition table is emptied before each search, so that no search finds the results of those before,
+ * and its emptying isn't timed.
+ */
+public class SearchBenchmark {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchBenchmark.class);
+
+    public static void main(String[] args) {
+        run(args);
+        // The search threads of ConcurrentPositionEvaluator would otherwise keep the JVM running
+        System.exit(0);
+    }
+
+    /**
+     * @return The results of the search without arenas followed by the results with arenas
+     */
+    @SuppressWarnings("deprecation")
+    static Result[] run(String[] args) {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Usage: SearchBenchmark depth [fen] [--iterations=count] [--ints] [--compact]");
+        }
+        final int depth = Integer.parseInt(args[0]);
+        String fen = FENWriter.STARTING_POSITION;
+        int iterations = 5;
+        Class<? extends PieceConfiguration> configurationClass = LongsPieceConfiguration.class;
+        for(int i = 1; i < args.length; i++) {
+            final String arg = args[i];
+            if (arg.equals("--ints")) {
+                configurationClass = IntsPieceConfiguration.class;
+            } else if (arg.equals("--compact")) {
+                configurationClass = CompactPieceConfiguration.class;
+            } else if (arg.startsWith("--iterations=")) {
+                iterations = Integer.parseInt(arg.substring("--iterations=".length()));
+            } else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException(format("Unrecognised benchmark option %s", arg));
+            } else {
+                fen = arg;
+            }
+        }
+
+        final boolean wasArenaEnabled = ConcurrentPositionEvaluator.isArenaEnabled();
+        try {
+            final Result[] results = new Result[2];
+            for(int mode = 0; mode < 2; mode++) {
+                final boolean isArenaEnabled = mode == 1;
+                ConcurrentPositionEvaluator.setArenaEnabled(isArenaEnabled);
+                results[mode] = measure(FENReader.read(fen, configurationClass), depth, iterations);
+                LOGGER.info("Search {} of {} with {} {} arenas: {} searches in {}ms ({}ms per search), "
+                        + "{} garbage collections taking {}ms", depth, fen, configurationClass.getSimpleName(),
+                    isArenaEnabled ? "with" : "without", iterations, results[mode].elapsedMillis(),
+                    results[mode].elapsedMillis() / Math.max(iterations, 1), results[mode].collectionCount(),
+                    results[mode].collectionMillis());
+            }
+            return results;
+        } finally {
+            ConcurrentPositionEvaluator.setArenaEnabled(wasArenaEnabled);
+        }
+    }
+
+    private static Result measure(PieceConfiguration pieceConfiguration, int depth, int iterations) {
+        final TranspositionTable transpositionTable = SearchContext.forCurrentThread().getTranspositionTable();
+        // The first search warms up the code and the search threads' arenas
+        transpositionTable.clear();
+        ConcurrentPositionEvaluator.getBestConfigurationScorePairConcurrently(pieceConfiguration, depth, true);
+        final long startCollectionCount = getCollectionCount();
+        final long startCollectionMillis = getCollectionMillis();
+        long elapsedNanos = 0;
+        for(int i = 0; i < iterations; i++) {
+            transpositionTable.clear();
+            final long startTime = System.nanoTime();
+            ConcurrentPositionEvaluator.getBestConfigurationScorePairConcurrently(pieceConfiguration, depth, true);
+            elapsedNanos += System.nanoTime() - startTime;
+        }
+        return new Result(elapsedNanos / 1_000_000, getCollectionCount() - startCollectionCount,
+            getCollectionMillis() - startCollectionMillis);
+    }
+
+    private static long getCollectionCount() {
+        long collectionCount = 0;
+        for(GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collectionCount += Math.max(garbageCollector.getCollectionCount(), 0);
+        }
+        return collectionCount;
+    }
+
+    private static long getCollectionMillis() {
+        long collectionMillis = 0;
+        for(GarbageCollectorMXBean garbageCollector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collectionMillis += Math.max(garbageCollector.getCollectionTime(), 0);
+        }
+        return collectionMillis;
+    }
+
+    record Result(long elapsedMillis, long collectionCount, long collectionMillis) {}
+}
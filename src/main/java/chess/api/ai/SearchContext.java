@@ -0,0 +1,148 @@
+package chess.api.ai;
+
+import chess.api.configuration.ConfigurationArena;
+
+/**
+ * This class holds the state which one search thread reuses from node to node and from search to search:
+ * the arena of configurations, move buffers and move generators for each ply, a count of the nodes visited,
+ * the deadline by which a timed search has to stop, the transposition table with its entry for probing,
+ * the tables which order the quiet moves, whether the searches play out the captures at their horizon,
+ * and whether they use the arena at all.
+ * A context isn't thread safe, and is meant to be owned by one search thread at a time.
+ */
+class SearchContext {
+
+    // Each search thread keeps its context between searches, so its configurations are only allocated once
+    private static final ThreadLocal<SearchContext> SEARCH_CONTEXTS = ThreadLocal.withInitial(SearchContext::new);
+
+    // The clock is only read once every this many nodes, since reading it costs more than visiting a node
+    private static final long DEADLINE_CHECK_MASK = 1023;
+
+    private static final int TRANSPOSITION_TABLE_SIZE_IN_MEGABYTES = 32;
+
+    // Every search thread shares one table, so each can use the positions the others have searched
+    private static final TranspositionTable SHARED_TRANSPOSITION_TABLE = new TranspositionTable(
+        TRANSPOSITION_TABLE_SIZE_IN_MEGABYTES);
+
+    private final ConfigurationArena arena = new ConfigurationArena();
+
+    private final TranspositionTable transpositionTable;
+
+    private final TranspositionTable.Entry transpositionTableEntry = new TranspositionTable.Entry();
+
+    private final MoveOrderingTables moveOrderingTables = new MoveOrderingTables();
+
+    private long nodeCount;
+
+    private boolean hasDeadline;
+
+    private long deadlineNanos;
+
+    private boolean isStopped;
+
+    private boolean isQuiescenceEnabled = true;
+
+    private boolean isMoveOrderingEnabled = true;
+
+    private boolean isArenaEnabled = true;
+
+    SearchContext() {
+        this(SHARED_TRANSPOSITION_TABLE);
+    }
+
+    SearchContext(TranspositionTable transpositionTable) {
+        this.transpositionTable = transpositionTable;
+    }
+
+    static SearchContext forCurrentThread() {
+        return SEARCH_CONTEXTS.get();
+    }
+
+    ConfigurationArena getArena() {
+        return arena;
+    }
+
+    TranspositionTable getTranspositionTable() {
+        return transpositionTable;
+    }
+
+    TranspositionTable.Entry getTranspositionTableEntry() {
+        return transpositionTableEntry;
+    }
+
+    MoveOrderingTables getMoveOrderingTables() {
+        return moveOrderingTables;
+    }
+
+    /**
+     * @return The number of configurations visited below the roots of the searches since the count was last reset
+     */
+    long getNodeCount() {
+        return nodeCount;
+    }
+
+    void countNode() {
+        nodeCount++;
+        if (hasDeadline && (nodeCount & DEADLINE_CHECK_MASK) == 0 && System.nanoTime() - deadlineNanos >= 0) {
+            isStopped = true;
+        }
+    }
+
+    /**
+     * Makes the searches using this context stop once System.nanoTime() reaches the deadline
+     */
+    void setDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+        hasDeadline = true;
+        isStopped = false;
+    }
+
+    void clearDeadline() {
+        hasDeadline = false;
+        isStopped = false;
+    }
+
+    /**
+     * @return Whether the deadline has been found to have passed, after which the searches' scores are meaningless
+     */
+    boolean isStopped() {
+        return isStopped;
+    }
+
+    boolean isQuiescenceEnabled() {
+        return isQuiescenceEnabled;
+    }
+
+    /**
+     * Without a quiescence search, the configurations at the horizon are scored by their material alone.
+     * The transposition table shouldn't be shared with contexts which differ in this, since their scores differ.
+     */
+    void setQuiescenceEnabled(boolean isQuiescenceEnabled) {
+        this.isQuiescenceEnabled = isQuiescenceEnabled;
+    }
+
+    boolean isMoveOrderingEnabled() {
+        return isMoveOrderingEnabled;
+    }
+
+    /**
+     * Without move ordering, the searches try the hash move and the captures first as before,
+     * but don't use the killer moves, counter moves or history scores. The cutoffs are counted either way.
+     */
+    void setMoveOrderingEnabled(boolean isMoveOrderingEnabled) {
+        this.isMoveOrderingEnabled = isMoveOrderingEnabled;
+    }
+
+    boolean isArenaEnabled() {
+        return isArenaEnabled;
+    }
+
+    /**
+     * Without the arena, the searches with pruning play each move on a new configuration,
+     * instead of in place for LongsPieceConfiguration or in the arena's configuration for its ply otherwise.
+     * The arena's move buffers and move generators are used either way, and the scores are the same.
+     */
+    void setArenaEnabled(boolean isArenaEnabled) {
+        this.isArenaEnabled = isArenaEnabled;
+    }
+}
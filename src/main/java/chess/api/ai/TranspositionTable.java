@@ -0,0 +1,191 @@
+package chess.api.ai;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class caches search results by Zobrist key, so that a position reached again by transposition,
+ * in the same search or a later one, needn't be searched again.
+ * The table's memory is fixed when it is created, as a power-of-two number of buckets in one long array,
+ * and it can be shared by any number of search threads without locking.
+ * Each bucket holds two entries. The first is kept for the deepest result of the current search,
+ * and the second takes any result which the first won't.
+ * Each entry occupies two adjacent longs: the score, followed by the score combined using XOR with the data,
+ * which packs the best move, depth, bound type, generation and the upper bits of the key.
+ * An entry torn by concurrent writers fails the key check on reading.
+ */
+public class TranspositionTable {
+
+    // The score is the configuration's exact best onward configuration score
+    public static final int EXACT_BOUND = 1;
+
+    // The score is no more than the configuration's best onward configuration score
+    public static final int LOWER_BOUND = 2;
+
+    // The score is no less than the configuration's best onward configuration score
+    public static final int UPPER_BOUND = 3;
+
+    // An empty entry has no bound type
+    private static final int NO_BOUND = 0;
+
+    private static final int BYTES_PER_BUCKET = 32;
+
+    private static final long MOVE_MASK = 0xFFFF;
+
+    private static final int DEPTH_SHIFT = 16;
+
+    private static final long DEPTH_MASK = 0xFF;
+
+    private static final int BOUND_SHIFT = 24;
+
+    private static final long BOUND_MASK = 0b11;
+
+    private static final int GENERATION_SHIFT = 26;
+
+    private static final int GENERATION_MASK = 0xFF;
+
+    // The lower bits of the key choose the bucket, and the upper bits are kept to check against
+    private static final int KEY_CHECK_SHIFT = 34;
+
+    private final long[] entries;
+
+    private final int bucketMask;
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder storeCount = new LongAdder();
+
+    private volatile int generation;
+
+    /**
+     * @param sizeInMegabytes The approximate memory to use, which is rounded down to a power-of-two number of buckets
+     */
+    public TranspositionTable(int sizeInMegabytes) {
+        if (sizeInMegabytes < 1) {
+            throw new IllegalArgumentException("Transposition table size must be at least one megabyte");
+        }
+        final int bucketCount = Integer.highestOneBit((int) Math.min(
+            ((long) sizeInMegabytes << 20) / BYTES_PER_BUCKET, 1 << 28));
+        entries = new long[bucketCount << 2];
+        bucketMask = bucketCount - 1;
+    }
+
+    /**
+     * Ages the entries stored so far, so that the entries of the searches to come can replace them
+     */
+    public void startNewSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
+    }
+
+    /**
+     * Empties the table, so that the next search doesn't use the results of those before.
+     * It shouldn't be called while a search is using the table.
+     */
+    void clear() {
+        Arrays.fill(entries, 0);
+    }
+
+    /**
+     * Copies the entry stored for the key into the given entry
+     * @return Whether there was an entry for the key
+     */
+    public boolean probe(long zobristKey, Entry entry) {
+        final int bucketIndex = getBucketIndex(zobristKey);
+        for(int index = bucketIndex; index < bucketIndex + 4; index += 2) {
+            final long scoreBits = entries[index];
+            final long data = entries[index + 1] ^ scoreBits;
+            if (isEntryForKey(data, zobristKey)) {
+                entry.score = Double.longBitsToDouble(scoreBits);
+                entry.move = (short) (data & MOVE_MASK);
+                entry.depth = (int) ((data >>> DEPTH_SHIFT) & DEPTH_MASK);
+                entry.bound = (int) ((data >>> BOUND_SHIFT) & BOUND_MASK);
+                hitCount.increment();
+                return true;
+            }
+        }
+        missCount.increment();
+        return false;
+    }
+
+    /**
+     * @param depth The depth searched below the configuration, which must be less than 256
+     * @param bound EXACT_BOUND, LOWER_BOUND or UPPER_BOUND
+     * @param move The configuration's best move, or NO_MOVE
+     */
+    public void store(long zobristKey, int depth, int bound, double score, short move) {
+        final int bucketIndex = getBucketIndex(zobristKey);
+        final int index = isReplaceable(entries[bucketIndex + 1] ^ entries[bucketIndex], zobristKey, depth)
+            ? bucketIndex
+            : bucketIndex + 2;
+        final long data = (zobristKey >>> KEY_CHECK_SHIFT << KEY_CHECK_SHIFT)
+            | ((long) generation << GENERATION_SHIFT)
+            | ((long) bound << BOUND_SHIFT)
+            | ((long) depth << DEPTH_SHIFT)
+            | (move & MOVE_MASK);
+        final long scoreBits = Double.doubleToRawLongBits(score);
+        entries[index] = scoreBits;
+        entries[index + 1] = data ^ scoreBits;
+        storeCount.increment();
+    }
+
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    public long getStoreCount() {
+        return storeCount.sum();
+    }
+
+    private int getBucketIndex(long zobristKey) {
+        return ((int) zobristKey & bucketMask) << 2;
+    }
+
+    private static boolean isEntryForKey(long data, long zobristKey) {
+        return (data >>> KEY_CHECK_SHIFT) == (zobristKey >>> KEY_CHECK_SHIFT)
+            && ((data >>> BOUND_SHIFT) & BOUND_MASK) != NO_BOUND;
+    }
+
+    // The depth-preferred entry gives way to a result for the same key, to a deeper result, or once it has aged
+    private boolean isReplaceable(long data, long zobristKey, int depth) {
+        return isEntryForKey(data, zobristKey)
+            || ((data >>> BOUND_SHIFT) & BOUND_MASK) == NO_BOUND
+            || ((data >>> GENERATION_SHIFT) & GENERATION_MASK) != generation
+            || ((data >>> DEPTH_SHIFT) & DEPTH_MASK) <= depth;
+    }
+
+    /**
+     * A copy of a stored entry, which one search thread can reuse for every probe
+     */
+    public static class Entry {
+
+        private double score;
+
+        private short move;
+
+        private int depth;
+
+        private int bound;
+
+        public double getScore() {
+            return score;
+        }
+
+        public short getMove() {
+            return move;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public int getBound() {
+            return bound;
+        }
+    }
+}
@@ -0,0 +1,683 @@
+package chess.api.configuration;
+
+import chess.api.pieces.MagicBitboards;
+import chess.api.pieces.Piece;
+
+import java.util.List;
+
+import static chess.api.MoveDescriber.describeMove;
+import static chess.api.pieces.Piece.FAST_VALUE_ARRAY;
+
+/**
+ * This class holds board state in eight 64-bit fields: one for each colour and one for each piece type.
+ * Each bit of those 64-bit numbers corresponds to a board position, starting from a1 as the least-significant bit.
+ * Nothing else is held for each configuration, so copying a configuration only copies those fields.
+ * The data which is derived from the pieces, such as threatened status, pins and checks, is computed when a query
+ * needs it into a scratch object belonging to the current thread, which serves one configuration at a time.
+ */
+public class CompactPieceConfiguration extends PieceConfiguration {
+
+    private static final long PROMOTION_RANK_DATA = 0xFF000000000000FFL;
+
+    private static final long[] DOUBLE_MOVE_RANK_DATA = {0x0000000000FF0000L, 0x0000FF0000000000L};
+
+    private static final long[] STARTING_POSITION_COLOUR_DATA = {0x000000000000FFFFL, 0xFFFF000000000000L};
+
+    // The starting positions of the pieces which are on a starting position of their own type
+    private static final long STARTING_POSITION_PIECE_DATA = 0x1000000000000010L;
+
+    private static final long STARTING_POSITION_KNIGHT_DATA = 0x4200000000000042L;
+
+    private static final long STARTING_POSITION_BISHOP_DATA = 0x2400000000000024L;
+
+    private static final long STARTING_POSITION_ROOK_DATA = 0x8100000000000081L;
+
+    private static final long STARTING_POSITION_QUEEN_DATA = 0x0800000000000008L;
+
+    private static final long STARTING_POSITION_PAWN_DATA = 0x00FF00000000FF00L;
+
+    private static final long CENTRE_DATA = 103481868288L;
+
+    private static final ThreadLocal<DerivedData> DERIVED_DATA = ThreadLocal.withInitial(DerivedData::new);
+
+    private long whiteData;
+
+    private long blackData;
+
+    private long kingData;
+
+    private long knightData;
+
+    private long bishopData;
+
+    private long rookData;
+
+    private long queenData;
+
+    private long pawnData;
+
+    public CompactPieceConfiguration() {}
+
+    public CompactPieceConfiguration(CompactPieceConfiguration copiedConfiguration) {
+        auxiliaryData = copiedConfiguration.auxiliaryData;
+        zobristKey = copiedConfiguration.zobristKey;
+        copyPieces(copiedConfiguration);
+    }
+
+    @Override
+    public Class<? extends PieceConfiguration> getConfigurationClass() {
+        return CompactPieceConfiguration.class;
+    }
+
+    @Override
+    public int generateMoves(short[] buffer) {
+        return generateMoves(-1L, buffer, 0);
+    }
+
+    /**
+     * Writes the moves of the player piece on the given position into the buffer
+     * @param moveCount The number of moves already held in the buffer, after which the new moves are written
+     * @return The number of moves held in the buffer once the piece's moves have been written
+     */
+    public int generatePieceMoves(int position, short[] buffer, int moveCount) {
+        return generateMoves(1L << position, buffer, moveCount);
+    }
+
+    /**
+     * Generates the moves of all the pawns first, then the moves of one other piece at a time,
+     * and stops at the first piece with a move
+     */
+    @Override
+    public boolean hasAnyLegalMove() {
+        final short[] buffer = MOVE_BUFFERS.get();
+        final long playerData = getPlayerData();
+        if (generateMoves(playerData & pawnData, buffer, 0) > 0) {
+            return true;
+        }
+        long pieceData = playerData & ~pawnData;
+        while (pieceData != 0) {
+            if (generateMoves(pieceData & -pieceData, buffer, 0) > 0) {
+                return true;
+            }
+            pieceData &= pieceData - 1;
+        }
+        return false;
+    }
+
+    @Override
+    public List<PieceConfiguration> getOnwardConfigurationsForPiece(int pieceBitFlag) {
+        return Piece.getPossibleMoves(pieceBitFlag, this);
+    }
+
+    @Override
+    public int getValueDifferential() {
+        final long playerData = getPlayerData();
+        final long opponentData = getOpponentData();
+        int valueDifferential = 0;
+        valueDifferential += getValueDifferential(knightData, playerData, opponentData, KNIGHT_OCCUPIED);
+        valueDifferential += getValueDifferential(bishopData, playerData, opponentData, BISHOP_OCCUPIED);
+        valueDifferential += getValueDifferential(rookData, playerData, opponentData, ROOK_OCCUPIED);
+        valueDifferential += getValueDifferential(queenData, playerData, opponentData, QUEEN_OCCUPIED);
+        valueDifferential += getValueDifferential(pawnData, playerData, opponentData, PAWN_OCCUPIED);
+        return valueDifferential;
+    }
+
+    @Override
+    public double getLesserScore() {
+        final long threatenedData = deriveData().threatenedData;
+        final long playerData = getPlayerData();
+        final long opponentData = getOpponentData();
+        final int threatenedCount = Long.bitCount(threatenedData);
+        final int threatenedPlayerCount = Long.bitCount(threatenedData & playerData);
+        final int threatenedOpponentCount = Long.bitCount(threatenedData & opponentData);
+        final int playerOccupiedCentreCount = Long.bitCount(playerData & CENTRE_DATA);
+        final int opponentOccupiedCentreCount = Long.bitCount(opponentData & CENTRE_DATA);
+        final int undevelopedPlayerCount = countUndevelopedPiecesBySide(getTurnSide());
+        final int undevelopedOpponentCount = countUndevelopedPiecesBySide(getOpposingSide());
+        return (threatenedCount * -0.00625)
+            + (threatenedPlayerCount * -0.00625)
+            + (threatenedOpponentCount * 0.00625)
+            + (undevelopedPlayerCount * -0.00625)
+            + (undevelopedOpponentCount * 0.00625)
+            + (playerOccupiedCentreCount * 0.025)
+            + (opponentOccupiedCentreCount * -0.025);
+    }
+
+    @Override
+    public boolean isDeadPosition() {
+        if (pawnData != 0L) {
+            return false;
+        }
+        final int totalMaterial = Long.bitCount(knightData) * FAST_VALUE_ARRAY[KNIGHT_OCCUPIED >> 11]
+            + Long.bitCount(bishopData) * FAST_VALUE_ARRAY[BISHOP_OCCUPIED >> 11]
+            + Long.bitCount(rookData) * FAST_VALUE_ARRAY[ROOK_OCCUPIED >> 11]
+            + Long.bitCount(queenData) * FAST_VALUE_ARRAY[QUEEN_OCCUPIED >> 11];
+        return totalMaterial <= 3;
+    }
+
+    @Override
+    public boolean isCheck() {
+        return deriveData().checkersData != 0;
+    }
+
+    @Override
+    public void addPiece(int pieceData) {
+        final long positionData = 1L << (pieceData & 63);
+        whiteData |= getPositionDataIfFlagged(pieceData, WHITE_OCCUPIED, positionData);
+        blackData |= getPositionDataIfFlagged(pieceData, BLACK_OCCUPIED, positionData);
+        kingData |= getPositionDataIfFlagged(pieceData, KING_OCCUPIED, positionData);
+        knightData |= getPositionDataIfFlagged(pieceData, KNIGHT_OCCUPIED, positionData);
+        bishopData |= getPositionDataIfFlagged(pieceData, BISHOP_OCCUPIED, positionData);
+        rookData |= getPositionDataIfFlagged(pieceData, ROOK_OCCUPIED, positionData);
+        queenData |= getPositionDataIfFlagged(pieceData, QUEEN_OCCUPIED, positionData);
+        pawnData |= getPositionDataIfFlagged(pieceData, PAWN_OCCUPIED, positionData);
+    }
+
+    @Override
+    protected void removePiece(int pieceData) {
+        final long mask = ~(1L << (pieceData & 63));
+        whiteData &= mask;
+        blackData &= mask;
+        kingData &= mask;
+        knightData &= mask;
+        bishopData &= mask;
+        rookData &= mask;
+        queenData &= mask;
+        pawnData &= mask;
+    }
+
+    @Override
+    public int getPieceAtPosition(int position) {
+        final DerivedData derivedData = deriveData();
+        return getPieceAndColourFlags(position)
+            | getFlagIfSet(getPlayerData(), position, PLAYER_OCCUPIED)
+            | getFlagIfSet(getOpponentData(), position, OPPONENT_OCCUPIED)
+            | getFlagIfSet(derivedData.threatenedData, position, THREATENED)
+            | getFlagIfSet(derivedData.castleData, position, CASTLE_AVAILABLE)
+            | getFlagIfSet(getEnPassantData(), position, EN_PASSANT_SQUARE)
+            | position;
+    }
+
+    @Override
+    protected int getPieceAndColourFlags(int position) {
+        return getFlagIfSet(whiteData, position, WHITE_OCCUPIED)
+            | getFlagIfSet(blackData, position, BLACK_OCCUPIED)
+            | getFlagIfSet(kingData, position, KING_OCCUPIED)
+            | getFlagIfSet(knightData, position, KNIGHT_OCCUPIED)
+            | getFlagIfSet(bishopData, position, BISHOP_OCCUPIED)
+            | getFlagIfSet(rookData, position, ROOK_OCCUPIED)
+            | getFlagIfSet(queenData, position, QUEEN_OCCUPIED)
+            | getFlagIfSet(pawnData, position, PAWN_OCCUPIED);
+    }
+
+    @Override
+    public boolean isPlayerOccupied(int position) {
+        return isBitSetAtPosition(getPlayerData(), position);
+    }
+
+    @Override
+    public boolean isKingOccupied(int position) {
+        return isBitSetAtPosition(kingData, position);
+    }
+
+    @Override
+    public boolean isPlayerKingOccupied(int position) {
+        return isBitSetAtPosition(getPlayerData() & kingData, position);
+    }
+
+    @Override
+    public boolean isOpponentOccupied(int position) {
+        return isBitSetAtPosition(getOpponentData(), position);
+    }
+
+    @Override
+    public boolean isOpponentOccupiedOrEnPassantSquare(int position) {
+        return isBitSetAtPosition(getOpponentData() | getEnPassantData(), position);
+    }
+
+    @Override
+    protected boolean isOpponentKnightOccupied(int position) {
+        return isBitSetAtPosition(getOpponentData() & knightData, position);
+    }
+
+    @Override
+    public boolean isThreatened(int position) {
+        return isBitSetAtPosition(deriveData().threatenedData, position);
+    }
+
+    @Override
+    public void setThreatened(int position) {
+        deriveData().threatenedData |= 1L << position;
+    }
+
+    @Override
+    public boolean isIneffectiveCheckBlockAttempt(int position) {
+        return !isBitSetAtPosition(deriveData().checkMaskData, position);
+    }
+
+    @Override
+    public boolean isCastleAvailable(int position) {
+        return isBitSetAtPosition(getCastleData(), position);
+    }
+
+    @Override
+    public void setHigherBitFlags() {
+        deriveData();
+    }
+
+    @Override
+    protected int[] getSimplePieceBitFlags() {
+        long occupiedData = getOccupiedData();
+        final int[] pieceBitFlags = new int[Long.bitCount(occupiedData)];
+        int pieceIndex = 0;
+        while (occupiedData != 0) {
+            pieceBitFlags[pieceIndex++] = getPieceAndColourWithPosition(Long.numberOfTrailingZeros(occupiedData));
+            occupiedData &= occupiedData - 1;
+        }
+        return pieceBitFlags;
+    }
+
+    @Override
+    protected int countPieces() {
+        return Long.bitCount(getOccupiedData());
+    }
+
+    @Override
+    protected void copyPieces(PieceConfiguration copiedConfiguration) {
+        final CompactPieceConfiguration compactConfiguration = (CompactPieceConfiguration) copiedConfiguration;
+        whiteData = compactConfiguration.whiteData;
+        blackData = compactConfiguration.blackData;
+        kingData = compactConfiguration.kingData;
+        knightData = compactConfiguration.knightData;
+        bishopData = compactConfiguration.bishopData;
+        rookData = compactConfiguration.rookData;
+        queenData = compactConfiguration.queenData;
+        pawnData = compactConfiguration.pawnData;
+    }
+
+    int countUndevelopedPiecesBySide(int turnSide) {
+        final long undevelopedData = (kingData & STARTING_POSITION_PIECE_DATA)
+            | (knightData & STARTING_POSITION_KNIGHT_DATA)
+            | (bishopData & STARTING_POSITION_BISHOP_DATA)
+            | (rookData & STARTING_POSITION_ROOK_DATA)
+            | (queenData & STARTING_POSITION_QUEEN_DATA)
+            | (pawnData & STARTING_POSITION_PAWN_DATA);
+        final long colourData = turnSide == 0 ? whiteData : blackData;
+        return Long.bitCount(undevelopedData & colourData & STARTING_POSITION_COLOUR_DATA[turnSide]);
+    }
+
+    private long getOccupiedData() {
+        return whiteData | blackData;
+    }
+
+    private long getPlayerData() {
+        return getTurnSide() == 0 ? whiteData : blackData;
+    }
+
+    private long getOpponentData() {
+        return getTurnSide() == 0 ? blackData : whiteData;
+    }
+
+    private long getEnPassantData() {
+        final int enPassantSquare = getEnPassantSquare();
+        return enPassantSquare >= 0 ? 1L << enPassantSquare : 0;
+    }
+
+    private long getCastleData() {
+        long castleData = 0;
+        for(int castlePosition : getCastlePositions()) {
+            castleData |= 1L << castlePosition;
+        }
+        return castleData;
+    }
+
+    /**
+     * @return This thread's derived data, brought up to date with this configuration if it was derived from another
+     */
+    private DerivedData deriveData() {
+        final DerivedData derivedData = DERIVED_DATA.get();
+        if (!derivedData.isDerivedFrom(this)) {
+            derivedData.derive(this);
+        }
+        return derivedData;
+    }
+
+    /**
+     * Writes the moves of the player pieces on the given positions, with the pieces other than pawns one at a time,
+     * followed by all the pawns at once
+     */
+    private int generateMoves(long fromData, short[] buffer, int moveCount) {
+        final DerivedData derivedData = deriveData();
+        final long playerData = derivedData.playerData & fromData;
+        final long movableData = derivedData.checkMaskData & ~derivedData.playerData;
+        final long occupiedData = getOccupiedData();
+        final int kingPosition = derivedData.playerKingPosition;
+
+        long pieceData = playerData & ~pawnData & ~kingData;
+        while (pieceData != 0) {
+            final int position = Long.numberOfTrailingZeros(pieceData);
+            final long positionData = 1L << position;
+            long targetData;
+            if ((knightData & positionData) != 0) {
+                targetData = MagicBitboards.getKnightAttacks(position);
+            } else {
+                targetData = 0;
+                if (((bishopData | queenData) & positionData) != 0) {
+                    targetData |= MagicBitboards.getBishopAttacks(position, occupiedData);
+                }
+                if (((rookData | queenData) & positionData) != 0) {
+                    targetData |= MagicBitboards.getRookAttacks(position, occupiedData);
+                }
+            }
+            targetData &= movableData;
+            if ((derivedData.pinnedData & positionData) != 0) {
+                // A pinned piece can only move along the line through its king and the pinning piece
+                targetData &= MagicBitboards.getLine(kingPosition, position);
+            }
+            moveCount = addMoves(position, targetData, buffer, moveCount);
+            pieceData &= pieceData - 1;
+        }
+
+        if ((playerData & kingData) != 0) {
+            moveCount = generateKingMoves(derivedData, kingPosition, buffer, moveCount);
+        }
+
+        final long playerPawnData = playerData & pawnData;
+        if (playerPawnData != 0) {
+            moveCount = generatePawnMoves(derivedData, playerPawnData, buffer, moveCount);
+        }
+        return moveCount;
+    }
+
+    private int generateKingMoves(DerivedData derivedData, int kingPosition, short[] buffer, int moveCount) {
+        final long occupiedData = getOccupiedData();
+        final long unsafeData = derivedData.playerData | derivedData.threatenedData;
+        moveCount = addMoves(kingPosition, MagicBitboards.getKingAttacks(kingPosition) & ~unsafeData, buffer, moveCount);
+
+        final int turnSide = getTurnSide();
+        if (kingPosition != 4 + (turnSide * 56) || derivedData.checkersData != 0) {
+            return moveCount;
+        }
+        final long castleData = derivedData.castleData;
+        // The king mustn't pass through or land on a threatened position, and the positions up to the rook must be empty
+        final int shortCastlePosition = kingPosition + 2;
+        if ((castleData & (1L << shortCastlePosition)) != 0
+            && (occupiedData & (0b11L << (kingPosition + 1))) == 0
+            && (unsafeData & (0b11L << (kingPosition + 1))) == 0) {
+            buffer[moveCount++] = describeMove(kingPosition, shortCastlePosition, 0);
+        }
+        final int longCastlePosition = kingPosition - 2;
+        if ((castleData & (1L << longCastlePosition)) != 0
+            && (occupiedData & (0b111L << (kingPosition - 3))) == 0
+            && (unsafeData & (0b11L << (kingPosition - 2))) == 0) {
+            buffer[moveCount++] = describeMove(kingPosition, longCastlePosition, 0);
+        }
+        return moveCount;
+    }
+
+    /**
+     * Writes the moves of the given pawns at once by shifting the pawn data against the occupation data,
+     * except for pinned pawns and en passant, which are checked one pawn at a time
+     */
+    private int generatePawnMoves(DerivedData derivedData, long playerPawnData, short[] buffer, int moveCount) {
+        final int side = getTurnSide();
+        final int forward = 8 - (side << 4);
+        final long freePawnData = playerPawnData & ~derivedData.pinnedData;
+        final long emptyData = ~getOccupiedData();
+        final long checkMaskData = derivedData.checkMaskData;
+        final long captureData = getOpponentData() & checkMaskData;
+
+        moveCount = addPawnMoves(shift(freePawnData, forward - 1) & 0x7F7F7F7F7F7F7F7FL & captureData,
+            forward - 1, buffer, moveCount);
+        moveCount = addPawnMoves(shift(freePawnData, forward + 1) & 0xFEFEFEFEFEFEFEFEL & captureData,
+            forward + 1, buffer, moveCount);
+        final long singleMoveData = shift(freePawnData, forward) & emptyData;
+        moveCount = addPawnMoves(singleMoveData & checkMaskData, forward, buffer, moveCount);
+        // Moving two positions can block a check even when moving one position can't
+        final long doubleMoveData = shift(singleMoveData & DOUBLE_MOVE_RANK_DATA[side], forward)
+            & emptyData & checkMaskData;
+        moveCount = addPawnMoves(doubleMoveData, forward << 1, buffer, moveCount);
+
+        long pinnedPawnData = playerPawnData & derivedData.pinnedData;
+        while (pinnedPawnData != 0) {
+            final int position = Long.numberOfTrailingZeros(pinnedPawnData);
+            final long lineData = MagicBitboards.getLine(derivedData.playerKingPosition, position);
+            final long pawnPositionData = 1L << position;
+            final long pinnedCaptureData = MagicBitboards.getPawnAttacks(pawnPositionData, side) & captureData & lineData;
+            moveCount = addPawnMoves(shift(pinnedCaptureData, -forward + 1) == pawnPositionData
+                ? pinnedCaptureData : 0, forward - 1, buffer, moveCount);
+            moveCount = addPawnMoves(shift(pinnedCaptureData, -forward - 1) == pawnPositionData
+                ? pinnedCaptureData : 0, forward + 1, buffer, moveCount);
+            final long pinnedSingleMoveData = shift(pawnPositionData, forward) & emptyData & lineData;
+            moveCount = addPawnMoves(pinnedSingleMoveData & checkMaskData, forward, buffer, moveCount);
+            moveCount = addPawnMoves(shift(pinnedSingleMoveData & DOUBLE_MOVE_RANK_DATA[side], forward)
+                & emptyData & checkMaskData, forward << 1, buffer, moveCount);
+            pinnedPawnData &= pinnedPawnData - 1;
+        }
+
+        final int enPassantSquare = getEnPassantSquare();
+        if (enPassantSquare >= 0) {
+            // The pawns which could take en passant are those which the en passant square would attack as an opponent pawn
+            long takingPawnData = MagicBitboards.getPawnAttacks(1L << enPassantSquare, side ^ 1) & playerPawnData;
+            while (takingPawnData != 0) {
+                final int position = Long.numberOfTrailingZeros(takingPawnData);
+                if (isLegalEnPassantCapture(derivedData, position, enPassantSquare)) {
+                    buffer[moveCount++] = describeMove(position, enPassantSquare, 0);
+                }
+                takingPawnData &= takingPawnData - 1;
+            }
+        }
+        return moveCount;
+    }
+
+    /**
+     * @return Whether taking en passant leaves the player's king unchecked, including when the taken pawn and the
+     * taking pawn both leave the line between the king and an opposing sliding piece
+     */
+    private boolean isLegalEnPassantCapture(DerivedData derivedData, int fromPosition, int toPosition) {
+        final int kingPosition = derivedData.playerKingPosition;
+        if (kingPosition < 0) {
+            return true;
+        }
+        final long takenData = 1L << (toPosition - 8 + (getTurnSide() << 4));
+        if ((derivedData.checkersData & ~takenData & (knightData | pawnData)) != 0) {
+            // A check from a knight or another pawn isn't answered by taking en passant
+            return false;
+        }
+        final long occupiedData = (getOccupiedData() & ~(1L << fromPosition) & ~takenData) | (1L << toPosition);
+        final long opponentData = getOpponentData();
+        return (MagicBitboards.getRookAttacks(kingPosition, occupiedData) & opponentData & (rookData | queenData)) == 0
+            && (MagicBitboards.getBishopAttacks(kingPosition, occupiedData) & opponentData & (bishopData | queenData)) == 0;
+    }
+
+    private static int addMoves(int fromPosition, long toData, short[] buffer, int moveCount) {
+        while (toData != 0) {
+            buffer[moveCount++] = describeMove(fromPosition, Long.numberOfTrailingZeros(toData), 0);
+            toData &= toData - 1;
+        }
+        return moveCount;
+    }
+
+    private static int addPawnMoves(long toData, int translation, short[] buffer, int moveCount) {
+        while (toData != 0) {
+            final int toPosition = Long.numberOfTrailingZeros(toData);
+            final int fromPosition = toPosition - translation;
+            if (((1L << toPosition) & PROMOTION_RANK_DATA) != 0) {
+                for(int promotionFlag = KNIGHT_OCCUPIED; promotionFlag <= QUEEN_OCCUPIED; promotionFlag <<= 1) {
+                    buffer[moveCount++] = describeMove(fromPosition, toPosition, promotionFlag);
+                }
+            } else {
+                buffer[moveCount++] = describeMove(fromPosition, toPosition, 0);
+            }
+            toData &= toData - 1;
+        }
+        return moveCount;
+    }
+
+    private static long shift(long data, int translation) {
+        return translation > 0 ? data << translation : data >>> -translation;
+    }
+
+    private static int getValueDifferential(long pieceData, long playerData, long opponentData, int pieceTypeFlag) {
+        return (Long.bitCount(pieceData & playerData) - Long.bitCount(pieceData & opponentData))
+            * FAST_VALUE_ARRAY[pieceTypeFlag >> 11];
+    }
+
+    private static long getPositionDataIfFlagged(int pieceData, int flag, long positionData) {
+        return (pieceData & flag) != 0 ? positionData : 0;
+    }
+
+    private static int getFlagIfSet(long data, int position, int flag) {
+        return -(int) ((data >>> position) & 1L) & flag;
+    }
+
+    private static boolean isBitSetAtPosition(long data, int position) {
+        return (data & (1L << position)) != 0;
+    }
+
+    /**
+     * The data derived from the pieces of the configuration it was last derived from,
+     * together with a copy of that configuration's pieces and auxiliary data to tell when it no longer applies
+     */
+    private static final class DerivedData {
+
+        private CompactPieceConfiguration configuration;
+
+        private int auxiliaryData;
+
+        private final long[] pieceData = new long[8];
+
+        private long playerData;
+
+        private long castleData;
+
+        private long threatenedData;
+
+        // The opposing pieces which are checking the player's king
+        private long checkersData;
+
+        // The positions to which a player piece other than the king can move without leaving the king in check
+        private long checkMaskData;
+
+        // The player pieces which are the only piece between the player's king and an opposing sliding piece
+        private long pinnedData;
+
+        private int playerKingPosition;
+
+        private boolean isDerivedFrom(CompactPieceConfiguration pieceConfiguration) {
+            return configuration == pieceConfiguration
+                && auxiliaryData == pieceConfiguration.auxiliaryData
+                && pieceData[0] == pieceConfiguration.whiteData
+                && pieceData[1] == pieceConfiguration.blackData
+                && pieceData[2] == pieceConfiguration.kingData
+                && pieceData[3] == pieceConfiguration.knightData
+                && pieceData[4] == pieceConfiguration.bishopData
+                && pieceData[5] == pieceConfiguration.rookData
+                && pieceData[6] == pieceConfiguration.queenData
+                && pieceData[7] == pieceConfiguration.pawnData;
+        }
+
+        private void derive(CompactPieceConfiguration pieceConfiguration) {
+            configuration = pieceConfiguration;
+            auxiliaryData = pieceConfiguration.auxiliaryData;
+            pieceData[0] = pieceConfiguration.whiteData;
+            pieceData[1] = pieceConfiguration.blackData;
+            pieceData[2] = pieceConfiguration.kingData;
+            pieceData[3] = pieceConfiguration.knightData;
+            pieceData[4] = pieceConfiguration.bishopData;
+            pieceData[5] = pieceConfiguration.rookData;
+            pieceData[6] = pieceConfiguration.queenData;
+            pieceData[7] = pieceConfiguration.pawnData;
+
+            playerData = pieceConfiguration.getPlayerData();
+            castleData = pieceConfiguration.getCastleData();
+            final long opponentData = pieceConfiguration.getOpponentData();
+            final long playerKingData = playerData & pieceConfiguration.kingData;
+            playerKingPosition = playerKingData == 0 ? -1 : Long.numberOfTrailingZeros(playerKingData);
+            deriveThreatenedData(pieceConfiguration, opponentData, playerKingData);
+            deriveCheckData(pieceConfiguration, opponentData);
+            derivePinnedData(pieceConfiguration, opponentData);
+        }
+
+        private void deriveThreatenedData(CompactPieceConfiguration pieceConfiguration, long opponentData,
+                                          long playerKingData) {
+            // The player's king doesn't block threats, because it can't escape by moving along the threatened line
+            final long occupiedData = pieceConfiguration.getOccupiedData() & ~playerKingData;
+            long threatened = MagicBitboards.getPawnAttacks(opponentData & pieceConfiguration.pawnData,
+                pieceConfiguration.getOpposingSide());
+            long knightData = opponentData & pieceConfiguration.knightData;
+            while (knightData != 0) {
+                threatened |= MagicBitboards.getKnightAttacks(Long.numberOfTrailingZeros(knightData));
+                knightData &= knightData - 1;
+            }
+            long diagonalSliderData = opponentData & (pieceConfiguration.bishopData | pieceConfiguration.queenData);
+            while (diagonalSliderData != 0) {
+                threatened |= MagicBitboards.getBishopAttacks(Long.numberOfTrailingZeros(diagonalSliderData), occupiedData);
+                diagonalSliderData &= diagonalSliderData - 1;
+            }
+            long orthogonalSliderData = opponentData & (pieceConfiguration.rookData | pieceConfiguration.queenData);
+            while (orthogonalSliderData != 0) {
+                threatened |= MagicBitboards.getRookAttacks(Long.numberOfTrailingZeros(orthogonalSliderData), occupiedData);
+                orthogonalSliderData &= orthogonalSliderData - 1;
+            }
+            final long opponentKingData = opponentData & pieceConfiguration.kingData;
+            if (opponentKingData != 0) {
+                threatened |= MagicBitboards.getKingAttacks(Long.numberOfTrailingZeros(opponentKingData));
+            }
+            threatenedData = threatened;
+        }
+
+        private void deriveCheckData(CompactPieceConfiguration pieceConfiguration, long opponentData) {
+            if (playerKingPosition < 0) {
+                checkersData = 0;
+                checkMaskData = -1L;
+                return;
+            }
+            final long occupiedData = pieceConfiguration.getOccupiedData();
+            final long queenData = pieceConfiguration.queenData;
+            // Opposing pawns are checking from the squares which a player pawn on the king's position would attack
+            final long checkers = opponentData & (
+                (MagicBitboards.getKnightAttacks(playerKingPosition) & pieceConfiguration.knightData)
+                | (MagicBitboards.getPawnAttacks(1L << playerKingPosition, pieceConfiguration.getTurnSide())
+                & pieceConfiguration.pawnData)
+                | (MagicBitboards.getBishopAttacks(playerKingPosition, occupiedData)
+                & (pieceConfiguration.bishopData | queenData))
+                | (MagicBitboards.getRookAttacks(playerKingPosition, occupiedData)
+                & (pieceConfiguration.rookData | queenData)));
+            checkersData = checkers;
+            if (checkers == 0) {
+                checkMaskData = -1L;
+            } else if ((checkers & (checkers - 1)) == 0) {
+                // Check can be answered by taking the checking piece or by blocking the line to it
+                checkMaskData = checkers
+                    | MagicBitboards.getSquaresBetween(Long.numberOfTrailingZeros(checkers), playerKingPosition);
+            } else {
+                // Only the king can answer a double check
+                checkMaskData = 0;
+            }
+        }
+
+        private void derivePinnedData(CompactPieceConfiguration pieceConfiguration, long opponentData) {
+            if (playerKingPosition < 0) {
+                pinnedData = 0;
+                return;
+            }
+            final long occupiedData = pieceConfiguration.getOccupiedData();
+            final long queenData = pieceConfiguration.queenData;
+            long pinned = 0;
+            long sliderData = opponentData & (
+                (MagicBitboards.getBishopAttacks(playerKingPosition, 0L) & (pieceConfiguration.bishopData | queenData))
+                | (MagicBitboards.getRookAttacks(playerKingPosition, 0L) & (pieceConfiguration.rookData | queenData)));
+            while (sliderData != 0) {
+                final long blockingData = MagicBitboards.getSquaresBetween(Long.numberOfTrailingZeros(sliderData),
+                    playerKingPosition) & occupiedData;
+                if ((blockingData & (blockingData - 1)) == 0 && (blockingData & playerData) != 0) {
+                    // The only piece between the sliding piece and the player's king is a king protector
+                    pinned |= blockingData;
+                }
+                sliderData &= sliderData - 1;
+            }
+            pinnedData = pinned;
+        }
+    }
+}
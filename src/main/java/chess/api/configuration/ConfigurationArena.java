@@ -0,0 +1,76 @@
+package chess.api.configuration;
+
+import java.util.Arrays;
+
+import static chess.api.configuration.PieceConfiguration.MAX_MOVE_COUNT;
+
+/**
+ * This class holds the reusable objects of a search, one of each for every ply below the search's root:
+ * a configuration into which the child positions of that ply are written, a move buffer and a move generator.
+ * A configuration written into the arena stays valid only until another move is written into the same ply,
+ * so it mustn't be kept beyond the visit to its position,
+ * and nor must any configuration made from it, since that shares the latest node of its move history.
+ * An arena isn't thread safe, and is meant to be owned by one search thread at a time.
+ */
+public class ConfigurationArena {
+
+    private PieceConfiguration[] configurations = new PieceConfiguration[0];
+
+    private short[][] moveBuffers = new short[0][];
+
+    private StagedMoveGenerator[] moveGenerators = new StagedMoveGenerator[0];
+
+    /**
+     * Writes the configuration which follows the move into the configuration held for the ply,
+     * replacing the held configuration first if it's a different implementation from the previous configuration
+     * @param ply The number of moves between the search's root and the new configuration, less one
+     */
+    public PieceConfiguration toNewConfigurationFromMove(PieceConfiguration previousConfiguration, short moveDescription,
+                                                         int ply) {
+        ensureCapacity(ply + 1);
+        PieceConfiguration configuration = configurations[ply];
+        if (configuration == null || configuration.getClass() != previousConfiguration.getClass()) {
+            configuration = PieceConfiguration.getPieceConfigurationImplementation(previousConfiguration);
+            configurations[ply] = configuration;
+        }
+        return PieceConfiguration.toNewConfigurationFromMove(previousConfiguration, moveDescription, configuration);
+    }
+
+    /**
+     * @return A buffer with space for MAX_MOVE_COUNT moves, which is the same buffer each time for the same ply
+     */
+    public short[] getMoveBuffer(int ply) {
+        ensureCapacity(ply + 1);
+        return moveBuffers[ply];
+    }
+
+    /**
+     * @return The same move generator each time for the same ply
+     */
+    public StagedMoveGenerator getMoveGenerator(int ply) {
+        ensureCapacity(ply + 1);
+        return moveGenerators[ply];
+    }
+
+    /**
+     * @return The first move generators, for a search which indexes its move generators by remaining depth
+     */
+    public StagedMoveGenerator[] getMoveGenerators(int depth) {
+        ensureCapacity(depth);
+        return moveGenerators;
+    }
+
+    private void ensureCapacity(int plyCount) {
+        final int previousPlyCount = configurations.length;
+        if (plyCount <= previousPlyCount) {
+            return;
+        }
+        configurations = Arrays.copyOf(configurations, plyCount);
+        moveBuffers = Arrays.copyOf(moveBuffers, plyCount);
+        moveGenerators = Arrays.copyOf(moveGenerators, plyCount);
+        for(int ply = previousPlyCount; ply < plyCount; ply++) {
+            moveBuffers[ply] = new short[MAX_MOVE_COUNT];
+            moveGenerators[ply] = new StagedMoveGenerator();
+        }
+    }
+}
@@ -2,12 +2,12 @@ package chess.api.configuration;
 
 import chess.api.BitUtil;
 import chess.api.Position;
+import chess.api.pieces.Knight;
 import chess.api.pieces.Piece;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.ToIntFunction;
-import java.util.stream.Collectors;
 
 /**
  * This class holds board state using an array of 32-bit numbers.
@@ -26,9 +26,8 @@ public class IntsPieceConfiguration extends PieceConfiguration {
 
     public IntsPieceConfiguration(IntsPieceConfiguration copiedConfiguration) {
         auxiliaryData = copiedConfiguration.auxiliaryData;
-        Arrays.stream(Position.POSITIONS)
-            .forEach(pos -> positionBitFlags[pos] = BitUtil.applyBitFlag(positionBitFlags[pos],
-                copiedConfiguration.positionBitFlags[pos] & ALL_PIECE_AND_COLOUR_FLAGS_COMBINED));
+        zobristKey = copiedConfiguration.zobristKey;
+        copyPieces(copiedConfiguration);
     }
 
     @Override
@@ -84,7 +83,6 @@ public class IntsPieceConfiguration extends PieceConfiguration {
         positionBitFlags[position] = BitUtil.applyBitFlag(positionBitFlags[position], PieceConfiguration.THREATENED);
     }
 
-    @Override
     public void setDirectionalFlag(int position, int directionalFlag) {
         positionBitFlags[position] = positionBitFlags[position] | directionalFlag;
     }
@@ -94,7 +92,6 @@ public class IntsPieceConfiguration extends PieceConfiguration {
         return BitUtil.hasBitFlag(positionBitFlags[position], PieceConfiguration.DOES_NOT_BLOCK_CHECK);
     }
 
-    @Override
     public void setDoesNotBlockCheck(int position) {
         positionBitFlags[position] = BitUtil.applyBitFlag(positionBitFlags[position], DOES_NOT_BLOCK_CHECK);
     }
@@ -105,13 +102,15 @@ public class IntsPieceConfiguration extends PieceConfiguration {
     }
 
     @Override
-    public List<PieceConfiguration> getOnwardConfigurations() {
+    public int generateMoves(short[] buffer) {
         setHigherBitFlags();
-        return Arrays.stream(getPieceBitFlags())
-            .boxed()
-            .filter(p -> BitUtil.hasBitFlag(p, PLAYER_OCCUPIED))
-            .flatMap(p -> getOnwardConfigurationsForPiece(p).stream())
-            .collect(Collectors.toList());
+        int moveCount = 0;
+        for(int pieceBitFlag : getPieceBitFlags()) {
+            if (BitUtil.hasBitFlag(pieceBitFlag, PLAYER_OCCUPIED)) {
+                moveCount = Piece.generateMoves(pieceBitFlag, this, buffer, moveCount);
+            }
+        }
+        return moveCount;
     }
 
     @Override
@@ -217,6 +216,14 @@ public class IntsPieceConfiguration extends PieceConfiguration {
         return getSimplePieceBitFlags().length;
     }
 
+    @Override
+    protected void copyPieces(PieceConfiguration copiedConfiguration) {
+        final int[] copiedPositionBitFlags = ((IntsPieceConfiguration) copiedConfiguration).positionBitFlags;
+        for(int pos = 0; pos < 64; pos++) {
+            positionBitFlags[pos] = pos | (copiedPositionBitFlags[pos] & ALL_PIECE_AND_COLOUR_FLAGS_COMBINED);
+        }
+    }
+
     private int[] getPieceBitFlags() {
         return getPieceBitFlags(this::getPieceAtPosition);
     }
@@ -279,6 +286,31 @@ public class IntsPieceConfiguration extends PieceConfiguration {
         }
     }
 
+    private void setCheckNonBlockerFlags(int kingPositionBitFlag, int kingPositionDirectionalFlags) {
+        // The king is only checked from one direction
+        int currentPosition = kingPositionBitFlag;
+        int nextPositionIndex = Position.applyTranslationTowardsThreat(kingPositionDirectionalFlags, currentPosition);
+
+        while(nextPositionIndex >= 0 && !BitUtil.hasBitFlag(getPieceAtPosition(currentPosition), OPPONENT_OCCUPIED)) {
+            setDoesNotBlockCheck(nextPositionIndex);
+            currentPosition = nextPositionIndex;
+            nextPositionIndex = Position.applyTranslationTowardsThreat(kingPositionDirectionalFlags, currentPosition);
+        }
+
+        if (kingPositionDirectionalFlags == DIRECTION_ANY_KNIGHT) {
+            // The king is checked only by a knight
+            for(int[] directionalLimit : Knight.getDirectionalLimits()) {
+                int possibleCheckingKnightPosition = Position.applyTranslation(currentPosition, directionalLimit[0], directionalLimit[1]);
+                if (possibleCheckingKnightPosition >= 0
+                    && isOpponentKnightOccupied(possibleCheckingKnightPosition)) {
+                    // Stamp the checking knight's position so it becomes a movable position
+                    setDoesNotBlockCheck(possibleCheckingKnightPosition);
+                    break;
+                }
+            }
+        }
+    }
+
     private static int getPieceAndColourBitFlags(int positionBitFlag) {
         return positionBitFlag & (ALL_PIECE_AND_COLOUR_FLAGS_COMBINED);
     }
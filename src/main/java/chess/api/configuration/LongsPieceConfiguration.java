@@ -1,13 +1,13 @@
 package chess.api.configuration;
 
+import chess.api.pieces.MagicBitboards;
+import chess.api.pieces.Pawn;
 import chess.api.pieces.Piece;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.function.LongBinaryOperator;
-import java.util.function.ToIntFunction;
 
+import static chess.api.pieces.King.CASTLE_POSITION_MAPPINGS;
 import static chess.api.pieces.Piece.FAST_VALUE_ARRAY;
 
 /**
@@ -15,8 +15,13 @@ import static chess.api.pieces.Piece.FAST_VALUE_ARRAY;
  * Each bit of those 64-bit numbers corresponds to a board position, starting from a1 as the least-significant bit.
  * Each element in the data array corresponds to a separate property which squares can have,
  * such as piece types and threatened status.
+ * A mailbox array alongside the data holds the piece and colour of each position, for lookups of a single position.
+ * The data which is derived from the pieces, such as threatened status, pins and checks, is only computed
+ * when a query needs it, and is kept until the pieces or auxiliary data change.
+ * This is the implementation the search runs on, so it is final: where code already holds it by its own type,
+ * as the in-place search and the masked move generation in Piece do, its calls are bound directly.
  */
-public class LongsPieceConfiguration extends PieceConfiguration {
+public final class LongsPieceConfiguration extends PieceConfiguration {
 
     private static final int PLAYER_OCCUPATION_DATA_INDEX = 0;
 
@@ -40,36 +45,21 @@ public class LongsPieceConfiguration extends PieceConfiguration {
 
     public static final int THREATENED_DATA_INDEX = 10;
 
-    public static final int DIRECTION_N_DATA_INDEX = 11;
+    public static final int CASTLE_AVAILABLE_DATA_INDEX = 11;
 
-    public static final int DIRECTION_NE_DATA_INDEX = 12;
+    public static final int EN_PASSANT_SQUARE_DATA_INDEX = 12;
 
-    public static final int DIRECTION_E_DATA_INDEX = 13;
+    private static final int DATA_LENGTH = 13;
 
-    public static final int DIRECTION_SE_DATA_INDEX = 14;
+    // The mailbox holds the piece and colour flags of a position shifted down by this much, so that they fit in a byte
+    private static final int MAILBOX_SHIFT = 8;
 
-    public static final int DIRECTION_S_DATA_INDEX = 15;
+    private static final int INITIAL_UNDO_CAPACITY = 32;
 
-    public static final int DIRECTION_SW_DATA_INDEX = 16;
+    // The number of longs of derived data saved by makeMove for unmakeMove to restore
+    private static final int DERIVED_UNDO_LENGTH = 9;
 
-    public static final int DIRECTION_W_DATA_INDEX = 17;
-
-    public static final int DIRECTION_NW_DATA_INDEX = 18;
-
-    public static final int DIRECTION_ANY_KNIGHT_DATA_INDEX = 19;
-
-    public static final int DOES_NOT_BLOCK_CHECK_DATA_INDEX = 20;
-
-    public static final int CASTLE_AVAILABLE_DATA_INDEX = 21;
-
-    public static final int EN_PASSANT_SQUARE_DATA_INDEX = 22;
-
-    private static final int DATA_LENGTH = 23;
-
-    private static final int[] PLAYER_DATA_INDEXES = new int[]{
-        PLAYER_OCCUPATION_DATA_INDEX,
-        OPPONENT_OCCUPATION_DATA_INDEX
-    };
+    private static final long PROMOTION_RANK_DATA = 0xFF000000000000FFL;
 
     private static final int[] PIECE_DATA_INDEXES = new int[]{
         KING_OCCUPATION_DATA_INDEX,
@@ -88,32 +78,35 @@ public class LongsPieceConfiguration extends PieceConfiguration {
         PAWN_OCCUPATION_DATA_INDEX
     };
 
-    private static final int[] PLAYER_CHECK_DATA_INDEXES = new int[]{
-        PLAYER_OCCUPATION_DATA_INDEX,
-        KING_OCCUPATION_DATA_INDEX,
-        THREATENED_DATA_INDEX
-    };
-
-    private static final int[] HIGHER_FLAG_DATA_INDEXES = new int[] {
-        THREATENED_DATA_INDEX,
-        DIRECTION_N_DATA_INDEX,
-        DIRECTION_NE_DATA_INDEX,
-        DIRECTION_E_DATA_INDEX,
-        DIRECTION_SE_DATA_INDEX,
-        DIRECTION_S_DATA_INDEX,
-        DIRECTION_SW_DATA_INDEX,
-        DIRECTION_W_DATA_INDEX,
-        DIRECTION_NW_DATA_INDEX,
-        DIRECTION_ANY_KNIGHT_DATA_INDEX,
-        DOES_NOT_BLOCK_CHECK_DATA_INDEX,
-        CASTLE_AVAILABLE_DATA_INDEX,
-        EN_PASSANT_SQUARE_DATA_INDEX
+    // Player and opponent occupation, castle positions and en passant square
+    private static final int OCCUPATION_DERIVED = 1;
+
+    private static final int THREATS_DERIVED = 2;
+
+    // Checkers and check mask
+    private static final int CHECKS_DERIVED = 4;
+
+    private static final int PINS_DERIVED = 8;
+
+    private static final int ALL_DERIVED = OCCUPATION_DERIVED | THREATS_DERIVED | CHECKS_DERIVED | PINS_DERIVED;
+
+    // The bit flag of the property held by each element in the data array
+    private static final int[] DATA_BIT_FLAGS = new int[]{
+        PLAYER_OCCUPIED,
+        OPPONENT_OCCUPIED,
+        WHITE_OCCUPIED,
+        BLACK_OCCUPIED,
+        KING_OCCUPIED,
+        KNIGHT_OCCUPIED,
+        BISHOP_OCCUPIED,
+        ROOK_OCCUPIED,
+        QUEEN_OCCUPIED,
+        PAWN_OCCUPIED,
+        THREATENED,
+        CASTLE_AVAILABLE,
+        EN_PASSANT_SQUARE
     };
 
-    private static final LongBinaryOperator OR_BINARY_OPERATOR = ((l1, l2) -> l1 | l2);
-
-    private static final LongBinaryOperator AND_BINARY_OPERATOR = ((l1, l2) -> l1 & l2);
-
     private static final long[] STARTING_POSITION_PIECE_DATA = new long[10];
 
     static {
@@ -127,13 +120,46 @@ public class LongsPieceConfiguration extends PieceConfiguration {
         STARTING_POSITION_PIECE_DATA[9] = 0b0000000011111111000000000000000000000000000000001111111100000000L;
     }
 
-    private final long[] data = new long[23];
+    private final long[] data = new long[DATA_LENGTH];
+
+    // The piece and colour flags of each position, kept in step with the piece data by addPiece and removePiece,
+    // so that finding the piece on a position is one array read rather than a read of every data plane
+    private final byte[] mailbox = new byte[64];
+
+    // The opposing pieces which are checking the player's king
+    private long checkersData;
+
+    // The positions to which a player piece other than the king can move without leaving the king in check:
+    // every position when the king isn't checked, the checking piece and the positions between it and the king
+    // when checked once, and no positions when checked twice
+    private long checkMaskData;
+
+    // The player pieces which are the only piece between the player's king and an opposing sliding piece
+    private long pinnedData;
+
+    private int playerKingPosition;
+
+    // Which of the derived data above is up to date, as a combination of the *_DERIVED flags.
+    // Changing the pieces clears it, and changing the auxiliary data away from derivedAuxiliaryData invalidates it
+    private int validDerivedData;
+
+    private int derivedAuxiliaryData;
+
+    // Each entry holds the previous auxiliary data, the taken piece bit flag and the move, for unmaking moves.
+    // The previous Zobrist key is pushed onto the historic Zobrist keys
+    private long[] undoData;
+
+    // The derived data from before each move, held in DERIVED_UNDO_LENGTH longs per move
+    private long[] undoDerivedData;
+
+    private int undoCount;
 
     public LongsPieceConfiguration(){}
 
     public LongsPieceConfiguration(LongsPieceConfiguration copiedConfiguration) {
         auxiliaryData = copiedConfiguration.auxiliaryData;
-        System.arraycopy(copiedConfiguration.data, WHITE_OCCUPATION_DATA_INDEX, data, WHITE_OCCUPATION_DATA_INDEX, 8);
+        zobristKey = copiedConfiguration.zobristKey;
+        copyPieces(copiedConfiguration);
     }
 
     @Override
@@ -142,23 +168,162 @@ public class LongsPieceConfiguration extends PieceConfiguration {
     }
 
     @Override
-    public List<PieceConfiguration> getOnwardConfigurations() {
-        setHigherBitFlags();
-        final List<PieceConfiguration> onwardConfigurations = new ArrayList<>();
-        for(int pieceBitFlag : getPlayerPieceBitFlags()) {
-            onwardConfigurations.addAll(getOnwardConfigurationsForPiece(pieceBitFlag));
+    public int generateMoves(short[] buffer) {
+        deriveData(ALL_DERIVED);
+        return generateMoves(buffer, -1L, -1L);
+    }
+
+    /**
+     * Writes the moves of the pieces other than pawns one piece at a time, followed by the moves of all the pawns at once
+     */
+    private int generateMoves(short[] buffer, long targetData, long pawnTargetData) {
+        int moveCount = 0;
+        if (targetData != 0) {
+            long pieceData = data[PLAYER_OCCUPATION_DATA_INDEX] & ~data[PAWN_OCCUPATION_DATA_INDEX];
+            while (pieceData != 0) {
+                final int position = Long.numberOfTrailingZeros(pieceData);
+                moveCount = Piece.generateMoves(getPieceAndColourWithPosition(position), this, targetData,
+                    buffer, moveCount);
+                pieceData &= pieceData - 1;
+            }
+        }
+        if (pawnTargetData != 0) {
+            moveCount = Pawn.generateSideMoves(this, pawnTargetData, buffer, moveCount);
         }
-        return onwardConfigurations;
+        return moveCount;
     }
 
+    /**
+     * Generates the moves of all the pawns first, then the moves of one other piece at a time,
+     * and stops at the first piece with a move
+     */
     @Override
-    public List<PieceConfiguration> getOnwardConfigurationsForPiece(int pieceBitFlag) {
-        if (combineDataWithOr(HIGHER_FLAG_DATA_INDEXES) == 0) {
-            setHigherBitFlags();
+    public boolean hasAnyLegalMove() {
+        deriveData(ALL_DERIVED);
+        final short[] buffer = MOVE_BUFFERS.get();
+        if (Pawn.generateSideMoves(this, -1L, buffer, 0) > 0) {
+            return true;
+        }
+        long pieceData = data[PLAYER_OCCUPATION_DATA_INDEX] & ~data[PAWN_OCCUPATION_DATA_INDEX];
+        while (pieceData != 0) {
+            final int position = Long.numberOfTrailingZeros(pieceData);
+            if (Piece.generateMoves(getPieceAndColourWithPosition(position), this, -1L, buffer, 0) > 0) {
+                return true;
+            }
+            pieceData &= pieceData - 1;
         }
+        return false;
+    }
+
+    @Override
+    public int generateCaptures(short[] buffer) {
+        deriveData(ALL_DERIVED);
+        final long opponentData = data[OPPONENT_OCCUPATION_DATA_INDEX];
+        return generateMoves(buffer, opponentData, opponentData | data[EN_PASSANT_SQUARE_DATA_INDEX]);
+    }
+
+    @Override
+    public int generatePromotions(short[] buffer) {
+        deriveData(ALL_DERIVED);
+        return generateMoves(buffer, 0, ~getOccupiedData() & PROMOTION_RANK_DATA);
+    }
+
+    @Override
+    public int generateQuietMoves(short[] buffer) {
+        deriveData(ALL_DERIVED);
+        final long emptyData = ~getOccupiedData();
+        return generateMoves(buffer, emptyData,
+            emptyData & ~PROMOTION_RANK_DATA & ~data[EN_PASSANT_SQUARE_DATA_INDEX]);
+    }
+
+    @Override
+    public List<PieceConfiguration> getOnwardConfigurationsForPiece(int pieceBitFlag) {
+        deriveData(ALL_DERIVED);
         return Piece.getPossibleMoves(pieceBitFlag, this);
     }
 
+    /**
+     * Plays a move on this configuration in place, recording enough to reverse it with unmakeMove.
+     * Unlike toNewConfigurationFromMove, the historic moves aren't updated,
+     * but the Zobrist key history is, so repetitions among the made moves are detected.
+     */
+    public void makeMove(short move) {
+        if (undoData == null) {
+            undoData = new long[INITIAL_UNDO_CAPACITY];
+            undoDerivedData = new long[INITIAL_UNDO_CAPACITY * DERIVED_UNDO_LENGTH];
+        } else if (undoCount == undoData.length) {
+            undoData = Arrays.copyOf(undoData, undoCount << 1);
+            undoDerivedData = Arrays.copyOf(undoDerivedData, (undoCount << 1) * DERIVED_UNDO_LENGTH);
+        }
+        pushHistoricZobristKey();
+        saveDerivedData(undoCount * DERIVED_UNDO_LENGTH);
+        final long previousAuxiliaryData = auxiliaryData;
+        final int takenPieceBitFlag = applyMove(move);
+        undoData[undoCount++] = (previousAuxiliaryData << 32) | ((long) takenPieceBitFlag << 16) | (move & 0xFFFFL);
+    }
+
+    /**
+     * Reverses the most recent move played by makeMove
+     */
+    public void unmakeMove() {
+        final long undoEntry = undoData[--undoCount];
+        final int move = (int) (undoEntry & 0xFFFF);
+        final int takenPieceBitFlag = (int) ((undoEntry >>> 16) & 0xFFFF);
+        auxiliaryData = (int) (undoEntry >>> 32);
+        zobristKey = popHistoricZobristKey();
+        final int fromPos = (move & 0b0000111111000000) >> 6;
+        final int toPos = move & 0b0000000000111111;
+        final int movedPieceFlags = getPieceAndColourFlags(toPos);
+        final int originalPieceFlags = (move & 0b1111000000000000) == 0
+            ? movedPieceFlags
+            : (movedPieceFlags & COLOUR_FLAGS_COMBINED) | PAWN_OCCUPIED;
+        removePiece(toPos);
+        addPiece(originalPieceFlags | fromPos);
+        if (takenPieceBitFlag != 0) {
+            addPiece(takenPieceBitFlag);
+        }
+        if ((movedPieceFlags & KING_OCCUPIED) != 0 && Math.abs(toPos - fromPos) == 2) {
+            // Move the castled rook back to its corner
+            final int rookFromPos = CASTLE_POSITION_MAPPINGS.get(toPos);
+            final int rookToPos = toPos > fromPos ? fromPos + 1 : fromPos - 1;
+            final int rookFlags = getPieceAndColourFlags(rookToPos);
+            removePiece(rookToPos);
+            addPiece(rookFlags | rookFromPos);
+        }
+        // The position is as it was before the move, so the data derived from it then is valid again
+        restoreDerivedData(undoCount * DERIVED_UNDO_LENGTH);
+    }
+
+    private void saveDerivedData(int undoIndex) {
+        final long[] derivedData = undoDerivedData;
+        final int derivedState = (playerKingPosition << 8) | validDerivedData;
+        derivedData[undoIndex] = ((long) derivedState << 32) | (derivedAuxiliaryData & 0xFFFFFFFFL);
+        derivedData[undoIndex + 1] = data[PLAYER_OCCUPATION_DATA_INDEX];
+        derivedData[undoIndex + 2] = data[OPPONENT_OCCUPATION_DATA_INDEX];
+        derivedData[undoIndex + 3] = data[THREATENED_DATA_INDEX];
+        derivedData[undoIndex + 4] = data[CASTLE_AVAILABLE_DATA_INDEX];
+        derivedData[undoIndex + 5] = data[EN_PASSANT_SQUARE_DATA_INDEX];
+        derivedData[undoIndex + 6] = checkersData;
+        derivedData[undoIndex + 7] = checkMaskData;
+        derivedData[undoIndex + 8] = pinnedData;
+    }
+
+    private void restoreDerivedData(int undoIndex) {
+        final long[] derivedData = undoDerivedData;
+        final int derivedState = (int) (derivedData[undoIndex] >>> 32);
+        validDerivedData = derivedState & 0xFF;
+        playerKingPosition = derivedState >> 8;
+        derivedAuxiliaryData = (int) derivedData[undoIndex];
+        data[PLAYER_OCCUPATION_DATA_INDEX] = derivedData[undoIndex + 1];
+        data[OPPONENT_OCCUPATION_DATA_INDEX] = derivedData[undoIndex + 2];
+        data[THREATENED_DATA_INDEX] = derivedData[undoIndex + 3];
+        data[CASTLE_AVAILABLE_DATA_INDEX] = derivedData[undoIndex + 4];
+        data[EN_PASSANT_SQUARE_DATA_INDEX] = derivedData[undoIndex + 5];
+        checkersData = derivedData[undoIndex + 6];
+        checkMaskData = derivedData[undoIndex + 7];
+        pinnedData = derivedData[undoIndex + 8];
+    }
+
     @Override
     public int getValueDifferential() {
         int valueDifferential = 0;
@@ -177,6 +342,7 @@ public class LongsPieceConfiguration extends PieceConfiguration {
 
     @Override
     public double getLesserScore() {
+        deriveData(OCCUPATION_DERIVED | THREATS_DERIVED);
         final int threatenedCount = Long.bitCount(data[THREATENED_DATA_INDEX]);
         final int threatenedPlayerCount = Long.bitCount(data[THREATENED_DATA_INDEX] & data[PLAYER_OCCUPATION_DATA_INDEX]);
         final int threatenedOpponentCount = Long.bitCount(data[THREATENED_DATA_INDEX] & data[OPPONENT_OCCUPATION_DATA_INDEX]);
@@ -207,11 +373,13 @@ public class LongsPieceConfiguration extends PieceConfiguration {
 
     @Override
     public boolean isCheck() {
-        return combineDataWithAnd(PLAYER_CHECK_DATA_INDEXES) != 0;
+        deriveData(CHECKS_DERIVED);
+        return checkersData != 0;
     }
 
     @Override
     public boolean isPlayerOccupied(int position) {
+        deriveData(OCCUPATION_DERIVED);
         return isBitSetAtPosition(PLAYER_OCCUPATION_DATA_INDEX, position);
     }
 
@@ -222,26 +390,31 @@ public class LongsPieceConfiguration extends PieceConfiguration {
 
     @Override
     public boolean isPlayerKingOccupied(int position) {
+        deriveData(OCCUPATION_DERIVED);
         return isBitSetAtPosition(data[PLAYER_OCCUPATION_DATA_INDEX] & data[KING_OCCUPATION_DATA_INDEX], position);
     }
 
     @Override
     public boolean isOpponentOccupied(int position) {
+        deriveData(OCCUPATION_DERIVED);
         return isBitSetAtPosition(OPPONENT_OCCUPATION_DATA_INDEX, position);
     }
 
     @Override
     public boolean isOpponentOccupiedOrEnPassantSquare(int position) {
+        deriveData(OCCUPATION_DERIVED);
         return isBitSetAtPosition(data[OPPONENT_OCCUPATION_DATA_INDEX] | data[EN_PASSANT_SQUARE_DATA_INDEX], position);
     }
 
     @Override
     public boolean isOpponentKnightOccupied(int position) {
+        deriveData(OCCUPATION_DERIVED);
         return isBitSetAtPosition(data[OPPONENT_OCCUPATION_DATA_INDEX] & data[KNIGHT_OCCUPATION_DATA_INDEX], position);
     }
 
     @Override
     public boolean isThreatened(int position) {
+        deriveData(OCCUPATION_DERIVED | THREATS_DERIVED);
         return isBitSetAtPosition(THREATENED_DATA_INDEX, position);
     }
 
@@ -250,22 +423,95 @@ public class LongsPieceConfiguration extends PieceConfiguration {
         data[THREATENED_DATA_INDEX] |= (1L << position);
     }
 
-    @Override
-    public void setDirectionalFlag(int position, int directionalFlag) {
-        final int dataIndex = Integer.numberOfTrailingZeros(directionalFlag) - 6;
-        data[dataIndex] |= (1L << position);
-    }
-
     @Override
     public boolean isIneffectiveCheckBlockAttempt(int position) {
-        return isBitSetAtPosition(DOES_NOT_BLOCK_CHECK_DATA_INDEX, position);
+        deriveData(CHECKS_DERIVED);
+        return !isBitSetAtPosition(checkMaskData, position);
     }
 
     @Override
     public boolean isCastleAvailable(int position) {
+        deriveData(OCCUPATION_DERIVED);
         return isBitSetAtPosition(CASTLE_AVAILABLE_DATA_INDEX, position);
     }
 
+    public long getOccupiedData() {
+        return data[WHITE_OCCUPATION_DATA_INDEX] | data[BLACK_OCCUPATION_DATA_INDEX];
+    }
+
+    public long getPlayerOccupiedData() {
+        deriveData(OCCUPATION_DERIVED);
+        return data[PLAYER_OCCUPATION_DATA_INDEX];
+    }
+
+    public long getOpponentOccupiedData() {
+        deriveData(OCCUPATION_DERIVED);
+        return data[OPPONENT_OCCUPATION_DATA_INDEX];
+    }
+
+    public long getPlayerPawnData() {
+        deriveData(OCCUPATION_DERIVED);
+        return data[PLAYER_OCCUPATION_DATA_INDEX] & data[PAWN_OCCUPATION_DATA_INDEX];
+    }
+
+    public long getThreatenedData() {
+        deriveData(OCCUPATION_DERIVED | THREATS_DERIVED);
+        return data[THREATENED_DATA_INDEX];
+    }
+
+    public long getCheckersData() {
+        deriveData(CHECKS_DERIVED);
+        return checkersData;
+    }
+
+    public long getCheckMaskData() {
+        deriveData(CHECKS_DERIVED);
+        return checkMaskData;
+    }
+
+    public long getPinnedData() {
+        deriveData(PINS_DERIVED);
+        return pinnedData;
+    }
+
+    /**
+     * @return The positions to which the player piece on the given position, other than the king, could move
+     * without being blocked by a player piece, leaving the king in check or breaking a pin
+     */
+    public long getMovableData(int position) {
+        deriveData(ALL_DERIVED);
+        final long movableData = checkMaskData & ~data[PLAYER_OCCUPATION_DATA_INDEX];
+        if (isBitSetAtPosition(pinnedData, position)) {
+            // A pinned piece can only move along the line through its king and the pinning piece
+            return movableData & MagicBitboards.getLine(playerKingPosition, position);
+        }
+        return movableData;
+    }
+
+    /**
+     * @return Whether the player pawn on fromPosition can take en passant on toPosition without leaving its king
+     * checked, including when the taken pawn and the taking pawn both leave the line between the king and an
+     * opposing sliding piece
+     */
+    public boolean isLegalEnPassantCapture(int fromPosition, int toPosition) {
+        deriveData(CHECKS_DERIVED);
+        if (playerKingPosition < 0) {
+            return true;
+        }
+        final long takenData = 1L << (toPosition - 8 + (getTurnSide() << 4));
+        if ((checkersData & ~takenData & (data[KNIGHT_OCCUPATION_DATA_INDEX] | data[PAWN_OCCUPATION_DATA_INDEX])) != 0) {
+            // A check from a knight or another pawn isn't answered by taking en passant
+            return false;
+        }
+        final long occupiedData = (getOccupiedData() & ~(1L << fromPosition) & ~takenData) | (1L << toPosition);
+        final long opponentData = data[OPPONENT_OCCUPATION_DATA_INDEX];
+        final long queenData = data[QUEEN_OCCUPATION_DATA_INDEX];
+        return (MagicBitboards.getRookAttacks(playerKingPosition, occupiedData)
+            & opponentData & (data[ROOK_OCCUPATION_DATA_INDEX] | queenData)) == 0
+            && (MagicBitboards.getBishopAttacks(playerKingPosition, occupiedData)
+            & opponentData & (data[BISHOP_OCCUPATION_DATA_INDEX] | queenData)) == 0;
+    }
+
     @Override
     public void addPiece(int pieceData) {
         final int position = pieceData & 63;
@@ -274,44 +520,50 @@ public class LongsPieceConfiguration extends PieceConfiguration {
             final long bitFlag = ((shiftedPieceData >>> dataIndex) & 1L) << position;
             data[dataIndex] |= bitFlag;
         }
+        mailbox[position] |= (byte) ((pieceData & ALL_PIECE_AND_COLOUR_FLAGS_COMBINED) >>> MAILBOX_SHIFT);
+        validDerivedData = 0;
     }
 
     @Override
     public void removePiece(int pieceData) {
         final int position = pieceData & 63;
         final long mask = ~(1L << position);
-        for(int dataIndex = 0; dataIndex < DATA_LENGTH; dataIndex++) {
+        for(int dataIndex = 0; dataIndex < THREATENED_DATA_INDEX; dataIndex++) {
             data[dataIndex] &= mask;
         }
+        mailbox[position] = 0;
+        validDerivedData = 0;
     }
 
     @Override
     public int getPieceAtPosition(int position) {
-        return getDataAtPosition(position, 0, DATA_LENGTH) | position;
+        deriveData(OCCUPATION_DERIVED | THREATS_DERIVED);
+        return getPieceAndColourFlags(position)
+            | getDataAtPosition(position, PLAYER_OCCUPATION_DATA_INDEX, WHITE_OCCUPATION_DATA_INDEX)
+            | getDataAtPosition(position, THREATENED_DATA_INDEX, DATA_LENGTH)
+            | position;
     }
 
     @Override
     protected int getPieceAndColourFlags(int position) {
-        return getDataAtPosition(position, WHITE_OCCUPATION_DATA_INDEX, THREATENED_DATA_INDEX);
+        return (mailbox[position] & 0xFF) << MAILBOX_SHIFT;
     }
 
     @Override
     public void setHigherBitFlags() {
-        clearNonPieceData();
-        stampOccupationData();
-        stampThreatData();
-        stampCheckNonBlockerData();
-    }
-
-    @Override
-    protected void setDoesNotBlockCheck(int position) {
-        data[DOES_NOT_BLOCK_CHECK_DATA_INDEX] |= 1L << position;
+        deriveData(ALL_DERIVED);
     }
 
     @Override
     protected int[] getSimplePieceBitFlags() {
-        final long combined = combineDataWithOr(PIECE_DATA_INDEXES);
-        return getPieceBitFlags(combined, this::getPieceAndColourWithPosition);
+        long occupiedData = getOccupiedData();
+        final int[] pieceBitFlags = new int[Long.bitCount(occupiedData)];
+        int pieceIndex = 0;
+        while (occupiedData != 0) {
+            pieceBitFlags[pieceIndex++] = getPieceAndColourWithPosition(Long.numberOfTrailingZeros(occupiedData));
+            occupiedData &= occupiedData - 1;
+        }
+        return pieceBitFlags;
     }
 
     @Override
@@ -319,6 +571,14 @@ public class LongsPieceConfiguration extends PieceConfiguration {
         return Long.bitCount(data[WHITE_OCCUPATION_DATA_INDEX] | data[BLACK_OCCUPATION_DATA_INDEX]);
     }
 
+    @Override
+    protected void copyPieces(PieceConfiguration copiedConfiguration) {
+        final LongsPieceConfiguration longsConfiguration = (LongsPieceConfiguration) copiedConfiguration;
+        System.arraycopy(longsConfiguration.data, WHITE_OCCUPATION_DATA_INDEX, data, WHITE_OCCUPATION_DATA_INDEX, 8);
+        System.arraycopy(longsConfiguration.mailbox, 0, mailbox, 0, 64);
+        validDerivedData = 0;
+    }
+
     int countUndevelopedPiecesBySide(int turnSide) {
         final int colourDataIndex = turnSide + 2;
         final long colourData = data[colourDataIndex];
@@ -334,111 +594,149 @@ public class LongsPieceConfiguration extends PieceConfiguration {
         return count;
     }
 
-    private int[] getPlayerPieceBitFlags() {
-        return getPieceBitFlagsForPlayer(PLAYER_OCCUPATION_DATA_INDEX);
-    }
-
-    private int[] getOpposingPieceBitFlags() {
-        return getPieceBitFlagsForPlayer(OPPONENT_OCCUPATION_DATA_INDEX);
-    }
-
-    private int[] getPieceBitFlagsForPlayer(int playerDataIndex) {
-        final long combined = combineDataWithOr(PIECE_DATA_INDEXES) & data[playerDataIndex];
-        return getPieceBitFlags(combined, this::getPieceAtPosition);
-    }
-
-    private int[] getPieceBitFlags(long mask, ToIntFunction<Integer> intFunction) {
-        final int[] piecesData = new int[32];
-        int pieceIndex = 0;
-        for(int position = 0; position < 64; position++) {
-            if (((1L << position) & mask) != 0) {
-                piecesData[pieceIndex] = intFunction.applyAsInt(position);
-                pieceIndex++;
-            }
+    /**
+     * Brings the given derived data up to date with the pieces and auxiliary data, computing only what is out of date
+     * @param requiredDerivedData A combination of the *_DERIVED flags
+     */
+    private void deriveData(int requiredDerivedData) {
+        if (derivedAuxiliaryData != auxiliaryData) {
+            validDerivedData = 0;
+            derivedAuxiliaryData = auxiliaryData;
+        }
+        final int invalidDerivedData = requiredDerivedData & ~validDerivedData;
+        if (invalidDerivedData == 0) {
+            return;
+        }
+        // Every other layer depends on the occupation data
+        if ((validDerivedData & OCCUPATION_DERIVED) == 0) {
+            stampOccupationData();
+        }
+        if ((invalidDerivedData & THREATS_DERIVED) != 0) {
+            stampThreatData();
         }
-        return Arrays.copyOfRange(piecesData, 0, pieceIndex);
+        if ((invalidDerivedData & (CHECKS_DERIVED | PINS_DERIVED)) != 0) {
+            playerKingPosition = getPlayerKingPosition();
+        }
+        if ((invalidDerivedData & CHECKS_DERIVED) != 0) {
+            stampCheckData();
+        }
+        if ((invalidDerivedData & PINS_DERIVED) != 0) {
+            stampPinData();
+        }
+        validDerivedData |= requiredDerivedData | OCCUPATION_DERIVED;
     }
 
     private void stampOccupationData() {
         final int turnSide = getTurnSide();
-        for(int playerIndex : PLAYER_DATA_INDEXES) {
-            final int colourIndex = (turnSide ^ playerIndex) + 2;
-            data[playerIndex] = data[colourIndex];
-        }
+        data[PLAYER_OCCUPATION_DATA_INDEX] = data[WHITE_OCCUPATION_DATA_INDEX + turnSide];
+        data[OPPONENT_OCCUPATION_DATA_INDEX] = data[BLACK_OCCUPATION_DATA_INDEX - turnSide];
         final int enPassantSquare = getEnPassantSquare();
-        if (enPassantSquare >= 0) {
-            data[EN_PASSANT_SQUARE_DATA_INDEX] = 1L << enPassantSquare;
-        }
+        data[EN_PASSANT_SQUARE_DATA_INDEX] = enPassantSquare >= 0 ? 1L << enPassantSquare : 0;
+        long castleData = 0;
         for(int castlePosition : getCastlePositions()) {
-            data[CASTLE_AVAILABLE_DATA_INDEX] |= 1L << castlePosition;
+            castleData |= 1L << castlePosition;
         }
+        data[CASTLE_AVAILABLE_DATA_INDEX] = castleData;
     }
 
     private void stampThreatData() {
-        for(int pieceBitFlag : getOpposingPieceBitFlags()) {
-            Piece.stampThreatFlags(pieceBitFlag, this);
+        final long opponentData = data[OPPONENT_OCCUPATION_DATA_INDEX];
+        final long playerKingData = data[PLAYER_OCCUPATION_DATA_INDEX] & data[KING_OCCUPATION_DATA_INDEX];
+        // The player's king doesn't block threats, because it can't escape by moving along the threatened line
+        final long occupiedData = (data[WHITE_OCCUPATION_DATA_INDEX] | data[BLACK_OCCUPATION_DATA_INDEX]) & ~playerKingData;
+        long threatenedData = MagicBitboards.getPawnAttacks(opponentData & data[PAWN_OCCUPATION_DATA_INDEX], getOpposingSide());
+        long knightData = opponentData & data[KNIGHT_OCCUPATION_DATA_INDEX];
+        while (knightData != 0) {
+            threatenedData |= MagicBitboards.getKnightAttacks(Long.numberOfTrailingZeros(knightData));
+            knightData &= knightData - 1;
         }
-    }
-
-    private void stampCheckNonBlockerData() {
-        final int checkedPlayerKingBitFlag = getCheckedPlayerKing();
-        if (checkedPlayerKingBitFlag >= 0) {
-            setCheckNonBlockerData(checkedPlayerKingBitFlag);
+        long diagonalSliderData = opponentData & (data[BISHOP_OCCUPATION_DATA_INDEX] | data[QUEEN_OCCUPATION_DATA_INDEX]);
+        while (diagonalSliderData != 0) {
+            threatenedData |= MagicBitboards.getBishopAttacks(Long.numberOfTrailingZeros(diagonalSliderData), occupiedData);
+            diagonalSliderData &= diagonalSliderData - 1;
         }
-    }
-
-    private int getCheckedPlayerKing() {
-        final long playerCheckedKingData = combineDataWithAnd(PLAYER_CHECK_DATA_INDEXES);
-        if (playerCheckedKingData == 0) {
-            return -1;
+        long orthogonalSliderData = opponentData & (data[ROOK_OCCUPATION_DATA_INDEX] | data[QUEEN_OCCUPATION_DATA_INDEX]);
+        while (orthogonalSliderData != 0) {
+            threatenedData |= MagicBitboards.getRookAttacks(Long.numberOfTrailingZeros(orthogonalSliderData), occupiedData);
+            orthogonalSliderData &= orthogonalSliderData - 1;
         }
-        final int position = Long.numberOfTrailingZeros(playerCheckedKingData);
-        return getPieceAtPosition(position);
-    }
-
-    private void setCheckNonBlockerData(int kingPositionBitFlag) {
-        final int kingPositionDirectionalFlags = Piece.getDirectionalFlags(kingPositionBitFlag);
-        for(int directionalFlag : ALL_DIRECTIONAL_FLAGS) {
-            if (directionalFlag == kingPositionDirectionalFlags) {
-                setCheckNonBlockerFlags(kingPositionBitFlag, kingPositionDirectionalFlags);
-                break;
-            }
+        final long opponentKingData = opponentData & data[KING_OCCUPATION_DATA_INDEX];
+        if (opponentKingData != 0) {
+            threatenedData |= MagicBitboards.getKingAttacks(Long.numberOfTrailingZeros(opponentKingData));
         }
-
-        // Now reverse the bit DOES_NOT_BLOCK_CHECK data because it's on the squares which can block check
-        data[DOES_NOT_BLOCK_CHECK_DATA_INDEX] = ~data[DOES_NOT_BLOCK_CHECK_DATA_INDEX];
+        data[THREATENED_DATA_INDEX] = threatenedData;
     }
 
-    private long combineDataWithOr(int... dataIndexes) {
-        return combineData(OR_BINARY_OPERATOR, dataIndexes);
+    private int getPlayerKingPosition() {
+        final long playerKingData = data[PLAYER_OCCUPATION_DATA_INDEX] & data[KING_OCCUPATION_DATA_INDEX];
+        return playerKingData == 0 ? -1 : Long.numberOfTrailingZeros(playerKingData);
     }
 
-    private long combineDataWithAnd(int... dataIndexes) {
-        return combineData(AND_BINARY_OPERATOR, dataIndexes);
+    /**
+     * Finds the opposing pieces checking the player's king, and the positions which answer the check
+     */
+    private void stampCheckData() {
+        if (playerKingPosition < 0) {
+            checkersData = 0;
+            checkMaskData = -1L;
+            return;
+        }
+        final long opponentData = data[OPPONENT_OCCUPATION_DATA_INDEX];
+        final long occupiedData = data[WHITE_OCCUPATION_DATA_INDEX] | data[BLACK_OCCUPATION_DATA_INDEX];
+        final long queenData = data[QUEEN_OCCUPATION_DATA_INDEX];
+        // Opposing pawns are checking from the squares which a player pawn on the king's position would attack
+        final long checkers = opponentData & (
+            (MagicBitboards.getKnightAttacks(playerKingPosition) & data[KNIGHT_OCCUPATION_DATA_INDEX])
+            | (MagicBitboards.getPawnAttacks(1L << playerKingPosition, getTurnSide()) & data[PAWN_OCCUPATION_DATA_INDEX])
+            | (MagicBitboards.getBishopAttacks(playerKingPosition, occupiedData) & (data[BISHOP_OCCUPATION_DATA_INDEX] | queenData))
+            | (MagicBitboards.getRookAttacks(playerKingPosition, occupiedData) & (data[ROOK_OCCUPATION_DATA_INDEX] | queenData)));
+        checkersData = checkers;
+        if (checkers == 0) {
+            checkMaskData = -1L;
+        } else if ((checkers & (checkers - 1)) == 0) {
+            // Check can be answered by taking the checking piece or by blocking the line to it
+            checkMaskData = checkers | MagicBitboards.getSquaresBetween(Long.numberOfTrailingZeros(checkers), playerKingPosition);
+        } else {
+            // Only the king can answer a double check
+            checkMaskData = 0;
+        }
     }
 
-    private long combineData(LongBinaryOperator binaryOperator, int... dataIndexes) {
-        long accumulation = data[dataIndexes[0]];
-        for(int dataIndexIndex = 1; dataIndexIndex < dataIndexes.length; dataIndexIndex++) {
-            final int dataIndex = dataIndexes[dataIndexIndex];
-            accumulation = binaryOperator.applyAsLong(accumulation, data[dataIndex]);
+    /**
+     * Finds the player pieces which are the only piece between the player's king and an opposing sliding piece
+     */
+    private void stampPinData() {
+        if (playerKingPosition < 0) {
+            pinnedData = 0;
+            return;
+        }
+        final long occupiedData = data[WHITE_OCCUPATION_DATA_INDEX] | data[BLACK_OCCUPATION_DATA_INDEX];
+        long pinned = 0;
+        long sliderData = (MagicBitboards.getBishopAttacks(playerKingPosition, 0L)
+            & (data[BISHOP_OCCUPATION_DATA_INDEX] | data[QUEEN_OCCUPATION_DATA_INDEX]))
+            | (MagicBitboards.getRookAttacks(playerKingPosition, 0L)
+            & (data[ROOK_OCCUPATION_DATA_INDEX] | data[QUEEN_OCCUPATION_DATA_INDEX]));
+        sliderData &= data[OPPONENT_OCCUPATION_DATA_INDEX];
+        while (sliderData != 0) {
+            final int sliderPosition = Long.numberOfTrailingZeros(sliderData);
+            final long blockingData = MagicBitboards.getSquaresBetween(sliderPosition, playerKingPosition) & occupiedData;
+            if ((blockingData & (blockingData - 1)) == 0
+                && (blockingData & data[PLAYER_OCCUPATION_DATA_INDEX]) != 0) {
+                // The only piece between the sliding piece and the player's king is a king protector
+                pinned |= blockingData;
+            }
+            sliderData &= sliderData - 1;
         }
-        return accumulation;
+        pinnedData = pinned;
     }
 
     private int getDataAtPosition(int position, int fromDataIndex, int toDataIndexExclusive) {
         int pieceData = 0;
         for(int dataIndex = fromDataIndex; dataIndex < toDataIndexExclusive; dataIndex++) {
             final long dataLong = data[dataIndex];
-            pieceData |= (int) ((dataLong >>> position) & 1L) << dataIndex;
-        }
-        return pieceData << 6;
-    }
-
-    private void clearNonPieceData() {
-        for(int dataIndex : HIGHER_FLAG_DATA_INDEXES) {
-            data[dataIndex] = 0;
+            pieceData |= -(int) ((dataLong >>> position) & 1L) & DATA_BIT_FLAGS[dataIndex];
         }
+        return pieceData;
     }
 
     private boolean isBitSetAtPosition(int dataIndex, int position) {
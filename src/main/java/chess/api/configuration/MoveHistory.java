@@ -0,0 +1,78 @@
+package chess.api.configuration;
+
+/**
+ * This class holds the moves of a game as a linked list running from the latest move back to the first,
+ * so a configuration extends the history of the configuration it was made from with one node instead of a copy.
+ * The histories of sibling configurations share every node except their own.
+ * A history is only ever changed in place by a ConfigurationArena, when the configuration owning its latest node
+ * is overwritten.
+ */
+public final class MoveHistory {
+
+    public static final MoveHistory EMPTY = new MoveHistory(null, (short) 0);
+
+    private MoveHistory previousMoveHistory;
+
+    private short move;
+
+    private int length;
+
+    private MoveHistory(MoveHistory previousMoveHistory, short move) {
+        overwrite(previousMoveHistory, move);
+    }
+
+    public static MoveHistory of(short[] moves) {
+        MoveHistory moveHistory = EMPTY;
+        for(short move : moves) {
+            moveHistory = moveHistory.append(move);
+        }
+        return moveHistory;
+    }
+
+    /**
+     * @return A new history with the move after the moves of this history, which is unchanged
+     */
+    public MoveHistory append(short move) {
+        return new MoveHistory(this, move);
+    }
+
+    /**
+     * Makes this node the move after another history, discarding the move it held before
+     */
+    void overwrite(MoveHistory previousMoveHistory, short move) {
+        this.previousMoveHistory = previousMoveHistory;
+        this.move = move;
+        length = previousMoveHistory == null ? 0 : previousMoveHistory.length + 1;
+    }
+
+    /**
+     * @return The latest move, which is only meaningful when the length isn't zero
+     */
+    public short getMove() {
+        return move;
+    }
+
+    /**
+     * @return The history before the latest move, or null for an empty history
+     */
+    public MoveHistory getPreviousMoveHistory() {
+        return previousMoveHistory;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return A new array of the moves, first move first
+     */
+    public short[] toArray() {
+        final short[] moves = new short[length];
+        MoveHistory moveHistory = this;
+        for(int index = length - 1; index >= 0; index--) {
+            moves[index] = moveHistory.move;
+            moveHistory = moveHistory.previousMoveHistory;
+        }
+        return moves;
+    }
+}
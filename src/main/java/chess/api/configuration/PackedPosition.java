@@ -0,0 +1,113 @@
+package chess.api.configuration;
+
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+
+import static chess.api.configuration.PieceConfiguration.*;
+import static java.lang.String.format;
+
+/**
+ * A canonical encoding of a position in 28 bytes, for caching and storing positions without holding a configuration
+ * or a FEN string. The occupied positions are held as one bit each, and the piece on each occupied position,
+ * in position order, as a four bit code: the colour in the highest bit and the piece type below it.
+ * The auxiliary data keeps the turn side, castle positions and en passant square, but not the move counters,
+ * so positions which differ only by their move counters have equal encodings.
+ * @param lowerPieceCodes The codes of the first sixteen pieces, the first piece in the lowest bits
+ * @param upperPieceCodes The codes of any pieces after the first sixteen
+ */
+public record PackedPosition(long occupiedData, long lowerPieceCodes, long upperPieceCodes, int auxiliaryData) {
+
+    public static final int ENCODED_LENGTH = 28;
+
+    public static final int MAX_PIECE_COUNT = 32;
+
+    // The turn side, castle positions, en passant square and whether the en passant square is set
+    private static final int AUXILIARY_DATA_MASK = 0b11111110000000000000000000011111;
+
+    private static final int BLACK_PIECE_CODE = 8;
+
+    private static final int PIECE_TYPE_FLAG_SHIFT = 10;
+
+    public static PackedPosition encode(PieceConfiguration pieceConfiguration) {
+        long occupiedData = 0;
+        final long[] pieceCodes = new long[2];
+        int pieceCount = 0;
+        for(int position = 0; position < 64; position++) {
+            final int pieceAndColourFlags = pieceConfiguration.getPieceAndColourFlags(position);
+            if (pieceAndColourFlags == 0) {
+                continue;
+            }
+            if (pieceCount == MAX_PIECE_COUNT) {
+                throw new IllegalArgumentException(format("Positions with more than %d pieces can't be packed",
+                    MAX_PIECE_COUNT));
+            }
+            occupiedData |= 1L << position;
+            pieceCodes[pieceCount >> 4] |= (long) toPieceCode(pieceAndColourFlags) << ((pieceCount & 15) << 2);
+            pieceCount++;
+        }
+        return new PackedPosition(occupiedData, pieceCodes[0], pieceCodes[1],
+            pieceConfiguration.getAuxiliaryData() & AUXILIARY_DATA_MASK);
+    }
+
+    /**
+     * Reads an encoding written by toBytes
+     */
+    public static PackedPosition fromBytes(byte[] bytes) {
+        if (bytes.length != ENCODED_LENGTH) {
+            throw new IllegalArgumentException(format("A packed position must be %d bytes long, not %d",
+                ENCODED_LENGTH, bytes.length));
+        }
+        final ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
+        return new PackedPosition(byteBuffer.getLong(), byteBuffer.getLong(), byteBuffer.getLong(), byteBuffer.getInt());
+    }
+
+    public byte[] toBytes() {
+        return ByteBuffer.allocate(ENCODED_LENGTH)
+            .putLong(occupiedData)
+            .putLong(lowerPieceCodes)
+            .putLong(upperPieceCodes)
+            .putInt(auxiliaryData)
+            .array();
+    }
+
+    /**
+     * Creates a configuration of the position, with the half move clock at zero and the full move number at one
+     */
+    public PieceConfiguration decode(Class<? extends PieceConfiguration> configurationClass) {
+        final PieceConfiguration pieceConfiguration;
+        try {
+            pieceConfiguration = configurationClass.getConstructor().newInstance();
+        } catch (IllegalAccessException | InstantiationException | NoSuchMethodException | InvocationTargetException e) {
+            throw new RuntimeException(format("Could not create new instance of %s", configurationClass.getSimpleName()), e);
+        }
+        long remainingOccupiedData = occupiedData;
+        int pieceCount = 0;
+        while (remainingOccupiedData != 0) {
+            final int position = Long.numberOfTrailingZeros(remainingOccupiedData);
+            final long pieceCodes = pieceCount < 16 ? lowerPieceCodes : upperPieceCodes;
+            final int pieceCode = (int) (pieceCodes >>> ((pieceCount & 15) << 2)) & 0b1111;
+            pieceConfiguration.addPiece(toPieceAndColourFlags(pieceCode) | position);
+            remainingOccupiedData &= remainingOccupiedData - 1;
+            pieceCount++;
+        }
+        pieceConfiguration.setAuxiliaryData(auxiliaryData);
+        pieceConfiguration.setFullMoveNumber(1);
+        pieceConfiguration.initialiseZobristKey();
+        return pieceConfiguration;
+    }
+
+    private static int toPieceCode(int pieceAndColourFlags) {
+        final int pieceTypeCode = Integer.numberOfTrailingZeros(pieceAndColourFlags & ALL_PIECE_FLAGS_COMBINED)
+            - PIECE_TYPE_FLAG_SHIFT + 1;
+        return (pieceAndColourFlags & BLACK_OCCUPIED) == 0 ? pieceTypeCode : pieceTypeCode | BLACK_PIECE_CODE;
+    }
+
+    private static int toPieceAndColourFlags(int pieceCode) {
+        final int pieceTypeCode = pieceCode & ~BLACK_PIECE_CODE;
+        if (pieceTypeCode == 0 || pieceTypeCode > 6) {
+            throw new IllegalArgumentException(format("%d is not a packed piece code", pieceCode));
+        }
+        final int colourFlag = (pieceCode & BLACK_PIECE_CODE) == 0 ? WHITE_OCCUPIED : BLACK_OCCUPIED;
+        return colourFlag | (KING_OCCUPIED << (pieceTypeCode - 1));
+    }
+}
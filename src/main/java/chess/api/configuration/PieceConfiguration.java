@@ -4,7 +4,6 @@ import chess.api.BitUtil;
 import chess.api.FENWriter;
 import chess.api.GameEndType;
 import chess.api.Position;
-import chess.api.pieces.Knight;
 import chess.api.pieces.Piece;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,8 +64,6 @@ public abstract class PieceConfiguration {
 
     public static final int EN_PASSANT_SQUARE = 268435456; // 28
 
-    protected static final int REPETITION_AUX_DATA_MASK = 0b11111110000000000000000000011111;
-    
     public static final int ALL_DIRECTIONAL_FLAGS_COMBINED = DIRECTION_N | DIRECTION_NE | DIRECTION_E | DIRECTION_SE
             | DIRECTION_S | DIRECTION_SW | DIRECTION_W | DIRECTION_NW | DIRECTION_ANY_KNIGHT;
 
@@ -86,8 +83,30 @@ public abstract class PieceConfiguration {
 
     public static final int NO_CAPTURE_OR_PAWN_MOVE_LIMIT = 99;
 
+    // No legal chess position has more than 218 available moves
+    public static final int MAX_MOVE_COUNT = 218;
+
     private static final int DRAW_PREFERRED_MATERIAL_DISADVANTAGE_THRESHOLD = 6;
 
+    private static final int CAPTURE_MOVE_KIND = 0;
+
+    private static final int PROMOTION_MOVE_KIND = 1;
+
+    private static final int QUIET_MOVE_KIND = 2;
+
+    // The castle position given up when the rook on each position moves or is taken, or -1 away from the corners
+    private static final int[] ROOK_CASTLE_POSITIONS = new int[64];
+
+    static {
+        Arrays.fill(ROOK_CASTLE_POSITIONS, -1);
+        for(Map.Entry<Integer, Integer> entry : CASTLE_POSITION_MAPPINGS.entrySet()) {
+            ROOK_CASTLE_POSITIONS[entry.getValue()] = entry.getKey();
+        }
+    }
+
+    // Each thread generates moves into its own buffer, rather than a new buffer for every configuration
+    static final ThreadLocal<short[]> MOVE_BUFFERS = ThreadLocal.withInitial(() -> new short[MAX_MOVE_COUNT]);
+
     protected static final int[] ALL_DIRECTIONAL_FLAGS = {
             DIRECTION_N,
             DIRECTION_NE,
@@ -122,13 +141,31 @@ public abstract class PieceConfiguration {
     // 0 turnSide, 1-4 castlePositions, 5-11 halfMoveClock, 12-24 fullMoveNumber, 25-30 enPassant position, 31 enPassantIsNotSet
     protected int auxiliaryData = Integer.MIN_VALUE;
 
-    private short[] historicMoves;
+    protected long zobristKey;
+
+    private static final long[] NO_HISTORIC_ZOBRIST_KEYS = new long[0];
 
-    private PieceConfiguration parentConfiguration;
+    // Null when the moves aren't being recorded
+    private MoveHistory moveHistory;
+
+    // Whether the latest node of the move history belongs to this configuration alone, so that it can be overwritten
+    private boolean isMoveHistoryOverwritable;
+
+    // The Zobrist keys of the positions before this one, oldest first, going back at least as far as the last
+    // irreversible move when that move is known. Only the last getHalfMoveClock() keys are ever compared
+    private long[] historicZobristKeys = NO_HISTORIC_ZOBRIST_KEYS;
+
+    private int historicZobristKeyCount;
 
     public abstract Class<? extends PieceConfiguration> getConfigurationClass();
 
-    public abstract List<PieceConfiguration> getOnwardConfigurations();
+    /**
+     * Writes the moves available to the player into a caller-owned buffer,
+     * using the encoding from MoveDescriber.describeMove
+     * @param buffer An array with space for at least MAX_MOVE_COUNT moves
+     * @return The number of moves written to the buffer
+     */
+    public abstract int generateMoves(short[] buffer);
 
     public abstract List<PieceConfiguration> getOnwardConfigurationsForPiece(int pieceBitFlag);
 
@@ -164,12 +201,8 @@ public abstract class PieceConfiguration {
 
     public abstract void setThreatened(int position);
 
-    public abstract void setDirectionalFlag(int position, int directionalFlag);
-
     public abstract boolean isIneffectiveCheckBlockAttempt(int position);
 
-    protected abstract void setDoesNotBlockCheck(int position);
-
     public abstract boolean isCastleAvailable(int position);
 
     public abstract void setHigherBitFlags();
@@ -178,6 +211,91 @@ public abstract class PieceConfiguration {
 
     protected abstract int countPieces();
 
+    /**
+     * Overwrites the pieces of this configuration with those of another configuration of the same implementation,
+     * leaving any data derived from the old pieces out of date
+     */
+    protected abstract void copyPieces(PieceConfiguration copiedConfiguration);
+
+    /**
+     * Writes the player's moves which take a piece, including en passant and promotions which take a piece
+     * @param buffer An array with space for at least MAX_MOVE_COUNT moves
+     * @return The number of moves written to the buffer
+     */
+    public int generateCaptures(short[] buffer) {
+        return generateMovesOfKind(buffer, CAPTURE_MOVE_KIND);
+    }
+
+    /**
+     * Writes the player's promotions which don't take a piece
+     */
+    public int generatePromotions(short[] buffer) {
+        return generateMovesOfKind(buffer, PROMOTION_MOVE_KIND);
+    }
+
+    /**
+     * Writes the player's moves which neither take a piece nor promote
+     */
+    public int generateQuietMoves(short[] buffer) {
+        return generateMovesOfKind(buffer, QUIET_MOVE_KIND);
+    }
+
+    /**
+     * @return Whether the move takes a piece, assuming it is one of the player's moves
+     */
+    public boolean isCapture(short move) {
+        final int toPos = move & 0b0000000000111111;
+        return isOpponentOccupied(toPos)
+            || (toPos == getEnPassantSquare()
+            && (getPieceAndColourFlags((move & 0b0000111111000000) >> 6) & PAWN_OCCUPIED) != 0);
+    }
+
+    private int generateMovesOfKind(short[] buffer, int moveKind) {
+        final int moveCount = generateMoves(buffer);
+        int keptMoveCount = 0;
+        for(int moveIndex = 0; moveIndex < moveCount; moveIndex++) {
+            final short move = buffer[moveIndex];
+            if (getMoveKind(move) == moveKind) {
+                buffer[keptMoveCount++] = move;
+            }
+        }
+        return keptMoveCount;
+    }
+
+    private int getMoveKind(short move) {
+        if (isCapture(move)) {
+            return CAPTURE_MOVE_KIND;
+        }
+        return (move & 0b1111000000000000) != 0 ? PROMOTION_MOVE_KIND : QUIET_MOVE_KIND;
+    }
+
+    /**
+     * @return The number of moves available to the player, counted without creating any onward configurations
+     */
+    public int countLegalMoves() {
+        return generateMoves(MOVE_BUFFERS.get());
+    }
+
+    /**
+     * @return Whether the player has any move available, which implementations may answer as soon as one is found
+     */
+    public boolean hasAnyLegalMove() {
+        return countLegalMoves() > 0;
+    }
+
+    public List<PieceConfiguration> getOnwardConfigurations() {
+        final short[] moves = MOVE_BUFFERS.get();
+        return toOnwardConfigurations(moves, generateMoves(moves));
+    }
+
+    public List<PieceConfiguration> toOnwardConfigurations(short[] moves, int moveCount) {
+        final List<PieceConfiguration> onwardConfigurations = new ArrayList<>(moveCount);
+        for(int moveIndex = 0; moveIndex < moveCount; moveIndex++) {
+            onwardConfigurations.add(toNewConfigurationFromMove(this, moves[moveIndex]));
+        }
+        return onwardConfigurations;
+    }
+
     public static PieceConfiguration toNewConfigurationFromMoves(PieceConfiguration originalConfiguration, short[] historicMoves) {
         PieceConfiguration currentConfiguration = originalConfiguration;
         for (short historicMove : historicMoves) {
@@ -189,80 +307,113 @@ public abstract class PieceConfiguration {
     public static PieceConfiguration toNewConfigurationFromMove(PieceConfiguration previousConfiguration, short moveDescription) {
         final PieceConfiguration newConfiguration = getPieceConfigurationImplementation(previousConfiguration);
         newConfiguration.addHistoricMove(previousConfiguration, moveDescription);
-        newConfiguration.setParentConfiguration(previousConfiguration);
+        newConfiguration.applyMove(moveDescription);
+        newConfiguration.setHistoricZobristKeys(previousConfiguration);
+        return newConfiguration;
+    }
+
+    /**
+     * Writes the configuration which follows the move into an existing configuration of the same implementation,
+     * instead of creating a new one, overwriting the latest node of its move history when it made that node itself.
+     * Configurations made from the existing configuration share that node, so are only valid as long as it is
+     * @return The existing configuration
+     */
+    public static PieceConfiguration toNewConfigurationFromMove(PieceConfiguration previousConfiguration,
+                                                                short moveDescription,
+                                                                PieceConfiguration newConfiguration) {
+        newConfiguration.auxiliaryData = previousConfiguration.auxiliaryData;
+        newConfiguration.zobristKey = previousConfiguration.zobristKey;
+        newConfiguration.copyPieces(previousConfiguration);
+        newConfiguration.overwriteHistoricMoves(previousConfiguration, moveDescription);
+        newConfiguration.applyMove(moveDescription);
+        newConfiguration.setHistoricZobristKeys(previousConfiguration);
+        return newConfiguration;
+    }
+
+    /**
+     * Moves the pieces and updates the auxiliary data of this configuration in place.
+     * Only the piece and colour data is read, so the higher bit flags need not be set beforehand,
+     * and they are left stale afterwards. No historic move is recorded.
+     * @return The piece, colour and position flags of the taken piece, or zero if no piece was taken
+     */
+    protected int applyMove(short moveDescription) {
         final int fromPos = (moveDescription & 0b0000111111000000) >> 6;
         final int toPos = moveDescription & 0b0000000000111111;
         final int promotionBitFlag = (moveDescription & 0b1111000000000000) >>> 1;
-        final int oldPieceBitFlag = previousConfiguration.getPieceAtPosition(fromPos);
+        final int turnSide = getTurnSide();
+        final int oldPieceBitFlag = getPieceAndColourWithPosition(fromPos);
         final int newPieceBitFlag = promotionBitFlag == 0
             ? (oldPieceBitFlag & ALL_PIECE_AND_COLOUR_FLAGS_COMBINED) | toPos
             : (oldPieceBitFlag & COLOUR_FLAGS_COMBINED) | promotionBitFlag | toPos;
-        final int directlyTakenPieceBitFlag = previousConfiguration.getPieceAtPosition(toPos) & ALL_PIECE_FLAGS_COMBINED;
+        final int directlyTakenPieceBitFlag = getPieceAndColourFlags(toPos) & ALL_PIECE_FLAGS_COMBINED;
         final boolean isAnyPieceTaken = directlyTakenPieceBitFlag > 0
-            || (previousConfiguration.getEnPassantSquare() == toPos && (newPieceBitFlag & PAWN_OCCUPIED) != 0);
+            || (getEnPassantSquare() == toPos && (newPieceBitFlag & PAWN_OCCUPIED) != 0);
         final int posDiff = toPos - fromPos;
-        newConfiguration.removePiece(fromPos);
-        newConfiguration.removePiece(toPos);
-        newConfiguration.addPiece(newPieceBitFlag);
+        int takenPieceBitFlag = directlyTakenPieceBitFlag > 0 ? getPieceAndColourWithPosition(toPos) : 0;
+        // The auxiliary part of the key is removed here and added back once the auxiliary data is updated
+        zobristKey ^= ZobristKeys.getAuxiliaryKey(auxiliaryData);
+        zobristKey ^= ZobristKeys.getPieceKey(oldPieceBitFlag) ^ ZobristKeys.getPieceKey(newPieceBitFlag);
+        removePiece(fromPos);
+        removePiece(toPos);
+        addPiece(newPieceBitFlag);
         if (isAnyPieceTaken && directlyTakenPieceBitFlag == 0) {
             // Remove pawn taken by en passant
-            final int takenPiecePosition = toPos - (8 - (previousConfiguration.getTurnSide() * 16));
-            newConfiguration.removePiece(takenPiecePosition);
+            final int takenPiecePosition = toPos - (8 - (turnSide * 16));
+            takenPieceBitFlag = getPieceAndColourWithPosition(takenPiecePosition);
+            removePiece(takenPiecePosition);
+        }
+        if (takenPieceBitFlag != 0) {
+            zobristKey ^= ZobristKeys.getPieceKey(takenPieceBitFlag);
         }
         if (hasBitFlag(oldPieceBitFlag, KING_OCCUPIED)) {
             if (Math.abs(posDiff) == 2) {
                 // Castling
                 final int rookFromPos = CASTLE_POSITION_MAPPINGS.get(toPos);
                 final int rookToPos = posDiff > 0 ? fromPos + 1 : fromPos - 1;
-                final int oldRookBitFlag = previousConfiguration.getPieceAtPosition(rookFromPos);
-                final int newRookBitFlag = (oldRookBitFlag & ALL_PIECE_AND_COLOUR_FLAGS_COMBINED) | rookToPos;
-                newConfiguration.removePiece(rookFromPos);
-                newConfiguration.addPiece(newRookBitFlag);
+                final int oldRookBitFlag = getPieceAndColourFlags(rookFromPos);
+                final int newRookBitFlag = oldRookBitFlag | rookToPos;
+                zobristKey ^= ZobristKeys.getPieceKey(oldRookBitFlag | rookFromPos)
+                    ^ ZobristKeys.getPieceKey(newRookBitFlag);
+                removePiece(rookFromPos);
+                addPiece(newRookBitFlag);
             }
             // Remove castle positions for side because king has moved
             final int leftCastlePosition = 2 + (56 * ((oldPieceBitFlag & BLACK_OCCUPIED) >> 9));
             final int rightCastlePosition = leftCastlePosition + 4;
-            newConfiguration.removeCastlePosition(leftCastlePosition);
-            newConfiguration.removeCastlePosition(rightCastlePosition);
+            removeCastlePosition(leftCastlePosition);
+            removeCastlePosition(rightCastlePosition);
         }
-        if (hasBitFlag(oldPieceBitFlag, ROOK_OCCUPIED) && CASTLE_POSITION_MAPPINGS.containsValue(fromPos)) {
+        if (hasBitFlag(oldPieceBitFlag, ROOK_OCCUPIED) && ROOK_CASTLE_POSITIONS[fromPos] >= 0) {
             // Remove castle position for rook because rook has moved
-            for(Map.Entry<Integer, Integer> entry : CASTLE_POSITION_MAPPINGS.entrySet()) {
-                if (entry.getValue() == fromPos) {
-                    newConfiguration.removeCastlePosition(entry.getKey());
-                }
-            }
+            removeCastlePosition(ROOK_CASTLE_POSITIONS[fromPos]);
         }
-        if (hasBitFlag(directlyTakenPieceBitFlag, ROOK_OCCUPIED)) {
+        if (hasBitFlag(directlyTakenPieceBitFlag, ROOK_OCCUPIED) && ROOK_CASTLE_POSITIONS[toPos] >= 0) {
             // Remove castle position for rook because rook has been taken
-            for(Map.Entry<Integer, Integer> entry : CASTLE_POSITION_MAPPINGS.entrySet()) {
-                if (entry.getValue() == toPos) {
-                    newConfiguration.removeCastlePosition(entry.getKey());
-                }
-            }
+            removeCastlePosition(ROOK_CASTLE_POSITIONS[toPos]);
         }
 
         if (hasBitFlag(oldPieceBitFlag, PAWN_OCCUPIED) && Math.abs(posDiff) == 16) {
             // Set the en passant square
-            newConfiguration.setEnPassantSquare((fromPos + toPos) >> 1);
+            setEnPassantSquare((fromPos + toPos) >> 1);
         } else {
             // Clear the en passant square
-            newConfiguration.setEnPassantSquare(-1);
+            setEnPassantSquare(-1);
         }
 
         if (isAnyPieceTaken || hasBitFlag(oldPieceBitFlag, PAWN_OCCUPIED)) {
             // Reset the half move clock to zero
-            newConfiguration.setHalfMoveClock(0);
+            setHalfMoveClock(0);
         } else {
             // Increment the half move clock
-            newConfiguration.setHalfMoveClock(previousConfiguration.getHalfMoveClock() + 1);
+            setHalfMoveClock(getHalfMoveClock() + 1);
         }
 
         // Increment the full move number
-        newConfiguration.setFullMoveNumber(previousConfiguration.getFullMoveNumber() + previousConfiguration.getTurnSide());
+        setFullMoveNumber(getFullMoveNumber() + turnSide);
         // Switch the turn side
-        newConfiguration.setTurnSide(previousConfiguration.getOpposingSide());
-        return newConfiguration;
+        setTurnSide(1 - turnSide);
+        zobristKey ^= ZobristKeys.getAuxiliaryKey(auxiliaryData);
+        return takenPieceBitFlag;
     }
 
     public static int getPieceTypeBitFlag(int positionBitFlag) {
@@ -343,47 +494,105 @@ public abstract class PieceConfiguration {
         return getPieceAndColourFlags(position) | position;
     }
 
+    /**
+     * Compares the Zobrist key of this position with those of the earlier positions with the same player to move,
+     * going back no further than the last capture or pawn move
+     */
     boolean isThreefoldRepetitionFailure() {
-        if (parentConfiguration == null) {
-            return false;
-        }
-        PieceConfiguration historicConfiguration = parentConfiguration;
-        final int latestAuxiliaryData = auxiliaryData & REPETITION_AUX_DATA_MASK;
-        final int[] latestConfigurationPieces = getSimplePieceBitFlags();
+        final int comparableKeyCount = Math.min(historicZobristKeyCount, getHalfMoveClock());
+        final int earliestIndex = historicZobristKeyCount - comparableKeyCount;
         int timesVisited = 1;
-        while(historicConfiguration != null) {
-            final int historicAuxiliaryData = historicConfiguration.auxiliaryData & REPETITION_AUX_DATA_MASK;
-            if (historicAuxiliaryData != latestAuxiliaryData) {
-                historicConfiguration = historicConfiguration.getParentConfiguration();
-                continue;
-            }
-            final int[] historicConfigurationPieces = historicConfiguration.getSimplePieceBitFlags();
-            if (historicConfigurationPieces.length < latestConfigurationPieces.length) {
-                break;
-            }
-            if (Arrays.equals(latestConfigurationPieces, historicConfigurationPieces)) {
-                timesVisited++;
-            }
-            if (timesVisited >= 3) {
+        for(int index = historicZobristKeyCount - 2; index >= earliestIndex; index -= 2) {
+            if (historicZobristKeys[index] == zobristKey && ++timesVisited >= 3) {
                 return true;
             }
-            historicConfiguration = historicConfiguration.getParentConfiguration();
         }
         return false;
     }
 
-    private static PieceConfiguration getPieceConfigurationImplementation(PieceConfiguration previousConfiguration) {
+    /**
+     * Records the Zobrist key of the previous position after those of the positions before it,
+     * keeping only the keys which the half move clock of this position allows to be repeated.
+     * No reference to the previous configuration is kept.
+     */
+    public void setHistoricZobristKeys(PieceConfiguration previousConfiguration) {
+        final int halfMoveClock = getHalfMoveClock();
+        if (halfMoveClock == 0) {
+            historicZobristKeyCount = 0;
+            return;
+        }
+        final int previousKeyCount = previousConfiguration.historicZobristKeyCount;
+        final int keptKeyCount = Math.min(previousKeyCount, halfMoveClock - 1);
+        if (historicZobristKeys.length <= keptKeyCount) {
+            historicZobristKeys = new long[keptKeyCount + 1];
+        }
+        System.arraycopy(previousConfiguration.historicZobristKeys, previousKeyCount - keptKeyCount,
+            historicZobristKeys, 0, keptKeyCount);
+        historicZobristKeys[keptKeyCount] = previousConfiguration.zobristKey;
+        historicZobristKeyCount = keptKeyCount + 1;
+    }
+
+    /**
+     * Records the Zobrist key of this position before a move is made in place
+     */
+    protected void pushHistoricZobristKey() {
+        if (historicZobristKeyCount == historicZobristKeys.length) {
+            historicZobristKeys = Arrays.copyOf(historicZobristKeys, Math.max(historicZobristKeyCount << 1, 16));
+        }
+        historicZobristKeys[historicZobristKeyCount++] = zobristKey;
+    }
+
+    /**
+     * @return The recorded Zobrist keys of the positions before this one, oldest first
+     */
+    long[] getHistoricZobristKeys() {
+        return Arrays.copyOf(historicZobristKeys, historicZobristKeyCount);
+    }
+
+    /**
+     * Forgets the Zobrist key recorded by the most recent pushHistoricZobristKey, when its move is unmade
+     * @return The forgotten Zobrist key
+     */
+    protected long popHistoricZobristKey() {
+        return historicZobristKeys[--historicZobristKeyCount];
+    }
+
+    static PieceConfiguration getPieceConfigurationImplementation(PieceConfiguration previousConfiguration) {
         final PieceConfiguration newConfiguration;
         if (previousConfiguration instanceof IntsPieceConfiguration previousConfigurationImpl) {
             newConfiguration = new IntsPieceConfiguration(previousConfigurationImpl);
         } else if (previousConfiguration instanceof LongsPieceConfiguration previousConfigurationImpl) {
             newConfiguration = new LongsPieceConfiguration(previousConfigurationImpl);
+        } else if (previousConfiguration instanceof CompactPieceConfiguration previousConfigurationImpl) {
+            newConfiguration = new CompactPieceConfiguration(previousConfigurationImpl);
         } else {
             throw new IllegalArgumentException("Input PieceConfiguration was not a usable implementation");
         }
         return newConfiguration;
     }
 
+    /**
+     * @return A 64-bit hash of the pieces, turn side, castle positions and en passant square,
+     * which is kept up to date incrementally as moves are applied
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Calculates the Zobrist key from scratch, for use once the pieces and auxiliary data have been set directly
+     */
+    public void initialiseZobristKey() {
+        long key = ZobristKeys.getAuxiliaryKey(auxiliaryData);
+        for(int position : Position.POSITIONS) {
+            final int pieceAndColourFlags = getPieceAndColourFlags(position);
+            if (pieceAndColourFlags != 0) {
+                key ^= ZobristKeys.getPieceKey(pieceAndColourFlags | position);
+            }
+        }
+        zobristKey = key;
+    }
+
     public int getTurnSide() {
         return auxiliaryData & 1;
     }
@@ -439,48 +648,45 @@ public abstract class PieceConfiguration {
         auxiliaryData = overwriteBits(auxiliaryData, 0b11111110000000000000000000000000, pos | negativeBit);
     }
 
-    protected void setCheckNonBlockerFlags(int kingPositionBitFlag, int kingPositionDirectionalFlags) {
-        // The king is only checked from one direction
-        int currentPosition = kingPositionBitFlag;
-        int nextPositionIndex = Position.applyTranslationTowardsThreat(kingPositionDirectionalFlags, currentPosition);
-
-        while(nextPositionIndex >= 0 && !BitUtil.hasBitFlag(getPieceAtPosition(currentPosition), OPPONENT_OCCUPIED)) {
-            setDoesNotBlockCheck(nextPositionIndex);
-            currentPosition = nextPositionIndex;
-            nextPositionIndex = Position.applyTranslationTowardsThreat(kingPositionDirectionalFlags, currentPosition);
-        }
-
-        if (kingPositionDirectionalFlags == DIRECTION_ANY_KNIGHT) {
-            // The king is checked only by a knight
-            for(int[] directionalLimit : Knight.getDirectionalLimits()) {
-                int possibleCheckingKnightPosition = Position.applyTranslation(currentPosition, directionalLimit[0], directionalLimit[1]);
-                if (possibleCheckingKnightPosition >= 0
-                    && isOpponentKnightOccupied(possibleCheckingKnightPosition)) {
-                    // Stamp the checking knight's position so it becomes a movable position
-                    setDoesNotBlockCheck(possibleCheckingKnightPosition);
-                    break;
-                }
-            }
-        }
-    }
-
     public String toString() {
         return FENWriter.write(this);
     }
 
+    /**
+     * @return A new array of the moves which led to this configuration, or null when the moves aren't being recorded
+     */
     public short[] getHistoricMoves() {
-        return historicMoves;
+        return moveHistory == null ? null : moveHistory.toArray();
     }
 
     public void setHistoricMoves(short[] historicMoves) {
-        this.historicMoves = historicMoves;
+        setMoveHistory(historicMoves == null ? null : MoveHistory.of(historicMoves));
+    }
+
+    public MoveHistory getMoveHistory() {
+        return moveHistory;
+    }
+
+    public void setMoveHistory(MoveHistory moveHistory) {
+        this.moveHistory = moveHistory;
+        isMoveHistoryOverwritable = false;
     }
 
     public void addHistoricMove(PieceConfiguration previousConfiguration, short newMove) {
-        if (previousConfiguration.getHistoricMoves() != null) {
-            historicMoves = new short[previousConfiguration.getHistoricMoves().length + 1];
-            System.arraycopy(previousConfiguration.getHistoricMoves(), 0, historicMoves, 0, previousConfiguration.getHistoricMoves().length);
-            historicMoves[historicMoves.length - 1] = newMove;
+        if (previousConfiguration.moveHistory != null) {
+            setMoveHistory(previousConfiguration.moveHistory.append(newMove));
+        }
+    }
+
+    private void overwriteHistoricMoves(PieceConfiguration previousConfiguration, short newMove) {
+        final MoveHistory previousMoveHistory = previousConfiguration.moveHistory;
+        if (previousMoveHistory == null) {
+            setMoveHistory(null);
+        } else if (isMoveHistoryOverwritable) {
+            moveHistory.overwrite(previousMoveHistory, newMove);
+        } else {
+            moveHistory = previousMoveHistory.append(newMove);
+            isMoveHistoryOverwritable = true;
         }
     }
 
@@ -491,12 +697,4 @@ public abstract class PieceConfiguration {
     void setAuxiliaryData(int auxiliaryData) {
         this.auxiliaryData = auxiliaryData;
     }
-
-    public PieceConfiguration getParentConfiguration() {
-        return parentConfiguration;
-    }
-
-    public void setParentConfiguration(PieceConfiguration parentConfiguration) {
-        this.parentConfiguration = parentConfiguration;
-    }
 }
@@ -0,0 +1,281 @@
+package chess.api.configuration;
+
+import chess.api.pieces.Piece;
+
+import static chess.api.configuration.PieceConfiguration.ALL_PIECE_FLAGS_COMBINED;
+import static chess.api.configuration.PieceConfiguration.MAX_MOVE_COUNT;
+import static chess.api.pieces.Piece.FAST_VALUE_ARRAY;
+import static chess.api.pieces.Piece.MAX_PIECE_MOVE_COUNT;
+
+/**
+ * This class hands out a configuration's moves one at a time, in stages which are each generated only once
+ * the previous stage has been used up:
+ * the hash move, then captures ordered by most valuable victim and least valuable attacker,
+ * then promotions, then killer moves and the counter move, then the remaining quiet moves,
+ * which are ordered by history score when the generator has been given history scores.
+ * A search which stops after the first few moves therefore doesn't pay for generating the quiet moves.
+ * A quiescence search can ask for the captures and promotions alone, which ends the moves after the promotion stage.
+ * One instance can be reused for many configurations, such as one instance for each ply of a search.
+ */
+public class StagedMoveGenerator {
+
+    // No move goes from a position to the same position, so zero can mark the absence of a move
+    public static final short NO_MOVE = 0;
+
+    static final int HASH_MOVE_STAGE = 0;
+
+    static final int CAPTURE_STAGE = 1;
+
+    static final int PROMOTION_STAGE = 2;
+
+    static final int KILLER_STAGE = 3;
+
+    static final int QUIET_STAGE = 4;
+
+    static final int FINISHED_STAGE = 5;
+
+    private final short[] moves = new short[MAX_MOVE_COUNT];
+
+    private final int[] moveScores = new int[MAX_MOVE_COUNT];
+
+    private final short[] pieceMoves = new short[MAX_PIECE_MOVE_COUNT];
+
+    private PieceConfiguration pieceConfiguration;
+
+    private short hashMove;
+
+    private short firstKillerMove;
+
+    private short secondKillerMove;
+
+    private short counterMove;
+
+    // Scores indexed by a move's from and to positions, or null to leave the quiet moves in the order generated
+    private int[] historyScores;
+
+    private int stage = FINISHED_STAGE;
+
+    // The stage after which no more moves are handed out
+    private int lastStage = QUIET_STAGE;
+
+    private int moveCount;
+
+    private int moveIndex;
+
+    /**
+     * Starts handing out the moves of the given configuration
+     * @param hashMove A move to try first, or NO_MOVE
+     * @param firstKillerMove A quiet move to try before the other quiet moves, or NO_MOVE
+     * @param secondKillerMove A quiet move to try after the first killer move, or NO_MOVE
+     */
+    public void reset(PieceConfiguration pieceConfiguration, short hashMove, short firstKillerMove,
+                      short secondKillerMove) {
+        reset(pieceConfiguration, hashMove, firstKillerMove, secondKillerMove, NO_MOVE);
+    }
+
+    /**
+     * Starts handing out the moves of the given configuration
+     * @param counterMove A quiet move to try after the killer moves, or NO_MOVE
+     */
+    public void reset(PieceConfiguration pieceConfiguration, short hashMove, short firstKillerMove,
+                      short secondKillerMove, short counterMove) {
+        this.pieceConfiguration = pieceConfiguration;
+        this.hashMove = hashMove;
+        this.firstKillerMove = firstKillerMove;
+        this.secondKillerMove = secondKillerMove;
+        this.counterMove = counterMove;
+        stage = HASH_MOVE_STAGE;
+        lastStage = QUIET_STAGE;
+        moveCount = 0;
+        moveIndex = 0;
+    }
+
+    /**
+     * Starts handing out only the captures and promotions of the given configuration, in the order of their stages
+     */
+    public void resetCapturesAndPromotions(PieceConfiguration pieceConfiguration) {
+        reset(pieceConfiguration, NO_MOVE, NO_MOVE, NO_MOVE);
+        stage = CAPTURE_STAGE;
+        lastStage = PROMOTION_STAGE;
+        moveCount = -1;
+    }
+
+    /**
+     * Orders the quiet moves of every configuration from now on by the given scores, highest first
+     * @param historyScores Scores indexed by a move's from and to positions, or null to leave the quiet moves unordered
+     */
+    public void setHistoryScores(int[] historyScores) {
+        this.historyScores = historyScores;
+    }
+
+    /**
+     * @return The next move, or NO_MOVE once every move has been handed out
+     */
+    public short nextMove() {
+        while (true) {
+            switch (stage) {
+                case HASH_MOVE_STAGE -> {
+                    advanceStage();
+                    if (hashMove != NO_MOVE && isAvailable(hashMove)) {
+                        return hashMove;
+                    }
+                }
+                case CAPTURE_STAGE, PROMOTION_STAGE, QUIET_STAGE -> {
+                    if (moveCount < 0) {
+                        generateStageMoves();
+                    }
+                    while (moveIndex < moveCount) {
+                        final short move = moves[moveIndex++];
+                        if (move != hashMove && (stage != QUIET_STAGE || !isKillerMove(move))) {
+                            return move;
+                        }
+                    }
+                    advanceStage();
+                }
+                case KILLER_STAGE -> {
+                    if (moveIndex == 3) {
+                        advanceStage();
+                        continue;
+                    }
+                    final int killerIndex = moveIndex++;
+                    final short killerMove = getKillerMove(killerIndex);
+                    if (isUsableKillerMove(killerMove) && !isRepeatedKillerMove(killerMove, killerIndex)) {
+                        return killerMove;
+                    }
+                }
+                default -> {
+                    return NO_MOVE;
+                }
+            }
+        }
+    }
+
+    int getStage() {
+        return stage;
+    }
+
+    private void advanceStage() {
+        stage = stage == lastStage ? FINISHED_STAGE : stage + 1;
+        moveIndex = 0;
+        // The moves of the next stage aren't generated until they are asked for
+        moveCount = -1;
+    }
+
+    private void generateStageMoves() {
+        switch (stage) {
+            case CAPTURE_STAGE -> {
+                moveCount = pieceConfiguration.generateCaptures(moves);
+                orderCaptures();
+            }
+            case PROMOTION_STAGE -> {
+                moveCount = pieceConfiguration.generatePromotions(moves);
+                orderPromotions();
+            }
+            default -> {
+                moveCount = pieceConfiguration.generateQuietMoves(moves);
+                orderQuietMoves();
+            }
+        }
+    }
+
+    /**
+     * Sorts the captures by the value of the taken piece, then by the value of the taking piece ascending
+     */
+    private void orderCaptures() {
+        for(int i = 0; i < moveCount; i++) {
+            final short move = moves[i];
+            final int fromPos = (move & 0b0000111111000000) >> 6;
+            final int toPos = move & 0b0000000000111111;
+            final int takenPieceFlag = pieceConfiguration.getPieceAndColourFlags(toPos) & ALL_PIECE_FLAGS_COMBINED;
+            // A capture onto an empty position is en passant, which takes a pawn
+            final int takenValue = takenPieceFlag == 0 ? 1 : FAST_VALUE_ARRAY[takenPieceFlag >> 11];
+            final int takingValue = FAST_VALUE_ARRAY[
+                (pieceConfiguration.getPieceAndColourFlags(fromPos) & ALL_PIECE_FLAGS_COMBINED) >> 11];
+            moveScores[i] = ((takenValue + getPromotionValue(move)) << 4) - takingValue;
+        }
+        sortByScore();
+    }
+
+    private void orderPromotions() {
+        for(int i = 0; i < moveCount; i++) {
+            moveScores[i] = getPromotionValue(moves[i]);
+        }
+        sortByScore();
+    }
+
+    private void orderQuietMoves() {
+        if (historyScores == null) {
+            return;
+        }
+        for(int i = 0; i < moveCount; i++) {
+            moveScores[i] = historyScores[moves[i] & 0b0000111111111111];
+        }
+        sortByScore();
+    }
+
+    /**
+     * Stable insertion sort, highest score first, as a stage rarely has more than a few dozen moves to sort
+     */
+    private void sortByScore() {
+        for(int i = 1; i < moveCount; i++) {
+            final short move = moves[i];
+            final int score = moveScores[i];
+            int j = i - 1;
+            while (j >= 0 && moveScores[j] < score) {
+                moves[j + 1] = moves[j];
+                moveScores[j + 1] = moveScores[j];
+                j--;
+            }
+            moves[j + 1] = move;
+            moveScores[j + 1] = score;
+        }
+    }
+
+    private boolean isKillerMove(short move) {
+        return move == firstKillerMove || move == secondKillerMove || move == counterMove;
+    }
+
+    private short getKillerMove(int killerIndex) {
+        return switch (killerIndex) {
+            case 0 -> firstKillerMove;
+            case 1 -> secondKillerMove;
+            default -> counterMove;
+        };
+    }
+
+    // A killer move which was already handed out as an earlier killer move isn't handed out again
+    private boolean isRepeatedKillerMove(short killerMove, int killerIndex) {
+        return (killerIndex > 0 && killerMove == firstKillerMove) || (killerIndex > 1 && killerMove == secondKillerMove);
+    }
+
+    private boolean isUsableKillerMove(short killerMove) {
+        return killerMove != NO_MOVE
+            && killerMove != hashMove
+            && (killerMove & 0b1111000000000000) == 0
+            && !pieceConfiguration.isCapture(killerMove)
+            && isAvailable(killerMove);
+    }
+
+    /**
+     * @return Whether the move, which may come from another configuration, is one of this configuration's moves
+     */
+    private boolean isAvailable(short move) {
+        pieceConfiguration.setHigherBitFlags();
+        final int fromPos = (move & 0b0000111111000000) >> 6;
+        if (!pieceConfiguration.isPlayerOccupied(fromPos)) {
+            return false;
+        }
+        final int pieceMoveCount = Piece.generateMoves(pieceConfiguration.getPieceAndColourWithPosition(fromPos),
+            pieceConfiguration, pieceMoves, 0);
+        for(int i = 0; i < pieceMoveCount; i++) {
+            if (pieceMoves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int getPromotionValue(short move) {
+        return FAST_VALUE_ARRAY[(move & 0b1111000000000000) >>> 12];
+    }
+}
@@ -0,0 +1,66 @@
+package chess.api.configuration;
+
+import java.util.SplittableRandom;
+
+import static chess.api.configuration.PieceConfiguration.ALL_PIECE_FLAGS_COMBINED;
+import static chess.api.configuration.PieceConfiguration.BLACK_OCCUPIED;
+
+/**
+ * This class holds the random 64-bit numbers which are combined with XOR to make a PieceConfiguration's Zobrist key.
+ * There is one number for each piece type and colour on each position, one for black to move,
+ * one for each combination of castle positions and one for each possible en passant square.
+ * The half move clock and full move number are not part of the key.
+ */
+public class ZobristKeys {
+
+    private static final long SEED = 0x2F0B1E5A7C3D9146L;
+
+    // Indexed by ((side * 6) + piece type index) * 64 + position
+    private static final long[] PIECE_KEYS = new long[2 * 6 * 64];
+
+    private static final long BLACK_TURN_KEY;
+
+    private static final long[] CASTLE_KEYS = new long[16];
+
+    private static final long[] EN_PASSANT_KEYS = new long[64];
+
+    static {
+        final SplittableRandom random = new SplittableRandom(SEED);
+        for(int i = 0; i < PIECE_KEYS.length; i++) {
+            PIECE_KEYS[i] = random.nextLong();
+        }
+        BLACK_TURN_KEY = random.nextLong();
+        // No castle positions available contributes nothing to the key
+        for(int i = 1; i < CASTLE_KEYS.length; i++) {
+            CASTLE_KEYS[i] = random.nextLong();
+        }
+        for(int i = 0; i < EN_PASSANT_KEYS.length; i++) {
+            EN_PASSANT_KEYS[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * @param pieceBitFlag A number holding piece type, colour and position flags
+     */
+    public static long getPieceKey(int pieceBitFlag) {
+        final int side = (pieceBitFlag & BLACK_OCCUPIED) >> 9;
+        final int pieceTypeIndex = Integer.numberOfTrailingZeros(pieceBitFlag & ALL_PIECE_FLAGS_COMBINED) - 10;
+        return PIECE_KEYS[(((side * 6) + pieceTypeIndex) << 6) | (pieceBitFlag & 63)];
+    }
+
+    /**
+     * @param auxiliaryData A PieceConfiguration's auxiliary data, from which the turn side,
+     * castle positions and en passant square contribute to the key
+     */
+    public static long getAuxiliaryKey(int auxiliaryData) {
+        long key = CASTLE_KEYS[(auxiliaryData >> 1) & 0b1111];
+        if ((auxiliaryData & 1) != 0) {
+            key ^= BLACK_TURN_KEY;
+        }
+        if (auxiliaryData >= 0) {
+            // The en passant square is set
+            key ^= EN_PASSANT_KEYS[(auxiliaryData >> 25) & 0b111111];
+        }
+        return key;
+    }
+}
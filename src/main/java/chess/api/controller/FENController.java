@@ -20,6 +20,7 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import static chess.api.ai.openings.OpeningBook.getOpeningResponse;
+import static chess.api.ai.ConcurrentPositionEvaluator.getBestMoveIteratively;
 import static chess.api.ai.ConcurrentPositionEvaluator.getBestMoveRecursively;
 import static chess.api.configuration.PieceConfiguration.toNewConfigurationFromMove;
 
@@ -37,18 +38,22 @@ public class FENController {
         try {
             LOGGER.debug("FEN: {}", aiMoveRequestDto.getFen());
             LOGGER.debug("Depth: {}", aiMoveRequestDto.getDepth());
+            LOGGER.debug("Move time: {}ms", aiMoveRequestDto.getMoveTimeMillis());
             final PieceConfiguration inputConfiguration = getInputConfiguration(aiMoveRequestDto);
 
             PieceConfiguration outputConfiguration = getOpeningResponse(inputConfiguration);
             if (outputConfiguration == null) {
-                outputConfiguration = getBestMoveRecursively(inputConfiguration, aiMoveRequestDto.getDepth());
+                final Long moveTimeMillis = aiMoveRequestDto.getMoveTimeMillis();
+                outputConfiguration = moveTimeMillis == null
+                    ? getBestMoveRecursively(inputConfiguration, aiMoveRequestDto.getDepth())
+                    : getBestMoveIteratively(inputConfiguration, aiMoveRequestDto.getDepth(), moveTimeMillis);
             } else {
                 Thread.sleep(250); // Wait a bit to simulate some thinking time
             }
 
             if (outputConfiguration != null) {
                 final String outputFEN = FENWriter.write(outputConfiguration);
-                if (outputConfiguration.getOnwardConfigurations().isEmpty() || outputConfiguration.isDraw(true)) {
+                if (!outputConfiguration.hasAnyLegalMove() || outputConfiguration.isDraw(true)) {
                     setAndLogGameEnd(response, outputConfiguration);
                 }
                 response.setFen(outputFEN);
@@ -102,17 +107,12 @@ public class FENController {
         if (moveHistory == null) {
             return FENReader.read(aiMoveRequestDto.getFen(), CONFIGURATION_CLASS);
         }
-        final List<Short> historicMoveList = moveHistory.stream().map(MoveDescriber::getMoveFromAlgebraicNotation).toList();
-        final short[] historicMoves = new short[historicMoveList.size()];
         PieceConfiguration pieceConfiguration = FENReader.read(FENWriter.STARTING_POSITION, CONFIGURATION_CLASS);
-        for(int index = 0; index < historicMoves.length; index++) {
-            final short move = historicMoveList.get(index);
-            historicMoves[index] = move;
-            final PieceConfiguration subsequentConfiguration = toNewConfigurationFromMove(pieceConfiguration, move);
-            subsequentConfiguration.setParentConfiguration(pieceConfiguration);
-            pieceConfiguration = subsequentConfiguration;
+        for(String algebraicNotation : moveHistory) {
+            // The new configuration extends the move history and records the Zobrist keys of the earlier positions
+            pieceConfiguration = toNewConfigurationFromMove(
+                pieceConfiguration, MoveDescriber.getMoveFromAlgebraicNotation(algebraicNotation));
         }
-        pieceConfiguration.setHistoricMoves(historicMoves);
         return pieceConfiguration;
     }
 
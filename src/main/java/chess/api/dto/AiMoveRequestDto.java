@@ -3,6 +3,7 @@ package chess.api.dto;
 import chess.api.validation.AiMoveRequestValidation;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
 
 import java.util.List;
 
@@ -13,6 +14,10 @@ public class AiMoveRequestDto extends FENRequestDto{
 
     private int depth;
 
+    // When set, the search deepens one level at a time until it runs out of time, with depth as the maximum
+    @Positive(message = "moveTimeMillis must be positive")
+    private Long moveTimeMillis;
+
     private List<@NotNull @Pattern(
         regexp = ALGEBRAIC_NOTATION_REGEX,
         message = "moveHistory is invalid"
@@ -28,6 +33,14 @@ public class AiMoveRequestDto extends FENRequestDto{
         this.depth = depth;
     }
 
+    public Long getMoveTimeMillis() {
+        return moveTimeMillis;
+    }
+
+    public void setMoveTimeMillis(Long moveTimeMillis) {
+        this.moveTimeMillis = moveTimeMillis;
+    }
+
     public List<String> getMoveHistory() {
         return moveHistory;
     }
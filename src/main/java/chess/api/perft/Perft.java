@@ -0,0 +1,156 @@
+package chess.api.perft;
+
+import chess.api.MoveDescriber;
+import chess.api.configuration.LongsPieceConfiguration;
+import chess.api.configuration.PieceConfiguration;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import static chess.api.configuration.PieceConfiguration.MAX_MOVE_COUNT;
+import static chess.api.configuration.PieceConfiguration.toNewConfigurationFromMove;
+
+/**
+ * This class counts the leaf nodes of the move tree to a given depth, for checking move generation against
+ * published node counts and for measuring its throughput.
+ * The moves at the last ply are counted in bulk rather than played.
+ * LongsPieceConfiguration trees are walked with make and unmake, while other implementations create a
+ * configuration for every move.
+ */
+public class Perft {
+
+    public static long perft(PieceConfiguration pieceConfiguration, int depth) {
+        return perft(pieceConfiguration, depth, null);
+    }
+
+    /**
+     * @param hashTable A table of subtree node counts to share between transpositions, or null to count every subtree
+     */
+    public static long perft(PieceConfiguration pieceConfiguration, int depth, PerftHashTable hashTable) {
+        if (depth <= 0) {
+            return 1;
+        }
+        if (pieceConfiguration instanceof LongsPieceConfiguration longsPieceConfiguration) {
+            // Copy the configuration so that the caller's higher bit flags are left untouched
+            return perftInPlace(new LongsPieceConfiguration(longsPieceConfiguration), depth,
+                new short[depth][MAX_MOVE_COUNT], hashTable);
+        }
+        return perftByCopying(pieceConfiguration, depth, new short[depth][MAX_MOVE_COUNT], hashTable);
+    }
+
+    /**
+     * Counts the subtree of each root move as a separate ForkJoin task
+     */
+    public static long perftConcurrently(PieceConfiguration pieceConfiguration, int depth, PerftHashTable hashTable) {
+        if (depth <= 1) {
+            return perft(pieceConfiguration, depth, hashTable);
+        }
+        long nodeCount = 0;
+        for(long rootMoveNodeCount : divideConcurrently(pieceConfiguration, depth, hashTable).values()) {
+            nodeCount += rootMoveNodeCount;
+        }
+        return nodeCount;
+    }
+
+    /**
+     * @return The node count below each root move, keyed by the move's algebraic notation in generation order
+     */
+    public static Map<String, Long> divide(PieceConfiguration pieceConfiguration, int depth, PerftHashTable hashTable) {
+        final short[] moves = new short[MAX_MOVE_COUNT];
+        final int moveCount = pieceConfiguration.generateMoves(moves);
+        final Map<String, Long> nodeCounts = new LinkedHashMap<>();
+        for(int i = 0; i < moveCount; i++) {
+            final PieceConfiguration onwardConfiguration = toNewConfigurationFromMove(pieceConfiguration, moves[i]);
+            nodeCounts.put(MoveDescriber.getAlgebraicNotation(moves[i]), perft(onwardConfiguration, depth - 1, hashTable));
+        }
+        return nodeCounts;
+    }
+
+    /**
+     * Counts the same as divide, with the subtree of each root move counted as a separate ForkJoin task
+     */
+    public static Map<String, Long> divideConcurrently(PieceConfiguration pieceConfiguration, int depth,
+                                                       PerftHashTable hashTable) {
+        final short[] moves = new short[MAX_MOVE_COUNT];
+        final int moveCount = pieceConfiguration.generateMoves(moves);
+        final List<RecursiveTask<Long>> tasks = new ArrayList<>(moveCount);
+        for(int i = 0; i < moveCount; i++) {
+            final PieceConfiguration onwardConfiguration = toNewConfigurationFromMove(pieceConfiguration, moves[i]);
+            tasks.add(new RecursiveTask<>() {
+                @Override
+                protected Long compute() {
+                    return perft(onwardConfiguration, depth - 1, hashTable);
+                }
+            });
+        }
+        ForkJoinPool.commonPool().invoke(new RecursiveTask<Void>() {
+            @Override
+            protected Void compute() {
+                ForkJoinTask.invokeAll(tasks);
+                return null;
+            }
+        });
+        final Map<String, Long> nodeCounts = new LinkedHashMap<>();
+        for(int i = 0; i < moveCount; i++) {
+            nodeCounts.put(MoveDescriber.getAlgebraicNotation(moves[i]), tasks.get(i).join());
+        }
+        return nodeCounts;
+    }
+
+    private static long perftInPlace(LongsPieceConfiguration pieceConfiguration, int depth, short[][] moveBuffers,
+                                     PerftHashTable hashTable) {
+        final short[] moves = moveBuffers[depth - 1];
+        if (depth == 1) {
+            // Bulk counting: the moves at the last ply don't need to be played
+            return pieceConfiguration.generateMoves(moves);
+        }
+        final long zobristKey = pieceConfiguration.getZobristKey();
+        if (hashTable != null) {
+            final long storedNodeCount = hashTable.get(zobristKey, depth);
+            if (storedNodeCount >= 0) {
+                return storedNodeCount;
+            }
+        }
+        final int moveCount = pieceConfiguration.generateMoves(moves);
+        long nodeCount = 0;
+        for(int i = 0; i < moveCount; i++) {
+            pieceConfiguration.makeMove(moves[i]);
+            nodeCount += perftInPlace(pieceConfiguration, depth - 1, moveBuffers, hashTable);
+            pieceConfiguration.unmakeMove();
+        }
+        if (hashTable != null) {
+            hashTable.put(zobristKey, depth, nodeCount);
+        }
+        return nodeCount;
+    }
+
+    private static long perftByCopying(PieceConfiguration pieceConfiguration, int depth, short[][] moveBuffers,
+                                       PerftHashTable hashTable) {
+        final short[] moves = moveBuffers[depth - 1];
+        if (depth == 1) {
+            return pieceConfiguration.generateMoves(moves);
+        }
+        final long zobristKey = pieceConfiguration.getZobristKey();
+        if (hashTable != null) {
+            final long storedNodeCount = hashTable.get(zobristKey, depth);
+            if (storedNodeCount >= 0) {
+                return storedNodeCount;
+            }
+        }
+        final int moveCount = pieceConfiguration.generateMoves(moves);
+        long nodeCount = 0;
+        for(int i = 0; i < moveCount; i++) {
+            final PieceConfiguration onwardConfiguration = toNewConfigurationFromMove(pieceConfiguration, moves[i]);
+            nodeCount += perftByCopying(onwardConfiguration, depth - 1, moveBuffers, hashTable);
+        }
+        if (hashTable != null) {
+            hashTable.put(zobristKey, depth, nodeCount);
+        }
+        return nodeCount;
+    }
+}
@@ -0,0 +1,61 @@
+package chess.api.perft;
+
+import static java.lang.String.format;
+
+/**
+ * This class caches perft node counts by Zobrist key and depth, so that transposed subtrees are only counted once.
+ * Each entry occupies two adjacent longs: the key combined with the data using XOR, followed by the data itself.
+ * An entry torn by concurrent writers fails the key check on reading, so the table needs no locking.
+ */
+public class PerftHashTable {
+
+    private static final int BYTES_PER_ENTRY = 16;
+
+    // Each entry takes two elements of the array, which can hold no more than 2^31 - 1
+    private static final int MAX_ENTRY_COUNT = 1 << 29;
+
+    static final int MAX_SIZE_IN_MEGABYTES = (int) (((long) MAX_ENTRY_COUNT * BYTES_PER_ENTRY) >> 20);
+
+    private static final int DEPTH_BITS = 8;
+
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+
+    private final long[] entries;
+
+    private final int indexMask;
+
+    /**
+     * @param sizeInMegabytes The approximate memory to use, which is rounded down to a power-of-two number of entries
+     */
+    public PerftHashTable(int sizeInMegabytes) {
+        if (sizeInMegabytes < 1) {
+            throw new IllegalArgumentException("Perft hash table size must be at least one megabyte");
+        }
+        if (sizeInMegabytes > MAX_SIZE_IN_MEGABYTES) {
+            throw new IllegalArgumentException(
+                format("Perft hash table size must be at most %d megabytes", MAX_SIZE_IN_MEGABYTES));
+        }
+        final int entryCount = Integer.highestOneBit((int) (((long) sizeInMegabytes << 20) / BYTES_PER_ENTRY));
+        entries = new long[entryCount << 1];
+        indexMask = entryCount - 1;
+    }
+
+    /**
+     * @return The node count stored for the key and depth, or -1 if there is none
+     */
+    public long get(long zobristKey, int depth) {
+        final int index = ((int) zobristKey & indexMask) << 1;
+        final long data = entries[index + 1];
+        if ((entries[index] ^ data) == zobristKey && (data & DEPTH_MASK) == depth) {
+            return data >>> DEPTH_BITS;
+        }
+        return -1;
+    }
+
+    public void put(long zobristKey, int depth, long nodeCount) {
+        final int index = ((int) zobristKey & indexMask) << 1;
+        final long data = (nodeCount << DEPTH_BITS) | depth;
+        entries[index] = zobristKey ^ data;
+        entries[index + 1] = data;
+    }
+}
@@ -0,0 +1,86 @@
+package chess.api.perft;
+
+import chess.api.FENReader;
+import chess.api.FENWriter;
+import chess.api.configuration.CompactPieceConfiguration;
+import chess.api.configuration.IntsPieceConfiguration;
+import chess.api.configuration.LongsPieceConfiguration;
+import chess.api.configuration.PieceConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Command line entry point for Perft.
+ * Usage: PerftRunner depth [fen] [--divide] [--hash=megabytes] [--serial] [--ints] [--compact]
+ * The position defaults to the starting position, and the root moves are split across cores unless --serial is given.
+ */
+public class PerftRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PerftRunner.class);
+
+    public static void main(String[] args) {
+        run(args);
+    }
+
+    /**
+     * @return The total node count
+     */
+    @SuppressWarnings("deprecation")
+    static long run(String[] args) {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Usage: PerftRunner depth [fen] [--divide] [--hash=megabytes] [--serial] [--ints] [--compact]");
+        }
+        final int depth = Integer.parseInt(args[0]);
+        String fen = FENWriter.STARTING_POSITION;
+        boolean isDivide = false;
+        boolean isSerial = false;
+        PerftHashTable hashTable = null;
+        Class<? extends PieceConfiguration> configurationClass = LongsPieceConfiguration.class;
+        for(int i = 1; i < args.length; i++) {
+            final String arg = args[i];
+            if (arg.equals("--divide")) {
+                isDivide = true;
+            } else if (arg.equals("--serial")) {
+                isSerial = true;
+            } else if (arg.equals("--ints")) {
+                configurationClass = IntsPieceConfiguration.class;
+            } else if (arg.equals("--compact")) {
+                configurationClass = CompactPieceConfiguration.class;
+            } else if (arg.startsWith("--hash=")) {
+                hashTable = new PerftHashTable(Integer.parseInt(arg.substring("--hash=".length())));
+            } else if (arg.startsWith("--")) {
+                throw new IllegalArgumentException(format("Unrecognised perft option %s", arg));
+            } else {
+                fen = arg;
+            }
+        }
+        final PieceConfiguration pieceConfiguration = FENReader.read(fen, configurationClass);
+
+        final long startTime = System.nanoTime();
+        final long nodeCount;
+        if (isDivide) {
+            final Map<String, Long> nodeCounts = isSerial
+                ? Perft.divide(pieceConfiguration, depth, hashTable)
+                : Perft.divideConcurrently(pieceConfiguration, depth, hashTable);
+            long totalNodeCount = 0;
+            for(Map.Entry<String, Long> entry : nodeCounts.entrySet()) {
+                LOGGER.info("{}: {}", entry.getKey(), entry.getValue());
+                totalNodeCount += entry.getValue();
+            }
+            nodeCount = totalNodeCount;
+        } else {
+            nodeCount = isSerial
+                ? Perft.perft(pieceConfiguration, depth, hashTable)
+                : Perft.perftConcurrently(pieceConfiguration, depth, hashTable);
+        }
+        final long elapsedNanos = Math.max(System.nanoTime() - startTime, 1);
+        LOGGER.info("Perft {} of {} with {}: {} nodes in {}ms ({} nodes per second)", depth, fen,
+            configurationClass.getSimpleName(), nodeCount, elapsedNanos / 1_000_000,
+            (long) (nodeCount * 1_000_000_000.0 / elapsedNanos));
+        return nodeCount;
+    }
+}
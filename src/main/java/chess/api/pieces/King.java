@@ -1,14 +1,13 @@
 package chess.api.pieces;
 
+import chess.api.configuration.IntsPieceConfiguration;
+import chess.api.configuration.LongsPieceConfiguration;
 import chess.api.configuration.PieceConfiguration;
 import chess.api.Position;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 import static chess.api.MoveDescriber.describeMove;
-import static chess.api.configuration.PieceConfiguration.toNewConfigurationFromMove;
 import static chess.api.Position.isValidPosition;
 
 public class King extends Piece{
@@ -25,8 +24,8 @@ public class King extends Piece{
         return DIRECTIONAL_LIMITS[isOnStartingPosition];
     }
 
-    public static List<PieceConfiguration> getPossibleMoves(int pieceBitFlag, PieceConfiguration currentConfiguration) {
-        List<PieceConfiguration> pieceConfigurations = new ArrayList<>();
+    public static int generateMoves(int pieceBitFlag, PieceConfiguration currentConfiguration,
+                                    short[] buffer, int moveCount) {
         for(int[] directionalLimit : getMovableDirectionalLimits(pieceBitFlag, currentConfiguration)) {
             int directionX = directionalLimit[0];
             int directionY = directionalLimit[1];
@@ -60,8 +59,7 @@ public class King extends Piece{
                     takenPieceBitFlag = currentConfiguration.getPieceAtPosition(testPosition);
                 }
 
-                final short move = describeMove(pieceBitFlag & 63, testPosition, 0);
-                pieceConfigurations.add(toNewConfigurationFromMove(currentConfiguration, move));
+                buffer[moveCount++] = describeMove(pieceBitFlag & 63, testPosition, 0);
 
                 if (takenPieceBitFlag >= 0) {
                     // Stop considering moves beyond this taken piece
@@ -70,7 +68,38 @@ public class King extends Piece{
                 limit--;
             }
         }
-        return pieceConfigurations;
+        return moveCount;
+    }
+
+    /**
+     * Writes the king's moves using the configuration's threatened data.
+     * The directional limits visit the king's positions in ascending order, with each castle after the position
+     * which the king passes through on the way
+     */
+    public static int generateMaskedMoves(int pieceBitFlag, LongsPieceConfiguration currentConfiguration,
+                                          long targetData, short[] buffer, int moveCount) {
+        final int position = getPosition(pieceBitFlag);
+        final long occupiedData = currentConfiguration.getOccupiedData();
+        long movableData = MagicBitboards.getKingAttacks(position)
+            & ~currentConfiguration.getPlayerOccupiedData()
+            & ~currentConfiguration.getThreatenedData();
+        final boolean isCastlePossible = isOnStartingPosition(pieceBitFlag) && !currentConfiguration.isThreatened(position);
+        while (movableData != 0) {
+            final int testPosition = Long.numberOfTrailingZeros(movableData);
+            movableData &= movableData - 1;
+            if ((targetData & (1L << testPosition)) != 0) {
+                buffer[moveCount++] = describeMove(position, testPosition, 0);
+            }
+
+            if (isCastlePossible && Math.abs(testPosition - position) == 1 && (occupiedData & (1L << testPosition)) == 0) {
+                final int castlePosition = (testPosition << 1) - position;
+                if (((occupiedData | currentConfiguration.getThreatenedData() | ~targetData) & (1L << castlePosition)) == 0
+                    && isLegalCastle(pieceBitFlag, currentConfiguration, castlePosition)) {
+                    buffer[moveCount++] = describeMove(position, castlePosition, 0);
+                }
+            }
+        }
+        return moveCount;
     }
 
     protected static int[][] getMovableDirectionalLimits(int pieceBitFlag, PieceConfiguration currentConfiguration) {
@@ -91,7 +120,8 @@ public class King extends Piece{
             && !currentConfiguration.isOpponentOccupied(testPosition - 1)));
     }
 
-    public static void stampThreatFlags(int pieceBitFlag, PieceConfiguration pieceConfiguration) {
+    @SuppressWarnings("deprecation")
+    public static void stampThreatFlags(int pieceBitFlag, IntsPieceConfiguration pieceConfiguration) {
         for(int[] directionalLimit : getDirectionalLimits(pieceBitFlag)) {
             // Limit is always 1 for the king (castling positions can't be threatened by the king)
             int testPosition = Position.applyTranslation(Position.getPosition(pieceBitFlag),
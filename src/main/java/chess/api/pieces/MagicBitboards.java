@@ -0,0 +1,231 @@
+package chess.api.pieces;
+
+/**
+ * This class holds precomputed attack tables, with those for sliding pieces indexed using magic multiplication.
+ * Each bit of the 64-bit numbers corresponds to a board position, starting from a1 as the least-significant bit,
+ * matching the layout used by LongsPieceConfiguration.
+ * A sliding piece's attack set for a given board occupancy is found with a single table lookup.
+ */
+public class MagicBitboards {
+
+    private static final int[][] ROOK_DIRECTIONS = {{0, -1}, {-1, 0}, {1, 0}, {0, 1}};
+
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {1, -1}, {-1, 1}, {1, 1}};
+
+    static final long NOT_FILE_A = 0xFEFEFEFEFEFEFEFEL;
+
+    static final long NOT_FILE_H = 0x7F7F7F7F7F7F7F7FL;
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+
+    private static final long[] KING_ATTACKS = new long[64];
+
+    private static final long[] ROOK_MASKS = new long[64];
+
+    private static final long[] BISHOP_MASKS = new long[64];
+
+    // Magic multipliers found by a seeded random search, which produce no destructive index collisions
+    private static final long[] ROOK_MAGICS = {
+        0x0080004000802018L, 0x5040004010002000L, 0x0100200010084102L, 0x3100081000050020L,
+        0x0700050008001082L, 0x2480140002008031L, 0x0400281209008410L, 0xA10004820149A100L,
+        0x0000800020804010L, 0x0000804000802000L, 0x0001001100402000L, 0x0860800800100080L,
+        0x8021000800050010L, 0x8641808052000400L, 0xB121000402000100L, 0x0401001040810012L,
+        0x0080004000200040L, 0x0001050028400082L, 0x4880410020061100L, 0x040221001001000AL,
+        0x0004008004080081L, 0x100A010100040008L, 0x0420040048010210L, 0x0050060000804904L,
+        0x0040005880008020L, 0x0040400040201000L, 0x0104410900200010L, 0x4082880280100080L,
+        0x8004040080080080L, 0x0108020080800400L, 0x0000420400104801L, 0x000000A20001005CL,
+        0x8020400020801080L, 0x5800200040401000L, 0x0011001049002000L, 0x0000080080801000L,
+        0x100C008008080040L, 0x0100020080800400L, 0x0408020001010004L, 0x0000084902000084L,
+        0x0040014180028020L, 0xC000200040008080L, 0x1000100020008080L, 0x1000401022020008L,
+        0x0284008040080800L, 0x8011000400030018L, 0x8022000408020001L, 0x0100028251020024L,
+        0x0010400080002080L, 0x2110004000201840L, 0x0082100020018680L, 0x0208080080100080L,
+        0x0000110004080100L, 0x0080040080020080L, 0x0482008408010200L, 0xF000840085116200L,
+        0x6200104700228001L, 0x0040190082002042L, 0x800020000A40B103L, 0x0010100100080421L,
+        0x0002010420100802L, 0x0005004204004801L, 0x60010004020010A1L, 0x0000084028850402L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+        0x0020600090810040L, 0x8C02084644014108L, 0x0530510441000009L, 0x6051040081180020L,
+        0x4004042100102000L, 0x0819112030000008L, 0x0004008411084140L, 0x8060402804026022L,
+        0x08426A1810440248L, 0x0080029818010040L, 0x01101210A2020000L, 0x000004104201A100L,
+        0x0118062110110038L, 0x0102C20813180000L, 0x2000A10082212008L, 0x0004230411014810L,
+        0x00204008200400A0L, 0x0014041250125200L, 0x3021080808012280L, 0x002A0C8402120101L,
+        0x601100A690400900L, 0x0018200310101018L, 0x0821020208014408L, 0x0200240212010420L,
+        0x0008054121041000L, 0x0831500004048800L, 0x2817480210008014L, 0x0084010000200880L,
+        0x0003011001004010L, 0xA000840806010421L, 0x8200A08001080840L, 0x0542108400241101L,
+        0x0022021101A02100L, 0x0020907008080210L, 0x0011080204A10400L, 0x0880A02020080080L,
+        0x0120420020020080L, 0x0022500040820800L, 0x0404280200A04110L, 0x0000A40100065100L,
+        0x8108018410012040L, 0x4000809088201000L, 0x020011080102A800L, 0x4008020204240200L,
+        0x0520409812002040L, 0x1002009008808100L, 0x4413920204001200L, 0x0008009A82100180L,
+        0x0134414450400049L, 0x1000210108200003L, 0x0028202412080800L, 0x8380000084040302L,
+        0x020C021022022408L, 0x0008080208220000L, 0x00A0081000908100L, 0x6848210800811400L,
+        0x2040804110012040L, 0x2C0000C402980802L, 0x422010044E109000L, 0x00000004418C0C10L,
+        0x0000800040082200L, 0x0080C91010021820L, 0x0000040890041081L, 0x8040040104010012L
+    };
+
+    private static final int[] ROOK_SHIFTS = new int[64];
+
+    private static final int[] BISHOP_SHIFTS = new int[64];
+
+    private static final long[][] ROOK_ATTACKS = new long[64][];
+
+    private static final long[][] BISHOP_ATTACKS = new long[64][];
+
+    // Indexed by ((directionY + 1) * 3) + directionX + 1, then by position
+    private static final long[][] RAYS = new long[9][64];
+
+    private static final long[][] SQUARES_BETWEEN = new long[64][64];
+
+    private static final long[][] LINES = new long[64][64];
+
+    static {
+        for(int position = 0; position < 64; position++) {
+            ROOK_MASKS[position] = getRelevantOccupancyMask(position, ROOK_DIRECTIONS);
+            BISHOP_MASKS[position] = getRelevantOccupancyMask(position, BISHOP_DIRECTIONS);
+            ROOK_SHIFTS[position] = 64 - Long.bitCount(ROOK_MASKS[position]);
+            BISHOP_SHIFTS[position] = 64 - Long.bitCount(BISHOP_MASKS[position]);
+            ROOK_ATTACKS[position] = new long[1 << Long.bitCount(ROOK_MASKS[position])];
+            BISHOP_ATTACKS[position] = new long[1 << Long.bitCount(BISHOP_MASKS[position])];
+            fillAttackTable(position, ROOK_MASKS[position], ROOK_MAGICS[position], ROOK_SHIFTS[position],
+                ROOK_DIRECTIONS, ROOK_ATTACKS[position]);
+            fillAttackTable(position, BISHOP_MASKS[position], BISHOP_MAGICS[position], BISHOP_SHIFTS[position],
+                BISHOP_DIRECTIONS, BISHOP_ATTACKS[position]);
+        }
+        for(int position = 0; position < 64; position++) {
+            for(int[] directionalLimit : Knight.getDirectionalLimits()) {
+                KNIGHT_ATTACKS[position] |= getSlidingAttacksSlowly(position, -1L, new int[][]{directionalLimit});
+            }
+            KING_ATTACKS[position] = getSlidingAttacksSlowly(position, -1L, ROOK_DIRECTIONS)
+                | getSlidingAttacksSlowly(position, -1L, BISHOP_DIRECTIONS);
+        }
+        for(int directionY = -1; directionY <= 1; directionY++) {
+            for(int directionX = -1; directionX <= 1; directionX++) {
+                if (directionX == 0 && directionY == 0) {
+                    continue;
+                }
+                for(int position = 0; position < 64; position++) {
+                    RAYS[getRayIndex(directionX, directionY)][position] = getSlidingAttacksSlowly(
+                        position, 0L, new int[][]{{directionX, directionY}});
+                }
+            }
+        }
+        for(int from = 0; from < 64; from++) {
+            for(int rayIndex = 0; rayIndex < 9; rayIndex++) {
+                long ray = RAYS[rayIndex][from];
+                final long oppositeRay = RAYS[8 - rayIndex][from];
+                while (ray != 0) {
+                    final int to = Long.numberOfTrailingZeros(ray);
+                    ray &= ray - 1;
+                    SQUARES_BETWEEN[from][to] = RAYS[rayIndex][from] & RAYS[8 - rayIndex][to];
+                    LINES[from][to] = RAYS[rayIndex][from] | oppositeRay | (1L << from);
+                }
+            }
+        }
+    }
+
+    public static long getRookAttacks(int position, long occupancy) {
+        final int index = (int) (((occupancy & ROOK_MASKS[position]) * ROOK_MAGICS[position]) >>> ROOK_SHIFTS[position]);
+        return ROOK_ATTACKS[position][index];
+    }
+
+    public static long getBishopAttacks(int position, long occupancy) {
+        final int index = (int) (((occupancy & BISHOP_MASKS[position]) * BISHOP_MAGICS[position]) >>> BISHOP_SHIFTS[position]);
+        return BISHOP_ATTACKS[position][index];
+    }
+
+    public static long getQueenAttacks(int position, long occupancy) {
+        return getRookAttacks(position, occupancy) | getBishopAttacks(position, occupancy);
+    }
+
+    public static long getKnightAttacks(int position) {
+        return KNIGHT_ATTACKS[position];
+    }
+
+    public static long getKingAttacks(int position) {
+        return KING_ATTACKS[position];
+    }
+
+    /**
+     * @return The squares attacked by all the given pawns of the given side at once
+     */
+    public static long getPawnAttacks(long pawnData, int side) {
+        if (side == 0) {
+            return ((pawnData << 7) & NOT_FILE_H) | ((pawnData << 9) & NOT_FILE_A);
+        }
+        return ((pawnData >>> 9) & NOT_FILE_H) | ((pawnData >>> 7) & NOT_FILE_A);
+    }
+
+    /**
+     * @return The squares reached by travelling from (but not including) the position in the given direction
+     * across an empty board
+     */
+    public static long getRay(int position, int directionX, int directionY) {
+        return RAYS[getRayIndex(directionX, directionY)][position];
+    }
+
+    /**
+     * @return The squares strictly between the two positions if they share a rank, file or diagonal, otherwise zero
+     */
+    public static long getSquaresBetween(int from, int to) {
+        return SQUARES_BETWEEN[from][to];
+    }
+
+    /**
+     * @return The whole rank, file or diagonal passing through both positions, otherwise zero
+     */
+    public static long getLine(int from, int to) {
+        return LINES[from][to];
+    }
+
+    private static int getRayIndex(int directionX, int directionY) {
+        return ((directionY + 1) * 3) + directionX + 1;
+    }
+
+    private static void fillAttackTable(int position, long mask, long magic, int shift, int[][] directions,
+                                        long[] attackTable) {
+        long subset = 0;
+        do {
+            final int index = (int) ((subset * magic) >>> shift);
+            attackTable[index] = getSlidingAttacksSlowly(position, subset, directions);
+            // Carry-rippler trick to enumerate every subset of the mask
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+    }
+
+    private static long getRelevantOccupancyMask(int position, int[][] directions) {
+        long mask = 0;
+        for(int[] direction : directions) {
+            int x = (position & 7) + direction[0];
+            int y = (position >> 3) + direction[1];
+            // The last square in each direction can't block anything beyond it, so it is left out
+            while (isOnBoard(x + direction[0], y + direction[1])) {
+                mask |= 1L << ((y << 3) | x);
+                x += direction[0];
+                y += direction[1];
+            }
+        }
+        return mask;
+    }
+
+    private static long getSlidingAttacksSlowly(int position, long occupancy, int[][] directions) {
+        long attacks = 0;
+        for(int[] direction : directions) {
+            int x = (position & 7) + direction[0];
+            int y = (position >> 3) + direction[1];
+            while (isOnBoard(x, y)) {
+                final long bit = 1L << ((y << 3) | x);
+                attacks |= bit;
+                if ((occupancy & bit) != 0) {
+                    break;
+                }
+                x += direction[0];
+                y += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static boolean isOnBoard(int x, int y) {
+        return ((x | y) & 7) == (x | y);
+    }
+}
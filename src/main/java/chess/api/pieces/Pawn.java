@@ -1,10 +1,10 @@
 package chess.api.pieces;
 
+import chess.api.configuration.IntsPieceConfiguration;
+import chess.api.configuration.LongsPieceConfiguration;
 import chess.api.configuration.PieceConfiguration;
 import chess.api.Position;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 
 import static chess.api.MoveDescriber.describeMove;
@@ -38,6 +38,8 @@ public class Pawn extends Piece{
         {{1, -1, 1}, {0, -1, 2}, {-1, -1, 1}}   //          Forward and both diagonals
     };
 
+    private static final long[] DOUBLE_MOVE_RANK_DATA = {0x0000000000FF0000L, 0x0000FF0000000000L};
+
     public static final Map<Integer, String> PROMOTION_PIECE_TYPES = Map.of(KNIGHT_OCCUPIED, "N", BISHOP_OCCUPIED, "B", ROOK_OCCUPIED, "R", QUEEN_OCCUPIED, "Q");
 
     public static int[][] getUnrestrictedDirectionalLimits(int pieceBitFlag) {
@@ -45,8 +47,8 @@ public class Pawn extends Piece{
         return DIRECTIONAL_LIMITS[index];
     }
 
-    public static List<PieceConfiguration> getPossibleMoves(int pieceBitFlag, PieceConfiguration currentConfiguration) {
-        List<PieceConfiguration> pieceConfigurations = new ArrayList<>();
+    public static int generateMoves(int pieceBitFlag, PieceConfiguration currentConfiguration,
+                                    short[] buffer, int moveCount) {
         final int turnSide = currentConfiguration.getTurnSide();
         for(int[] directionalLimit : getMovableDirectionalLimits(pieceBitFlag, currentConfiguration, turnSide)) {
             int directionX = directionalLimit[0];
@@ -87,7 +89,7 @@ public class Pawn extends Piece{
                     continue;
                 }
 
-                addNewPieceConfigurations(pieceBitFlag, pieceConfigurations, currentConfiguration, testPosition);
+                moveCount = addMoves(pieceBitFlag, testPosition, buffer, moveCount);
 
                 if (takenPieceBitFlag >= 0) {
                     // Stop considering moves beyond this taken piece
@@ -96,10 +98,121 @@ public class Pawn extends Piece{
                 limit--;
             }
         }
-        return pieceConfigurations;
+        return moveCount;
+    }
+
+    /**
+     * Writes the pawn's moves using the configuration's pin and check masks.
+     * White pawns visit their left diagonal first and black pawns their right, matching the directional limits
+     */
+    public static int generateMaskedMoves(int pieceBitFlag, LongsPieceConfiguration currentConfiguration,
+                                          long targetData, short[] buffer, int moveCount) {
+        final int position = getPosition(pieceBitFlag);
+        final int side = getSide(pieceBitFlag);
+        final int forwardPosition = position + 8 - (side << 4);
+        final long movableData = currentConfiguration.getMovableData(position) & targetData;
+        // En passant legality is tested separately, so only the target positions restrict it
+        final long attackData = MagicBitboards.getPawnAttacks(1L << position, side) & targetData;
+        moveCount = addMaskedCaptureMoves(pieceBitFlag, forwardPosition - 1 + (side << 1), attackData, movableData,
+            currentConfiguration, buffer, moveCount);
+
+        final long occupiedData = currentConfiguration.getOccupiedData();
+        if (isValidPosition(forwardPosition) && (occupiedData & (1L << forwardPosition)) == 0) {
+            if ((movableData & (1L << forwardPosition)) != 0) {
+                moveCount = addMoves(pieceBitFlag, forwardPosition, buffer, moveCount);
+            }
+            // Moving two positions can block a check even when moving one position can't
+            final int doubleForwardPosition = forwardPosition + 8 - (side << 4);
+            if (isOnStartingRank(pieceBitFlag)
+                && ((occupiedData | ~movableData) & (1L << doubleForwardPosition)) == 0) {
+                buffer[moveCount++] = describeMove(position, doubleForwardPosition, 0);
+            }
+        }
+
+        return addMaskedCaptureMoves(pieceBitFlag, forwardPosition + 1 - (side << 1), attackData, movableData,
+            currentConfiguration, buffer, moveCount);
+    }
+
+    /**
+     * Writes the moves of all the player's pawns at once, by shifting the pawn data against the occupation data.
+     * Pinned pawns are left to generateMaskedMoves, as their moves depend on the line of the pin
+     */
+    public static int generateSideMoves(LongsPieceConfiguration currentConfiguration, long targetData,
+                                        short[] buffer, int moveCount) {
+        final int side = currentConfiguration.getTurnSide();
+        final int forward = 8 - (side << 4);
+        final long pawnData = currentConfiguration.getPlayerPawnData();
+        final long pinnedPawnData = pawnData & currentConfiguration.getPinnedData();
+        final long freePawnData = pawnData & ~pinnedPawnData;
+        final long checkMaskData = currentConfiguration.getCheckMaskData() & targetData;
+        final long emptyData = ~currentConfiguration.getOccupiedData();
+        final long captureData = currentConfiguration.getOpponentOccupiedData() & checkMaskData;
+
+        moveCount = addSideMoves(shift(freePawnData, forward - 1) & MagicBitboards.NOT_FILE_H & captureData,
+            forward - 1, buffer, moveCount);
+        moveCount = addSideMoves(shift(freePawnData, forward + 1) & MagicBitboards.NOT_FILE_A & captureData,
+            forward + 1, buffer, moveCount);
+        // Moving two positions can block a check even when moving one position can't
+        final long singleMoveData = shift(freePawnData, forward) & emptyData;
+        moveCount = addSideMoves(singleMoveData & checkMaskData, forward, buffer, moveCount);
+        final long doubleMoveData = shift(singleMoveData & DOUBLE_MOVE_RANK_DATA[side], forward)
+            & emptyData & checkMaskData;
+        moveCount = addSideMoves(doubleMoveData, forward << 1, buffer, moveCount);
+
+        final int enPassantSquare = currentConfiguration.getEnPassantSquare();
+        if (enPassantSquare >= 0 && (targetData & (1L << enPassantSquare)) != 0) {
+            // The pawns which could take en passant are those which the en passant square would attack as an opponent pawn
+            long takingPawnData = MagicBitboards.getPawnAttacks(1L << enPassantSquare, side ^ 1) & freePawnData;
+            while (takingPawnData != 0) {
+                final int position = Long.numberOfTrailingZeros(takingPawnData);
+                if (currentConfiguration.isLegalEnPassantCapture(position, enPassantSquare)) {
+                    buffer[moveCount++] = describeMove(position, enPassantSquare, 0);
+                }
+                takingPawnData &= takingPawnData - 1;
+            }
+        }
+
+        long remainingPawnData = pinnedPawnData;
+        while (remainingPawnData != 0) {
+            final int position = Long.numberOfTrailingZeros(remainingPawnData);
+            moveCount = generateMaskedMoves(position | PAWN_OCCUPIED | (WHITE_OCCUPIED << side),
+                currentConfiguration, targetData, buffer, moveCount);
+            remainingPawnData &= remainingPawnData - 1;
+        }
+        return moveCount;
+    }
+
+    private static int addSideMoves(long newPositionData, int translation, short[] buffer, int moveCount) {
+        while (newPositionData != 0) {
+            final int newPiecePosition = Long.numberOfTrailingZeros(newPositionData);
+            moveCount = addMoves(newPiecePosition - translation, newPiecePosition, buffer, moveCount);
+            newPositionData &= newPositionData - 1;
+        }
+        return moveCount;
+    }
+
+    private static long shift(long data, int translation) {
+        return translation > 0 ? data << translation : data >>> -translation;
+    }
+
+    private static int addMaskedCaptureMoves(int pieceBitFlag, int testPosition, long attackData, long movableData,
+                                             LongsPieceConfiguration currentConfiguration,
+                                             short[] buffer, int moveCount) {
+        // The attack data excludes any diagonal which would wrap around the edge of the board or miss the targets
+        final long testData = attackData & (1L << testPosition);
+        if ((testData & currentConfiguration.getOpponentOccupiedData()) != 0) {
+            if ((testData & movableData) != 0) {
+                moveCount = addMoves(pieceBitFlag, testPosition, buffer, moveCount);
+            }
+        } else if (testData != 0 && testPosition == currentConfiguration.getEnPassantSquare()
+            && currentConfiguration.isLegalEnPassantCapture(getPosition(pieceBitFlag), testPosition)) {
+            buffer[moveCount++] = describeMove(pieceBitFlag & 63, testPosition, 0);
+        }
+        return moveCount;
     }
 
-    public static void stampThreatFlags(int pieceBitFlag, PieceConfiguration pieceConfiguration) {
+    @SuppressWarnings("deprecation")
+    public static void stampThreatFlags(int pieceBitFlag, IntsPieceConfiguration pieceConfiguration) {
         final int[] directionalLimitThreatIndexes = {0, 2}; // Pawns can only threaten diagonally
         final int[][] unrestrictedDirectionalLimits = getUnrestrictedDirectionalLimits(pieceBitFlag);
         for(int i : directionalLimitThreatIndexes) {
@@ -139,18 +252,16 @@ public class Pawn extends Piece{
         return moveableDirectionalLimits;
     }
 
-    private static void addNewPieceConfigurations(int pieceBitFlag, List<PieceConfiguration> pieceConfigurations,
-            PieceConfiguration currentConfiguration, int newPiecePosition) {
+    private static int addMoves(int pieceBitFlag, int newPiecePosition, short[] buffer, int moveCount) {
         final int newY = Position.getY(newPiecePosition);
-        short move = describeMove(pieceBitFlag & 63, newPiecePosition, 0);
         if (newY == 7 | newY == 0) {
             for(int i = KNIGHT_OCCUPIED; i <= QUEEN_OCCUPIED; i = i << 1) {
-                move = describeMove(pieceBitFlag & 63, newPiecePosition, i);
-                pieceConfigurations.add(toNewConfigurationFromMove(currentConfiguration, move));
+                buffer[moveCount++] = describeMove(pieceBitFlag & 63, newPiecePosition, i);
             }
         } else {
-            pieceConfigurations.add(toNewConfigurationFromMove(currentConfiguration, move));
+            buffer[moveCount++] = describeMove(pieceBitFlag & 63, newPiecePosition, 0);
         }
+        return moveCount;
     }
 
     private static boolean isOnStartingRank(int pieceBitFlag) {
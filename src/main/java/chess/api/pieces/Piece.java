@@ -1,11 +1,15 @@
 package chess.api.pieces;
 
+import chess.api.configuration.CompactPieceConfiguration;
+import chess.api.configuration.IntsPieceConfiguration;
+import chess.api.configuration.LongsPieceConfiguration;
 import chess.api.configuration.PieceConfiguration;
 import chess.api.Position;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
 
 import static chess.api.configuration.PieceConfiguration.getPieceTypeBitFlag;
@@ -19,6 +23,12 @@ public abstract class Piece {
 
     public static final int[] FAST_VALUE_ARRAY = {0, 3, 3, 0, 5, 0, 0, 0, 9, 0, 0, 0, 0, 0, 0, 0, 1};
 
+    // A queen in the centre of an open board has the most moves of any single piece
+    public static final int MAX_PIECE_MOVE_COUNT = 27;
+
+    // Arrays are keyed by identity, which suits the directional limits constants
+    private static final Map<int[][], int[][][]> RESTRICTED_DIRECTIONAL_LIMITS = new ConcurrentHashMap<>();
+
     /**
      * @return An array of size-3 int arrays, where the first two ints correspond to a direction
      * and the third int corresponds to the maximum number of times the piece can move in that direction
@@ -38,16 +48,33 @@ public abstract class Piece {
 
     public static List<PieceConfiguration> getPossibleMoves(int pieceBitFlag,
                                                             PieceConfiguration currentConfiguration) {
+        final short[] moves = new short[MAX_PIECE_MOVE_COUNT];
+        final int moveCount = generateMoves(pieceBitFlag, currentConfiguration, moves, 0);
+        return currentConfiguration.toOnwardConfigurations(moves, moveCount);
+    }
+
+    /**
+     * Writes the moves available to a piece into a buffer, using the encoding from MoveDescriber.describeMove
+     * @param moveCount The number of moves already held in the buffer, after which the new moves are written
+     * @return The number of moves held in the buffer once this piece's moves have been written
+     */
+    public static int generateMoves(int pieceBitFlag, PieceConfiguration currentConfiguration,
+                                    short[] buffer, int moveCount) {
         final int pieceTypeFlag = getPieceTypeBitFlag(pieceBitFlag);
+        if (currentConfiguration instanceof LongsPieceConfiguration longsConfiguration) {
+            return generateMaskedMoves(pieceBitFlag, pieceTypeFlag, longsConfiguration, -1L, buffer, moveCount);
+        }
+        if (currentConfiguration instanceof CompactPieceConfiguration compactConfiguration) {
+            return compactConfiguration.generatePieceMoves(getPosition(pieceBitFlag), buffer, moveCount);
+        }
         switch(pieceTypeFlag) {
             case PAWN_OCCUPIED:
-                return Pawn.getPossibleMoves(pieceBitFlag, currentConfiguration);
+                return Pawn.generateMoves(pieceBitFlag, currentConfiguration, buffer, moveCount);
             case KING_OCCUPIED:
-                return King.getPossibleMoves(pieceBitFlag, currentConfiguration);
+                return King.generateMoves(pieceBitFlag, currentConfiguration, buffer, moveCount);
             default:
                 break;
         }
-        final List<PieceConfiguration> pieceConfigurations = new ArrayList<>();
         for(int[] directionalLimit : getMovableDirectionalLimits(pieceBitFlag, currentConfiguration)) {
             final int directionX = directionalLimit[0];
             final int directionY = directionalLimit[1];
@@ -81,8 +108,7 @@ public abstract class Piece {
                     }
                 }
 
-                final short move = describeMove(pieceBitFlag & 63, testPosition, 0);
-                pieceConfigurations.add(toNewConfigurationFromMove(currentConfiguration, move));
+                buffer[moveCount++] = describeMove(pieceBitFlag & 63, testPosition, 0);
 
                 if (takenPieceBitFlag >= 0) {
                     // Stop considering moves beyond this taken piece
@@ -91,7 +117,73 @@ public abstract class Piece {
                 limit--;
             }
         }
-        return pieceConfigurations;
+        return moveCount;
+    }
+
+    /**
+     * Writes the moves available to a piece which end on one of the target positions,
+     * such as the opponent's pieces when only captures are wanted
+     */
+    public static int generateMoves(int pieceBitFlag, LongsPieceConfiguration currentConfiguration, long targetData,
+                                    short[] buffer, int moveCount) {
+        return generateMaskedMoves(pieceBitFlag, getPieceTypeBitFlag(pieceBitFlag), currentConfiguration, targetData,
+            buffer, moveCount);
+    }
+
+    /**
+     * Writes the moves available to a piece by intersecting its target positions with the configuration's
+     * pin and check masks, in the same order as the directional limits would visit them
+     */
+    private static int generateMaskedMoves(int pieceBitFlag, int pieceTypeFlag,
+                                           LongsPieceConfiguration currentConfiguration, long targetData,
+                                           short[] buffer, int moveCount) {
+        return switch (pieceTypeFlag) {
+            case PAWN_OCCUPIED -> Pawn.generateMaskedMoves(pieceBitFlag, currentConfiguration, targetData, buffer, moveCount);
+            case KING_OCCUPIED -> King.generateMaskedMoves(pieceBitFlag, currentConfiguration, targetData, buffer, moveCount);
+            case KNIGHT_OCCUPIED -> generateKnightMoves(pieceBitFlag, currentConfiguration, targetData, buffer, moveCount);
+            default -> generateSlidingMoves(pieceBitFlag, pieceTypeFlag, currentConfiguration, targetData, buffer, moveCount);
+        };
+    }
+
+    private static int generateKnightMoves(int pieceBitFlag, LongsPieceConfiguration currentConfiguration,
+                                           long targetData, short[] buffer, int moveCount) {
+        final int position = getPosition(pieceBitFlag);
+        // The knight's directional limits visit its positions in ascending order,
+        // and a pinned knight has no positions on the line through its king
+        long movableData = MagicBitboards.getKnightAttacks(position)
+            & currentConfiguration.getMovableData(position)
+            & targetData;
+        while (movableData != 0) {
+            buffer[moveCount++] = describeMove(position, Long.numberOfTrailingZeros(movableData), 0);
+            movableData &= movableData - 1;
+        }
+        return moveCount;
+    }
+
+    private static int generateSlidingMoves(int pieceBitFlag, int pieceTypeFlag,
+                                            LongsPieceConfiguration currentConfiguration, long targetData,
+                                            short[] buffer, int moveCount) {
+        final int position = getPosition(pieceBitFlag);
+        // Positions which are attacked, not blocked by a player piece, not ineffective at blocking check
+        // and on the pin line if the piece is pinned
+        final long movableData = getSlidingAttacks(pieceTypeFlag, position, currentConfiguration.getOccupiedData())
+            & currentConfiguration.getMovableData(position)
+            & targetData;
+        for(int[] directionalLimit : getDirectionalLimits(pieceBitFlag)) {
+            final int directionX = directionalLimit[0];
+            final int directionY = directionalLimit[1];
+            long directionalData = movableData & MagicBitboards.getRay(position, directionX, directionY);
+            // Visit the positions nearest to the piece first
+            final boolean isAscending = directionY > 0 || (directionY == 0 && directionX > 0);
+            while (directionalData != 0) {
+                final int testPosition = isAscending
+                    ? Long.numberOfTrailingZeros(directionalData)
+                    : 63 - Long.numberOfLeadingZeros(directionalData);
+                directionalData &= ~(1L << testPosition);
+                buffer[moveCount++] = describeMove(position, testPosition, 0);
+            }
+        }
+        return moveCount;
     }
 
     public static String getAlgebraicNotation(
@@ -108,7 +200,8 @@ public abstract class Piece {
         return sb.toString();
     }
 
-    public static void stampThreatFlags(int pieceBitFlag, PieceConfiguration pieceConfiguration) {
+    @SuppressWarnings("deprecation")
+    public static void stampThreatFlags(int pieceBitFlag, IntsPieceConfiguration pieceConfiguration) {
         int pieceTypeFlag = getPieceTypeBitFlag(pieceBitFlag);
         switch (pieceTypeFlag) {
             case PieceConfiguration.KING_OCCUPIED:
@@ -117,11 +210,13 @@ public abstract class Piece {
             case PieceConfiguration.PAWN_OCCUPIED:
                 Pawn.stampThreatFlags(pieceBitFlag, pieceConfiguration);
                 break;
-            default: stampSimpleThreatFlags(pieceBitFlag, pieceConfiguration);
+            default:
+                stampSimpleThreatFlags(pieceBitFlag, pieceConfiguration);
         }
     }
 
-    public static void stampSimpleThreatFlags(int pieceBitFlag, PieceConfiguration pieceConfiguration) {
+    @SuppressWarnings("deprecation")
+    public static void stampSimpleThreatFlags(int pieceBitFlag, IntsPieceConfiguration pieceConfiguration) {
         for(int[] directionalLimit : getDirectionalLimits(pieceBitFlag)) {
             final int directionX = directionalLimit[0];
             final int directionY = directionalLimit[1];
@@ -173,6 +268,14 @@ public abstract class Piece {
         }
     }
 
+    private static long getSlidingAttacks(int pieceTypeFlag, int position, long occupiedData) {
+        return switch (pieceTypeFlag) {
+            case BISHOP_OCCUPIED -> MagicBitboards.getBishopAttacks(position, occupiedData);
+            case ROOK_OCCUPIED -> MagicBitboards.getRookAttacks(position, occupiedData);
+            default -> MagicBitboards.getQueenAttacks(position, occupiedData);
+        };
+    }
+
     protected static int getDirectionalFlag(int x, int y) {
         if ((x & 3) == 2 | (y & 3) == 2) {
             return PieceConfiguration.DIRECTION_ANY_KNIGHT;
@@ -192,18 +295,31 @@ public abstract class Piece {
         return restrictDirections(getDirectionalLimits(pieceBitFlag), directionalBitFlags);
     }
 
+    /**
+     * The directional limits arrays are shared constants, so each is filtered for each line of pin only once
+     */
     protected static int[][] restrictDirections(int[][] directionalLimits, int directionalBitFlags) {
-        return switch (directionalBitFlags) {
-            case PieceConfiguration.DIRECTION_N, PieceConfiguration.DIRECTION_S ->
-                    filterDirectionalLimitsByPredicate(directionalLimits, dl -> dl[0] == 0);
-            case PieceConfiguration.DIRECTION_NE, PieceConfiguration.DIRECTION_SW ->
-                    filterDirectionalLimitsByPredicate(directionalLimits, dl -> dl[0] == dl[1]);
-            case PieceConfiguration.DIRECTION_E, PieceConfiguration.DIRECTION_W ->
-                    filterDirectionalLimitsByPredicate(directionalLimits, dl -> dl[1] == 0);
-            case PieceConfiguration.DIRECTION_SE, PieceConfiguration.DIRECTION_NW ->
-                    filterDirectionalLimitsByPredicate(directionalLimits, dl -> dl[0] == -dl[1]);
-            default -> directionalLimits;
+        final int pinLineIndex = switch (directionalBitFlags) {
+            case PieceConfiguration.DIRECTION_N, PieceConfiguration.DIRECTION_S -> 0;
+            case PieceConfiguration.DIRECTION_NE, PieceConfiguration.DIRECTION_SW -> 1;
+            case PieceConfiguration.DIRECTION_E, PieceConfiguration.DIRECTION_W -> 2;
+            case PieceConfiguration.DIRECTION_SE, PieceConfiguration.DIRECTION_NW -> 3;
+            default -> -1;
         };
+        if (pinLineIndex < 0) {
+            return directionalLimits;
+        }
+        int[][][] restrictedDirectionalLimits = RESTRICTED_DIRECTIONAL_LIMITS.get(directionalLimits);
+        if (restrictedDirectionalLimits == null) {
+            restrictedDirectionalLimits = new int[][][]{
+                filterDirectionalLimitsByPredicate(directionalLimits, dl -> dl[0] == 0),
+                filterDirectionalLimitsByPredicate(directionalLimits, dl -> dl[0] == dl[1]),
+                filterDirectionalLimitsByPredicate(directionalLimits, dl -> dl[1] == 0),
+                filterDirectionalLimitsByPredicate(directionalLimits, dl -> dl[0] == -dl[1])
+            };
+            RESTRICTED_DIRECTIONAL_LIMITS.putIfAbsent(directionalLimits, restrictedDirectionalLimits);
+        }
+        return restrictedDirectionalLimits[pinLineIndex];
     }
 
     private static int[][] filterDirectionalLimitsByPredicate(int[][] directionalLimits, Predicate<int[]> predicate) {
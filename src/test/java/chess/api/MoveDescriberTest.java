@@ -27,6 +27,12 @@ public class MoveDescriberTest {
             .hasMessage(format("Unable to get move from algebraic notation %s", algebraicNotation));
     }
 
+    @ParameterizedTest
+    @MethodSource("getAlgebraicNotationArguments")
+    void getAlgebraicNotation(String algebraicNotation, short moveInteger) {
+        assertThat(MoveDescriber.getAlgebraicNotation(moveInteger)).isEqualTo(algebraicNotation.replace("x", ""));
+    }
+
     private static Stream<Arguments> getAlgebraicNotationArguments() {
         return Stream.of(
             Arguments.of("b7a8", (short) 0b0000110001111000),
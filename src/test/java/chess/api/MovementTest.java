@@ -1,5 +1,6 @@
 package chess.api;
 
+import chess.api.configuration.CompactPieceConfiguration;
 import chess.api.configuration.IntsPieceConfiguration;
 import chess.api.configuration.LongsPieceConfiguration;
 import chess.api.configuration.PieceConfiguration;
@@ -17,7 +18,7 @@ public class MovementTest {
     private static final Logger LOGGER = LoggerFactory.getLogger(MovementTest.class);
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testBishopMovement(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("B7/8/8/8/8/8/8/8 w - - 0 1", configurationClass);
 
@@ -29,7 +30,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testBishopMovement_withOpponentPiecesBlocking(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/8/2p1p3/3B4/2p1p3/8/8/8 w - - 0 1", configurationClass);
 
@@ -41,7 +42,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testBishopMovement_withPlayerPiecesBlocking(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest(
             "nNKN3r/PBPP4/PPPP4/8/8/8/8/k7 w - - 0 1", configurationClass);
@@ -54,7 +55,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testKnightMovement(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("N7/8/8/8/8/8/8/8 w - - 0 1", configurationClass);
 
@@ -66,7 +67,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testMovement_whenProtectingKingWithKnight(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("KP6/PN6/8/8/8/8/8/7b w - - 0 1", configurationClass);
 
@@ -78,7 +79,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testMovement_whenProtectingKingWithBishop(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("KP6/PB6/8/8/8/8/8/7b w - - 0 1", configurationClass);
 
@@ -90,7 +91,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testMovement_whenKingDoublyProtected(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("KP6/PN6/2N5/8/8/8/8/7b w - - 0 1", configurationClass);
 
@@ -102,7 +103,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testPawnMovement_fromStartingPosition(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/8/8/8/8/8/1P6/8 w - - 0 1", configurationClass);
 
@@ -114,7 +115,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testPawnMovement_fromNonStartingPositionWithoutTargets(
             Class<? extends PieceConfiguration> configurationClass)
     {
@@ -128,7 +129,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testPawnMovement_fromStartingPositionWithDistantBlockingOpponent(
             Class<? extends PieceConfiguration> configurationClass)
     {
@@ -142,7 +143,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testPawnMovement_fromStartingPositionWithCloseBlockingOpponent(
             Class<? extends PieceConfiguration> configurationClass)
     {
@@ -156,7 +157,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testPawnMovement_fromStartingPositionWithTwoTakeableOpponents(
             Class<? extends PieceConfiguration> configurationClass)
     {
@@ -170,7 +171,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testPawnMovement_whenProtectingKingFromDistantOpponent(
             Class<? extends PieceConfiguration> configurationClass)
     {
@@ -184,7 +185,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testPawnMovement_whenProtectingKingFromCloseOpponent(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/8/8/8/8/2b5/1P6/KP6 w - - 0 1", configurationClass);
 
@@ -196,7 +197,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testPawnMovement_withEnPassantAvailable(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/8/8/3Pp3/8/8/8/8 w - e6 0 1", configurationClass);
 
@@ -208,7 +209,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testKingMovement_withPawnPreventingTaking(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/2p5/1r6/K7/8/8/8/8 w - - 0 1", configurationClass);
 
@@ -220,7 +221,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testKingMovement_withTwoCastlesAvailable(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/8/8/8/8/8/P6P/R3K2R w KQ - 0 1", configurationClass);
 
@@ -232,7 +233,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testKingMovement_withNoCastlesAvailable(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/8/8/8/8/8/P6P/R3K2R w - - 0 1", configurationClass);
 
@@ -244,7 +245,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testKingMovement_withCastleThroughCheck(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("3r1r2/8/8/8/8/8/P6P/R3K2R w KQ - 0 1", configurationClass);
 
@@ -256,7 +257,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testKingMovement_withCastleOutOfCheck(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("4r3/8/8/8/8/8/P6P/R3K2R w KQ - 0 1", configurationClass);
 
@@ -268,7 +269,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testKingMovement_withCastleIntoCheck(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest(
             "2r3r1/8/8/8/8/8/P6P/R3K2R w KQ - 0 1", configurationClass);
@@ -281,7 +282,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testKingMovement_withCastleBlockedByPlayerPiece(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/8/8/8/8/8/P6P/RN2K1NR w KQ - 0 1", configurationClass);
 
@@ -293,7 +294,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testKingMovement_withCastleBlockedByOpponentPiece(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/8/8/8/8/8/P6P/Rn2K1nR w KQ - 0 1", configurationClass);
 
@@ -305,7 +306,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testRookMovement_removesCastleOption(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/8/8/8/8/8/P6P/R3K2R w KQ - 0 1", configurationClass);
 
@@ -319,7 +320,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testStartingPosition(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest(
             "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", configurationClass);
@@ -332,7 +333,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testPawnPromotion(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/3P4/8/8/8/8/8/8 w - - 0 1", configurationClass);
 
@@ -344,7 +345,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testStalemate(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("1r6/8/8/8/8/8/7r/K7 w - - 0 1", configurationClass);
 
@@ -356,7 +357,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testInCheck_whenOnlyKnightCanBlock(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/8/8/8/8/N7/PPP5/K6r w - - 0 1", configurationClass);
 
@@ -368,7 +369,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testInCheck_whenOnlyBishopCanBlock(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("qq6/q6B/8/8/8/8/8/7K w - - 0 1", configurationClass);
 
@@ -380,7 +381,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testInCheck_whenPawnTakeCanBlock(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/PP6/K5rr/PP5P/8/8/8/8 w - - 0 1", configurationClass);
 
@@ -392,7 +393,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testInCheck_whenOnlyPawnCanBlock(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/PP6/K5rr/PP4P1/8/8/8/8 w - - 0 1", configurationClass);
 
@@ -404,7 +405,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testInCheck_whenPawnMovingBehindKingDoesNotBlock(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/PP5r/1K5r/PP5r/8/8/8/8 w - - 0 1", configurationClass);
 
@@ -416,7 +417,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testInCheck_whenBishopCannotBlockQueenAndRook(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("qq6/q6B/8/8/8/8/8/r6K w - - 0 1", configurationClass);
 
@@ -428,7 +429,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testInCheck_whenBishopCannotBlockKnight(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("qqq4B/q7/8/8/8/5K2/8/6n1 w - - 0 1", configurationClass);
 
@@ -440,7 +441,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testInCheck_whenBothDirectionsCheckedByBishops(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("7b/b7/8/3P4/2PKP3/3P4/8/8 w - - 0 1", configurationClass);
 
@@ -452,7 +453,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testInCheck_whenMovingPawnToProtectWouldExposeKingToRook(
             Class<? extends PieceConfiguration> configurationClass)
     {
@@ -467,7 +468,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testInCheck_tryingToMoveAwayFromCheckingRook(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/8/8/8/8/8/PPP5/1K5r w - - 0 1", configurationClass);
 
@@ -479,7 +480,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testInCheck_tryingToMoveAwayFromCheckingPawn(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/8/5p2/4p3/3K4/8/8/8 w - - 0 1", configurationClass);
 
@@ -491,7 +492,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testInCheck_tryingToMoveAwayFromCheckingKnight(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("8/8/8/8/8/1nn5/8/K2n4 w - - 0 1", configurationClass);
 
@@ -503,7 +504,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testInCheck_whenKingCannotMoveButPawnCanTakeChecker(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("7k/6pp/6N1/8/8/8/B7/8 b - - 0 1", configurationClass);
 
@@ -515,7 +516,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testInCheck_whenOpposingPieceBlocksTakingCheckingPiece(
             Class<? extends PieceConfiguration> configurationClass)
     {
@@ -528,7 +529,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testInCheck_whenOpposingPieceDoesNotBlockTakingCheckingPiece(
             Class<? extends PieceConfiguration> configurationClass)
     {
@@ -541,7 +542,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testConfinedMovement_withOrthogonalDirectionalBitFlag(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest(
             "3rkr2/4q3/8/8/4P3/8/4K3/8 w - - 0 1", configurationClass);
@@ -553,7 +554,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testConfinedMovement_withDiagonalDirectionalBitFlag_pawnTakes(
             Class<? extends PieceConfiguration> configurationClass)
     {
@@ -567,7 +568,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testConfinedMovement_withDiagonalDirectionalBitFlag_pawnPinned(
             Class<? extends PieceConfiguration> configurationClass)
     {
@@ -580,7 +581,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testKnightMovement_withFriendlyAndOpposingKnightsBlockingCheck(
             Class<? extends PieceConfiguration> configurationClass)
     {
@@ -596,7 +597,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testPawnMovement_withFriendlyPawnBlockingCheck(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("7k/8/8/K3P2r/8/8/8/8 w - - 0 1", configurationClass);
 
@@ -609,7 +610,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testPawnMovement_withFriendlyAndOpposingPawnsBlockingCheck(
             Class<? extends PieceConfiguration> configurationClass)
     {
@@ -624,7 +625,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testPawnMovement_withFriendlyPawnAndOpposingKingBlockingCheck(
             Class<? extends PieceConfiguration> configurationClass)
     {
@@ -639,7 +640,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testPawnMovement_withKingCheckedByTakeableOpposingPawn(
             Class<? extends PieceConfiguration> configurationClass)
     {
@@ -654,7 +655,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testPawnMovement_withKingCheckedByUntakeableOpposingPawn(
             Class<? extends PieceConfiguration> configurationClass)
     {
@@ -669,7 +670,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testEnPassantSquareIsCleared(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest(
             "rnbqkbnr/pppppppp/8/8/3P4/8/PPP1PPPP/RNBQKBNR b KQkq d3 0 1", configurationClass);
@@ -682,7 +683,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testPromotionWhileTaking(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest("7k/8/8/8/8/8/p7/1Q5K b - - 0 1", configurationClass);
 
@@ -695,7 +696,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testPawnMovementWhenJumpingForwards(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest(
             "rnk5/pp3ppp/5P2/8/2P1n1B1/1Pr5/PK5P/3RR3 b - - 1 26", configurationClass);
@@ -709,7 +710,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testEnPassant_1(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest(
             "rnb1k2r/p1p2pp1/1b2p3/1p1pN1Pp/qP1P1P2/P1PK4/1B1N4/R7 w kq h6 0 24", configurationClass);
@@ -726,7 +727,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testEnPassant_2(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest(
             "rnb1k2r/ppqpb3/2p1p2p/4Pppn/1PB5/P1N1QNPP/2PB1P2/3RK2R w Kkq f6 0 16", configurationClass);
@@ -743,7 +744,7 @@ public class MovementTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testEnPassant_3(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = setupTest(
             "r1b1k1n1/p1p2p2/2n1p3/1p1pP3/3P1P2/2P2B2/PP6/R1K5 w q d6 0 22", configurationClass);
@@ -0,0 +1,85 @@
+package chess.api.ai;
+
+import chess.api.FENReader;
+import chess.api.FENWriter;
+import chess.api.configuration.IntsPieceConfiguration;
+import chess.api.configuration.LongsPieceConfiguration;
+import chess.api.configuration.PieceConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConcurrentPositionEvaluatorTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3})
+    void testGetBestConfigurationScorePairConcurrently_withPruningMatchesDepthFirst(int depth) {
+        for(Class<? extends PieceConfiguration> configurationClass
+            : List.of(IntsPieceConfiguration.class, LongsPieceConfiguration.class)) {
+            final PieceConfiguration pieceConfiguration = FENReader.read(
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", configurationClass);
+            final ConfigurationScorePair expectedPair = DepthFirstPositionEvaluator
+                .getBestConfigurationScorePairWithPruning(pieceConfiguration, depth,
+                    new SearchContext(new TranspositionTable(1)));
+
+            final ConfigurationScorePair pair = ConcurrentPositionEvaluator
+                .getBestConfigurationScorePairConcurrently(pieceConfiguration, depth, true);
+
+            assertThat(pair.score()).isEqualTo(expectedPair.score());
+            assertThat(FENWriter.write(pair.pieceConfiguration()))
+                .isEqualTo(FENWriter.write(expectedPair.pieceConfiguration()));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {false, true})
+    void testGetBestConfigurationScorePairConcurrently_returnsNull(boolean isPruningEnabled) {
+        final PieceConfiguration pieceConfiguration = FENReader.read(
+            "k7/7R/8/8/8/8/8/1R5K b - - 0 50", LongsPieceConfiguration.class);
+
+        assertThat(ConcurrentPositionEvaluator.getBestConfigurationScorePairConcurrently(
+            pieceConfiguration, 3, isPruningEnabled)).isNull();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3})
+    void testGetBestMoveIteratively_matchesGetBestMoveRecursively(int depth) {
+        final PieceConfiguration pieceConfiguration = FENReader.read(
+            "r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1", LongsPieceConfiguration.class);
+
+        final PieceConfiguration bestConfiguration = ConcurrentPositionEvaluator.getBestMoveIteratively(
+            pieceConfiguration, depth, 60_000);
+
+        assertThat(FENWriter.write(bestConfiguration)).isEqualTo(FENWriter.write(
+            ConcurrentPositionEvaluator.getBestMoveRecursively(pieceConfiguration, depth)));
+    }
+
+    @Test
+    void testGetBestMoveIteratively_stopsWhenOutOfTime() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", LongsPieceConfiguration.class);
+        final long startTime = System.nanoTime();
+
+        final PieceConfiguration bestConfiguration = ConcurrentPositionEvaluator.getBestMoveIteratively(
+            pieceConfiguration, 20, 100);
+
+        assertThat(bestConfiguration).isNotNull();
+        assertThat(System.nanoTime() - startTime).isLessThan(5_000_000_000L);
+        // The search that was stopped leaves the searches after it free to run to the end
+        assertThat(FENWriter.write(ConcurrentPositionEvaluator.getBestMoveRecursively(pieceConfiguration, 3)))
+            .isEqualTo(FENWriter.write(DepthFirstPositionEvaluator.getBestConfigurationScorePairWithPruning(
+                pieceConfiguration, 3, new SearchContext(new TranspositionTable(1))).pieceConfiguration()));
+    }
+
+    @Test
+    void testGetBestMoveIteratively_returnsNull() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(
+            "k7/7R/8/8/8/8/8/1R5K b - - 0 50", LongsPieceConfiguration.class);
+
+        assertThat(ConcurrentPositionEvaluator.getBestMoveIteratively(pieceConfiguration, 3, 1_000)).isNull();
+    }
+}
@@ -2,9 +2,12 @@ package chess.api.ai;
 
 import chess.api.FENReader;
 import chess.api.FENWriter;
+import chess.api.configuration.CompactPieceConfiguration;
+import chess.api.configuration.ConfigurationArena;
 import chess.api.configuration.IntsPieceConfiguration;
 import chess.api.configuration.LongsPieceConfiguration;
 import chess.api.configuration.PieceConfiguration;
+import chess.api.perft.Perft;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -42,6 +45,230 @@ public class DepthFirstPositionEvaluatorTest {
         assertThat(newConfiguration).isNull();
     }
 
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "k7/7R/8/8/8/8/8/2R4K w - - 0 50"
+    })
+    void testGetBestScoreDifferentialInPlace_matchesConfigurationScorePair(String fen) {
+        final LongsPieceConfiguration pieceConfiguration = (LongsPieceConfiguration) FENReader.read(
+            fen, LongsPieceConfiguration.class);
+        final double expectedScore = DepthFirstPositionEvaluator
+            .getBestConfigurationScorePairRecursively(pieceConfiguration, 3, false)
+            .score();
+
+        final double score = DepthFirstPositionEvaluator.getBestScoreDifferentialInPlace(
+            pieceConfiguration, 3, DepthFirstPositionEvaluator.createMoveGenerators(3));
+
+        assertThat(score).isEqualTo(expectedScore);
+        assertThat(FENWriter.write(pieceConfiguration)).isEqualTo(fen);
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
+    void testGetBestScoreDifferentialInArena_matchesConfigurationScorePair(
+        Class<? extends PieceConfiguration> configurationClass) {
+        final ConfigurationArena arena = new ConfigurationArena();
+        for(String fen : List.of(
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "k7/7R/8/8/8/8/8/2R4K w - - 0 50")) {
+            final PieceConfiguration pieceConfiguration = FENReader.read(fen, configurationClass);
+            final double expectedScore = DepthFirstPositionEvaluator
+                .getBestConfigurationScorePairRecursively(pieceConfiguration, 3, false)
+                .score();
+
+            // The same arena serves each search in turn
+            final double score = DepthFirstPositionEvaluator.getBestScoreDifferentialInArena(
+                pieceConfiguration, 3, arena, 0);
+
+            assertThat(score).isEqualTo(expectedScore);
+            assertThat(FENWriter.write(pieceConfiguration)).isEqualTo(fen);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"k7/7R/8/8/8/8/8/1R5K b - - 0 50", "k7/8/1Q6/8/8/8/8/7K b - - 0 50"})
+    void testGetBestScoreDifferentialInArena_withoutMoves(String fen) {
+        final PieceConfiguration pieceConfiguration = FENReader.read(fen, CompactPieceConfiguration.class);
+
+        final double score = DepthFirstPositionEvaluator.getBestScoreDifferentialInArena(
+            pieceConfiguration, 2, new ConfigurationArena(), 0);
+
+        assertThat(score).isEqualTo(DepthFirstPositionEvaluator.getBestScoreDifferentialRecursively(
+            FENReader.read(fen, IntsPieceConfiguration.class), 2));
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
+    void testGetBestConfigurationScorePairWithPruning_matchesConfigurationScorePair(
+        Class<? extends PieceConfiguration> configurationClass) {
+        final SearchContext searchContext = new SearchContext(new TranspositionTable(1));
+        searchContext.setQuiescenceEnabled(false);
+        for(String fen : List.of(
+            FENWriter.STARTING_POSITION,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1",
+            "k7/7R/8/8/8/8/8/2R4K w - - 0 50")) {
+            final PieceConfiguration pieceConfiguration = FENReader.read(fen, configurationClass);
+            final ConfigurationScorePair expectedPair = DepthFirstPositionEvaluator
+                .getBestConfigurationScorePairRecursively(pieceConfiguration, 3, true);
+
+            final ConfigurationScorePair pair = DepthFirstPositionEvaluator.getBestConfigurationScorePairWithPruning(
+                pieceConfiguration, 3, searchContext);
+
+            assertThat(pair.score()).isEqualTo(expectedPair.score());
+            assertThat(FENWriter.write(pair.pieceConfiguration()))
+                .isEqualTo(FENWriter.write(expectedPair.pieceConfiguration()));
+            assertThat(FENWriter.write(pieceConfiguration)).isEqualTo(fen);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    void testGetBestConfigurationScorePairWithPruning_returnsNull(Class<? extends PieceConfiguration> configurationClass) {
+        final PieceConfiguration pieceConfiguration = FENReader.read("k7/7R/8/8/8/8/8/1R5K b - - 0 50", configurationClass);
+
+        assertThat(DepthFirstPositionEvaluator.getBestConfigurationScorePairWithPruning(
+            pieceConfiguration, 3, new SearchContext())).isNull();
+    }
+
+    @Test
+    void testGetBestConfigurationScorePairWithPruning_visitsFewerNodes() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", LongsPieceConfiguration.class);
+        final SearchContext searchContext = new SearchContext();
+        // The search without pruning visits every configuration up to the depth
+        long minimaxNodeCount = 0;
+        for(int depth = 1; depth <= 3; depth++) {
+            minimaxNodeCount += Perft.perft(pieceConfiguration, depth);
+        }
+
+        DepthFirstPositionEvaluator.getBestConfigurationScorePairWithPruning(pieceConfiguration, 3, searchContext);
+
+        assertThat(searchContext.getNodeCount()).isLessThan(minimaxNodeCount);
+    }
+
+    @Test
+    void testGetBestConfigurationScorePairWithPruning_reusesTranspositionTable() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", LongsPieceConfiguration.class);
+        final SearchContext searchContext = new SearchContext(new TranspositionTable(1));
+        final ConfigurationScorePair firstPair = DepthFirstPositionEvaluator.getBestConfigurationScorePairWithPruning(
+            pieceConfiguration, 4, searchContext);
+        final long firstNodeCount = searchContext.getNodeCount();
+
+        final ConfigurationScorePair secondPair = DepthFirstPositionEvaluator.getBestConfigurationScorePairWithPruning(
+            pieceConfiguration, 4, searchContext);
+
+        assertThat(secondPair.score()).isEqualTo(firstPair.score());
+        assertThat(FENWriter.write(secondPair.pieceConfiguration()))
+            .isEqualTo(FENWriter.write(firstPair.pieceConfiguration()));
+        assertThat(searchContext.getNodeCount() - firstNodeCount).isLessThan(firstNodeCount);
+        assertThat(searchContext.getTranspositionTable().getHitCount()).isGreaterThan(0L);
+    }
+
+    @Test
+    void testGetBestConfigurationScorePairWithPruning_moveOrderingVisitsFewerNodes() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(FENWriter.STARTING_POSITION, LongsPieceConfiguration.class);
+        final SearchContext unorderedSearchContext = new SearchContext(new TranspositionTable(1));
+        unorderedSearchContext.setMoveOrderingEnabled(false);
+        final ConfigurationScorePair unorderedPair = DepthFirstPositionEvaluator.getBestConfigurationScorePairWithPruning(
+            pieceConfiguration, 4, unorderedSearchContext);
+        final SearchContext searchContext = new SearchContext(new TranspositionTable(1));
+
+        final ConfigurationScorePair pair = DepthFirstPositionEvaluator.getBestConfigurationScorePairWithPruning(
+            pieceConfiguration, 4, searchContext);
+
+        assertThat(pair.score()).isEqualTo(unorderedPair.score());
+        assertThat(FENWriter.write(pair.pieceConfiguration()))
+            .isEqualTo(FENWriter.write(unorderedPair.pieceConfiguration()));
+        assertThat(searchContext.getNodeCount()).isLessThan(unorderedSearchContext.getNodeCount());
+        assertThat(searchContext.getMoveOrderingTables().getFirstMoveCutoffRatio())
+            .isGreaterThan(unorderedSearchContext.getMoveOrderingTables().getFirstMoveCutoffRatio());
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
+    void testGetBestConfigurationScorePairWithPruning_withoutArena(Class<? extends PieceConfiguration> configurationClass) {
+        for(String fen : List.of(
+            FENWriter.STARTING_POSITION,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "4k3/8/4p3/3p4/8/8/8/3QK3 w - - 0 1")) {
+            final PieceConfiguration pieceConfiguration = FENReader.read(fen, configurationClass);
+            final SearchContext arenaSearchContext = new SearchContext(new TranspositionTable(1));
+            final ConfigurationScorePair expectedPair = DepthFirstPositionEvaluator.getBestConfigurationScorePairWithPruning(
+                pieceConfiguration, 3, arenaSearchContext);
+            final SearchContext searchContext = new SearchContext(new TranspositionTable(1));
+            searchContext.setArenaEnabled(false);
+
+            final ConfigurationScorePair pair = DepthFirstPositionEvaluator.getBestConfigurationScorePairWithPruning(
+                pieceConfiguration, 3, searchContext);
+
+            assertThat(pair.score()).isEqualTo(expectedPair.score());
+            assertThat(FENWriter.write(pair.pieceConfiguration()))
+                .isEqualTo(FENWriter.write(expectedPair.pieceConfiguration()));
+            assertThat(searchContext.getNodeCount()).isEqualTo(arenaSearchContext.getNodeCount());
+            assertThat(FENWriter.write(pieceConfiguration)).isEqualTo(fen);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        FENWriter.STARTING_POSITION,
+        "4k3/8/8/8/8/8/2P5/4K3 b - - 0 1",
+        "k7/1Q6/1K6/8/8/8/8/8 b - - 0 1"
+    })
+    void testGetQuiescenceScoreDifferential_withoutCaptures(String fen) {
+        for(Class<? extends PieceConfiguration> configurationClass
+            : List.of(IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class)) {
+            final PieceConfiguration pieceConfiguration = FENReader.read(fen, configurationClass);
+
+            final double score = DepthFirstPositionEvaluator.getQuiescenceScoreDifferential(pieceConfiguration,
+                Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, new SearchContext(), 0);
+
+            // Without captures, the configuration scores as it would in a search of one move
+            assertThat(score).isEqualTo(DepthFirstPositionEvaluator.getBestScoreDifferentialRecursively(
+                FENReader.read(fen, configurationClass), 1));
+            assertThat(FENWriter.write(pieceConfiguration)).isEqualTo(fen);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
+    void testGetBestConfigurationScorePairWithPruning_seesRecaptureBeyondHorizon(
+        Class<? extends PieceConfiguration> configurationClass) {
+        // The queen can take a pawn, which another pawn defends
+        final PieceConfiguration pieceConfiguration = FENReader.read("4k3/8/4p3/3p4/8/8/8/3QK3 w - - 0 1", configurationClass);
+        final SearchContext searchContext = new SearchContext(new TranspositionTable(1));
+        searchContext.setQuiescenceEnabled(false);
+        final ConfigurationScorePair horizonPair = DepthFirstPositionEvaluator.getBestConfigurationScorePairWithPruning(
+            pieceConfiguration, 1, searchContext);
+
+        final ConfigurationScorePair pair = DepthFirstPositionEvaluator.getBestConfigurationScorePairWithPruning(
+            pieceConfiguration, 1, new SearchContext(new TranspositionTable(1)));
+
+        assertThat(FENWriter.write(horizonPair.pieceConfiguration())).startsWith("4k3/8/4p3/3Q4/");
+        assertThat(FENWriter.write(pair.pieceConfiguration())).doesNotStartWith("4k3/8/4p3/3Q4/");
+    }
+
+    @Test
+    void testGetBestConfigurationScorePairWithPruning_quiescenceVisitsFewerNodesThanDeeperSearch() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", LongsPieceConfiguration.class);
+        final SearchContext deeperSearchContext = new SearchContext(new TranspositionTable(1));
+        deeperSearchContext.setQuiescenceEnabled(false);
+        final ConfigurationScorePair deeperPair = DepthFirstPositionEvaluator.getBestConfigurationScorePairWithPruning(
+            pieceConfiguration, 4, deeperSearchContext);
+        final SearchContext searchContext = new SearchContext(new TranspositionTable(1));
+
+        final ConfigurationScorePair pair = DepthFirstPositionEvaluator.getBestConfigurationScorePairWithPruning(
+            pieceConfiguration, 3, searchContext);
+
+        assertThat(FENWriter.write(pair.pieceConfiguration())).isEqualTo(FENWriter.write(deeperPair.pieceConfiguration()));
+        assertThat(searchContext.getNodeCount()).isLessThan(deeperSearchContext.getNodeCount());
+    }
+
     @Disabled
     @ParameterizedTest
     @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
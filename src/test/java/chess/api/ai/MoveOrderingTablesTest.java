@@ -0,0 +1,101 @@
+package chess.api.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static chess.api.MoveDescriber.getMoveFromAlgebraicNotation;
+import static chess.api.configuration.StagedMoveGenerator.NO_MOVE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MoveOrderingTablesTest {
+
+    private static final short FIRST_MOVE = getMoveFromAlgebraicNotation("g1f3");
+
+    private static final short SECOND_MOVE = getMoveFromAlgebraicNotation("d2d4");
+
+    private static final short THIRD_MOVE = getMoveFromAlgebraicNotation("b1c3");
+
+    private static final short PREVIOUS_MOVE = getMoveFromAlgebraicNotation("e7e5");
+
+    @Test
+    void testRecordCutoff_keepsTwoKillerMovesPerPly() {
+        final MoveOrderingTables moveOrderingTables = new MoveOrderingTables();
+
+        moveOrderingTables.recordCutoff(3, FIRST_MOVE, true, NO_MOVE, 2, 0);
+        moveOrderingTables.recordCutoff(3, SECOND_MOVE, true, NO_MOVE, 2, 0);
+        moveOrderingTables.recordCutoff(3, SECOND_MOVE, true, NO_MOVE, 2, 0);
+
+        // Repeating the newest killer move doesn't push out the older one
+        assertThat(moveOrderingTables.getFirstKillerMove(3)).isEqualTo(SECOND_MOVE);
+        assertThat(moveOrderingTables.getSecondKillerMove(3)).isEqualTo(FIRST_MOVE);
+
+        moveOrderingTables.recordCutoff(3, THIRD_MOVE, true, NO_MOVE, 2, 0);
+
+        assertThat(moveOrderingTables.getFirstKillerMove(3)).isEqualTo(THIRD_MOVE);
+        assertThat(moveOrderingTables.getSecondKillerMove(3)).isEqualTo(SECOND_MOVE);
+        assertThat(moveOrderingTables.getFirstKillerMove(2)).isEqualTo(NO_MOVE);
+    }
+
+    @Test
+    void testRecordCutoff_growsKillerMovesForDeepPlies() {
+        final MoveOrderingTables moveOrderingTables = new MoveOrderingTables();
+
+        assertThat(moveOrderingTables.getFirstKillerMove(100)).isEqualTo(NO_MOVE);
+        moveOrderingTables.recordCutoff(100, FIRST_MOVE, true, NO_MOVE, 1, 0);
+
+        assertThat(moveOrderingTables.getFirstKillerMove(100)).isEqualTo(FIRST_MOVE);
+        assertThat(moveOrderingTables.getSecondKillerMove(100)).isEqualTo(NO_MOVE);
+    }
+
+    @Test
+    void testRecordCutoff_learnsCounterMoveAndHistory() {
+        final MoveOrderingTables moveOrderingTables = new MoveOrderingTables();
+
+        moveOrderingTables.recordCutoff(1, FIRST_MOVE, true, PREVIOUS_MOVE, 3, 2);
+        moveOrderingTables.recordCutoff(5, FIRST_MOVE, true, NO_MOVE, 2, 0);
+
+        assertThat(moveOrderingTables.getCounterMove(PREVIOUS_MOVE)).isEqualTo(FIRST_MOVE);
+        assertThat(moveOrderingTables.getCounterMove(NO_MOVE)).isEqualTo(NO_MOVE);
+        assertThat(moveOrderingTables.getHistoryScores()[FIRST_MOVE & 0b0000111111111111]).isEqualTo(13);
+        assertThat(moveOrderingTables.getHistoryScores()[SECOND_MOVE & 0b0000111111111111]).isEqualTo(0);
+    }
+
+    @Test
+    void testRecordCutoff_onlyCountsCaptures() {
+        final MoveOrderingTables moveOrderingTables = new MoveOrderingTables();
+
+        moveOrderingTables.recordCutoff(1, FIRST_MOVE, false, PREVIOUS_MOVE, 3, 0);
+
+        assertThat(moveOrderingTables.getFirstKillerMove(1)).isEqualTo(NO_MOVE);
+        assertThat(moveOrderingTables.getCounterMove(PREVIOUS_MOVE)).isEqualTo(NO_MOVE);
+        assertThat(moveOrderingTables.getHistoryScores()[FIRST_MOVE & 0b0000111111111111]).isEqualTo(0);
+        assertThat(moveOrderingTables.getCutoffCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void testGetFirstMoveCutoffRatio() {
+        final MoveOrderingTables moveOrderingTables = new MoveOrderingTables();
+        assertThat(moveOrderingTables.getFirstMoveCutoffRatio()).isEqualTo(0.0);
+
+        moveOrderingTables.recordCutoff(1, FIRST_MOVE, true, NO_MOVE, 1, 0);
+        moveOrderingTables.recordCutoff(1, SECOND_MOVE, false, NO_MOVE, 1, 0);
+        moveOrderingTables.recordCutoff(1, THIRD_MOVE, true, NO_MOVE, 1, 4);
+        moveOrderingTables.recordCutoff(2, THIRD_MOVE, true, NO_MOVE, 1, 0);
+
+        assertThat(moveOrderingTables.getCutoffCount()).isEqualTo(4L);
+        assertThat(moveOrderingTables.getFirstMoveCutoffRatio()).isEqualTo(0.75);
+    }
+
+    @Test
+    void testRecordCutoff_halvesHistoryScores() {
+        final MoveOrderingTables moveOrderingTables = new MoveOrderingTables();
+        moveOrderingTables.recordCutoff(1, SECOND_MOVE, true, NO_MOVE, 3, 0);
+
+        // Each cutoff of this depth adds a million, so the seventeenth passes the limit
+        for(int i = 0; i < 17; i++) {
+            moveOrderingTables.recordCutoff(1, FIRST_MOVE, true, NO_MOVE, 1000, 0);
+        }
+
+        assertThat(moveOrderingTables.getHistoryScores()[FIRST_MOVE & 0b0000111111111111]).isEqualTo(8_500_000);
+        assertThat(moveOrderingTables.getHistoryScores()[SECOND_MOVE & 0b0000111111111111]).isEqualTo(4);
+    }
+}
@@ -0,0 +1,32 @@
+package chess.api.ai;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SearchBenchmarkTest {
+
+    @Test
+    void testRun_comparesModes() {
+        final boolean wasArenaEnabled = ConcurrentPositionEvaluator.isArenaEnabled();
+
+        final SearchBenchmark.Result[] results = SearchBenchmark.run(new String[]{"2", "--iterations=1", "--compact"});
+
+        assertThat(results).hasSize(2);
+        assertThat(ConcurrentPositionEvaluator.isArenaEnabled()).isEqualTo(wasArenaEnabled);
+        assertThat(SearchBenchmark.run(new String[]{"2", "k7/8/8/8/8/8/8/1R5K w - - 0 50", "--iterations=1", "--ints"}))
+            .hasSize(2);
+        assertThat(SearchBenchmark.run(new String[]{"2", "--iterations=1"})).hasSize(2);
+    }
+
+    @Test
+    void testRun_throwsException() {
+        assertThatThrownBy(() -> SearchBenchmark.run(new String[]{}))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Usage: SearchBenchmark depth [fen] [--iterations=count] [--ints] [--compact]");
+        assertThatThrownBy(() -> SearchBenchmark.run(new String[]{"2", "--unknown"}))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Unrecognised benchmark option --unknown");
+    }
+}
@@ -0,0 +1,133 @@
+package chess.api.ai;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static chess.api.ai.TranspositionTable.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TranspositionTableTest {
+
+    private static final long KEY = 0x1234567890ABCDEFL;
+
+    // A key in the same bucket as KEY, with different upper bits
+    private static final long OTHER_KEY = KEY ^ (1L << 40);
+
+    // A third key in the same bucket
+    private static final long THIRD_KEY = KEY ^ (1L << 50);
+
+    @Test
+    void testProbe() {
+        final TranspositionTable transpositionTable = new TranspositionTable(1);
+        final TranspositionTable.Entry entry = new TranspositionTable.Entry();
+
+        transpositionTable.store(KEY, 5, LOWER_BOUND, -8.254664949999999, (short) 0b1000001101100);
+
+        assertThat(transpositionTable.probe(KEY, entry)).isTrue();
+        assertThat(entry.getScore()).isEqualTo(-8.254664949999999);
+        assertThat(entry.getDepth()).isEqualTo(5);
+        assertThat(entry.getBound()).isEqualTo(LOWER_BOUND);
+        assertThat(entry.getMove()).isEqualTo((short) 0b1000001101100);
+        assertThat(transpositionTable.probe(OTHER_KEY, entry)).isFalse();
+        assertThat(transpositionTable.probe(KEY ^ 1, entry)).isFalse();
+        assertThat(transpositionTable.getHitCount()).isEqualTo(1L);
+        assertThat(transpositionTable.getMissCount()).isEqualTo(2L);
+        assertThat(transpositionTable.getStoreCount()).isEqualTo(1L);
+    }
+
+    @Test
+    void testStore_keepsDeeperEntry() {
+        final TranspositionTable transpositionTable = new TranspositionTable(1);
+        final TranspositionTable.Entry entry = new TranspositionTable.Entry();
+
+        transpositionTable.store(KEY, 6, EXACT_BOUND, 1.5, (short) 1);
+        transpositionTable.store(OTHER_KEY, 2, EXACT_BOUND, 2.5, (short) 2);
+        transpositionTable.store(THIRD_KEY, 3, EXACT_BOUND, 3.5, (short) 3);
+
+        // The shallower entries share the other slot
+        assertThat(transpositionTable.probe(KEY, entry)).isTrue();
+        assertThat(entry.getScore()).isEqualTo(1.5);
+        assertThat(transpositionTable.probe(OTHER_KEY, entry)).isFalse();
+        assertThat(transpositionTable.probe(THIRD_KEY, entry)).isTrue();
+        assertThat(entry.getScore()).isEqualTo(3.5);
+    }
+
+    @Test
+    void testStore_replacesSameKeyAndDeeperEntry() {
+        final TranspositionTable transpositionTable = new TranspositionTable(1);
+        final TranspositionTable.Entry entry = new TranspositionTable.Entry();
+
+        transpositionTable.store(KEY, 4, UPPER_BOUND, 1.5, (short) 1);
+        transpositionTable.store(KEY, 2, EXACT_BOUND, 2.5, (short) 2);
+        transpositionTable.store(OTHER_KEY, 1, EXACT_BOUND, 3.5, (short) 3);
+
+        assertThat(transpositionTable.probe(KEY, entry)).isTrue();
+        assertThat(entry.getScore()).isEqualTo(2.5);
+        assertThat(entry.getBound()).isEqualTo(EXACT_BOUND);
+        assertThat(transpositionTable.probe(OTHER_KEY, entry)).isTrue();
+        assertThat(entry.getScore()).isEqualTo(3.5);
+    }
+
+    @Test
+    void testStore_replacesAgedEntry() {
+        final TranspositionTable transpositionTable = new TranspositionTable(1);
+        final TranspositionTable.Entry entry = new TranspositionTable.Entry();
+        transpositionTable.store(KEY, 6, EXACT_BOUND, 1.5, (short) 1);
+        transpositionTable.store(OTHER_KEY, 2, EXACT_BOUND, 2.5, (short) 2);
+
+        transpositionTable.startNewSearch();
+        transpositionTable.store(THIRD_KEY, 1, EXACT_BOUND, 3.5, (short) 3);
+
+        // The entry of the earlier search gave way, so the entry in the other slot is kept
+        assertThat(transpositionTable.probe(KEY, entry)).isFalse();
+        assertThat(transpositionTable.probe(OTHER_KEY, entry)).isTrue();
+        assertThat(transpositionTable.probe(THIRD_KEY, entry)).isTrue();
+        assertThat(entry.getScore()).isEqualTo(3.5);
+    }
+
+    @Test
+    void testProbe_whileOtherThreadsStore() throws InterruptedException {
+        final TranspositionTable transpositionTable = new TranspositionTable(1);
+        final AtomicBoolean isConsistent = new AtomicBoolean(true);
+        final List<Thread> threads = new ArrayList<>();
+        for(int t = 0; t < 4; t++) {
+            final int threadIndex = t;
+            threads.add(new Thread(() -> {
+                final TranspositionTable.Entry entry = new TranspositionTable.Entry();
+                for(int i = 0; i < 100_000; i++) {
+                    // Every thread writes to the same bucket, with each entry's fields derived from its key
+                    final int keyIndex = (i + threadIndex) & 7;
+                    final long key = KEY ^ ((long) keyIndex << 40);
+                    transpositionTable.store(key, keyIndex, EXACT_BOUND, keyIndex * 1.25, (short) keyIndex);
+                    final long probedKey = KEY ^ ((long) ((i * 3) & 7) << 40);
+                    if (transpositionTable.probe(probedKey, entry)) {
+                        final int probedKeyIndex = (i * 3) & 7;
+                        if (entry.getDepth() != probedKeyIndex || entry.getScore() != probedKeyIndex * 1.25
+                            || entry.getMove() != probedKeyIndex) {
+                            isConsistent.set(false);
+                        }
+                    }
+                }
+            }));
+        }
+        for(Thread thread : threads) {
+            thread.start();
+        }
+        for(Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(isConsistent.get()).isTrue();
+    }
+
+    @Test
+    void testConstructor_rejectsSize() {
+        assertThatThrownBy(() -> new TranspositionTable(0))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Transposition table size must be at least one megabyte");
+    }
+}
@@ -0,0 +1,174 @@
+package chess.api.configuration;
+
+import chess.api.FENReader;
+import chess.api.FENWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static chess.api.FENWriter.STARTING_POSITION;
+import static chess.api.configuration.PieceConfiguration.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CompactPieceConfigurationTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        STARTING_POSITION,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+        "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3"
+    })
+    void matchesLongsPieceConfiguration(String fen) {
+        final List<String> corpus = new ArrayList<>();
+        collectPositions(FENReader.read(fen, CompactPieceConfiguration.class), 2, corpus);
+        final short[] compactMoves = new short[MAX_MOVE_COUNT];
+        final short[] longsMoves = new short[MAX_MOVE_COUNT];
+
+        for(String corpusFen : corpus) {
+            final PieceConfiguration compactConfiguration = FENReader.read(corpusFen, CompactPieceConfiguration.class);
+            final PieceConfiguration longsConfiguration = FENReader.read(corpusFen, LongsPieceConfiguration.class);
+            longsConfiguration.setHigherBitFlags();
+
+            for(int position = 0; position < 64; position++) {
+                assertThat(compactConfiguration.getPieceAtPosition(position))
+                    .as("Unexpected flags at position %d of %s", position, corpusFen)
+                    .isEqualTo(longsConfiguration.getPieceAtPosition(position));
+                assertThat(compactConfiguration.isIneffectiveCheckBlockAttempt(position))
+                    .as("Unexpected check block at position %d of %s", position, corpusFen)
+                    .isEqualTo(longsConfiguration.isIneffectiveCheckBlockAttempt(position));
+            }
+            assertThat(compactConfiguration.isCheck()).isEqualTo(longsConfiguration.isCheck());
+            assertThat(compactConfiguration.getValueDifferential()).isEqualTo(longsConfiguration.getValueDifferential());
+            assertThat(compactConfiguration.getLesserScore()).isEqualTo(longsConfiguration.getLesserScore());
+            assertThat(compactConfiguration.isDeadPosition()).isEqualTo(longsConfiguration.isDeadPosition());
+            assertThat(toList(compactMoves, compactConfiguration.generateMoves(compactMoves)))
+                .as("Unexpected moves of %s", corpusFen)
+                .containsExactlyInAnyOrderElementsOf(toList(longsMoves, longsConfiguration.generateMoves(longsMoves)));
+        }
+    }
+
+    @Test
+    void derivedData_isSharedBetweenConfigurations() {
+        final PieceConfiguration checkedConfiguration = FENReader.read(
+            "4k3/8/8/4r3/8/8/8/4K3 w - - 0 1", CompactPieceConfiguration.class);
+        final PieceConfiguration uncheckedConfiguration = FENReader.read(
+            "4k3/8/8/8/8/8/8/4K3 w - - 0 1", CompactPieceConfiguration.class);
+
+        // Each query derives the data again when the thread's data was last derived from the other configuration
+        assertThat(checkedConfiguration.isCheck()).isTrue();
+        assertThat(uncheckedConfiguration.isCheck()).isFalse();
+        assertThat(checkedConfiguration.isThreatened(12)).isTrue();
+        assertThat(uncheckedConfiguration.isThreatened(12)).isFalse();
+    }
+
+    @Test
+    void derivedData_followsPieceChanges() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(
+            "4k3/8/8/8/8/8/8/4K3 w - - 0 1", CompactPieceConfiguration.class);
+        assertThat(pieceConfiguration.isCheck()).isFalse();
+
+        // A black rook on e5 checks the white king once it is added
+        pieceConfiguration.addPiece(BLACK_OCCUPIED | ROOK_OCCUPIED | 36);
+        assertThat(pieceConfiguration.isCheck()).isTrue();
+        assertThat(pieceConfiguration.isIneffectiveCheckBlockAttempt(20)).isFalse();
+        assertThat(pieceConfiguration.isIneffectiveCheckBlockAttempt(21)).isTrue();
+
+        pieceConfiguration.removePiece(36);
+        assertThat(pieceConfiguration.isCheck()).isFalse();
+        assertThat(pieceConfiguration.isIneffectiveCheckBlockAttempt(21)).isFalse();
+    }
+
+    @Test
+    void derivedData_followsAuxiliaryDataChanges() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(STARTING_POSITION, CompactPieceConfiguration.class);
+        assertThat(pieceConfiguration.isPlayerOccupied(4)).isTrue();
+        assertThat(pieceConfiguration.isCastleAvailable(6)).isTrue();
+        assertThat(pieceConfiguration.isThreatened(20)).isFalse();
+
+        pieceConfiguration.setTurnSide(1);
+        assertThat(pieceConfiguration.isPlayerOccupied(4)).isFalse();
+        assertThat(pieceConfiguration.isPlayerOccupied(60)).isTrue();
+        assertThat(pieceConfiguration.isThreatened(20)).isTrue();
+
+        pieceConfiguration.removeCastlePosition(6);
+        assertThat(pieceConfiguration.isCastleAvailable(6)).isFalse();
+    }
+
+    @Test
+    void copyConstructor_copiesPiecesAndAuxiliaryData() {
+        final String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+        final CompactPieceConfiguration pieceConfiguration = (CompactPieceConfiguration) FENReader.read(
+            fen, CompactPieceConfiguration.class);
+
+        final CompactPieceConfiguration copiedConfiguration = new CompactPieceConfiguration(pieceConfiguration);
+
+        assertThat(FENWriter.write(copiedConfiguration)).isEqualTo(fen);
+        assertThat(copiedConfiguration.getZobristKey()).isEqualTo(pieceConfiguration.getZobristKey());
+        assertThat(copiedConfiguration.getConfigurationClass()).isEqualTo(CompactPieceConfiguration.class);
+    }
+
+    @Test
+    void setThreatened_marksPosition() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(
+            "4k3/8/8/8/8/8/8/4K3 w - - 0 1", CompactPieceConfiguration.class);
+        assertThat(pieceConfiguration.isThreatened(27)).isFalse();
+
+        pieceConfiguration.setThreatened(27);
+
+        assertThat(pieceConfiguration.isThreatened(27)).isTrue();
+        assertThat(pieceConfiguration.isOpponentOccupiedOrEnPassantSquare(27)).isFalse();
+        assertThat(pieceConfiguration.isOpponentKnightOccupied(27)).isFalse();
+    }
+
+    @Test
+    void isCheck_withoutPlayerKing() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(
+            "4k3/8/8/8/8/8/4q3/8 w - - 0 1", CompactPieceConfiguration.class);
+        final short[] moves = new short[MAX_MOVE_COUNT];
+
+        assertThat(pieceConfiguration.isCheck()).isFalse();
+        assertThat(pieceConfiguration.generateMoves(moves)).isZero();
+    }
+
+    @Test
+    void generateMoves_allowsEnPassantWithoutPlayerKing() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(
+            "4k3/8/8/3pP3/8/8/8/8 w - d6 0 1", CompactPieceConfiguration.class);
+        final short[] moves = new short[MAX_MOVE_COUNT];
+
+        assertThat(pieceConfiguration.generateMoves(moves)).isEqualTo(2);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1})
+    void countUndevelopedPiecesBySide_startingPosition(int side) {
+        final CompactPieceConfiguration pieceConfiguration = (CompactPieceConfiguration) FENReader.read(
+            STARTING_POSITION, CompactPieceConfiguration.class);
+
+        assertThat(pieceConfiguration.countUndevelopedPiecesBySide(side)).isEqualTo(16);
+        assertThat(pieceConfiguration.countPieces()).isEqualTo(32);
+    }
+
+    private static List<Short> toList(short[] moves, int moveCount) {
+        final List<Short> moveList = new ArrayList<>(moveCount);
+        for(int i = 0; i < moveCount; i++) {
+            moveList.add(moves[i]);
+        }
+        return moveList;
+    }
+
+    private static void collectPositions(PieceConfiguration pieceConfiguration, int depth, List<String> corpus) {
+        corpus.add(FENWriter.write(pieceConfiguration));
+        if (depth > 0) {
+            for(PieceConfiguration onwardConfiguration : pieceConfiguration.getOnwardConfigurations()) {
+                collectPositions(onwardConfiguration, depth - 1, corpus);
+            }
+        }
+    }
+}
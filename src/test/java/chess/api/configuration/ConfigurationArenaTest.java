@@ -0,0 +1,104 @@
+package chess.api.configuration;
+
+import chess.api.FENReader;
+import chess.api.FENWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static chess.api.FENWriter.STARTING_POSITION;
+import static chess.api.MoveDescriber.getMoveFromAlgebraicNotation;
+import static chess.api.configuration.PieceConfiguration.MAX_MOVE_COUNT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ConfigurationArenaTest {
+
+    @ParameterizedTest
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
+    void toNewConfigurationFromMove_matchesNewConfiguration(Class<? extends PieceConfiguration> configurationClass) {
+        final PieceConfiguration pieceConfiguration = FENReader.read(
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", configurationClass);
+        final ConfigurationArena arena = new ConfigurationArena();
+        final short[] moves = arena.getMoveBuffer(0);
+        final int moveCount = pieceConfiguration.generateMoves(moves);
+
+        for(int i = 0; i < moveCount; i++) {
+            final PieceConfiguration expectedConfiguration = PieceConfiguration.toNewConfigurationFromMove(
+                pieceConfiguration, moves[i]);
+
+            final PieceConfiguration onwardConfiguration = arena.toNewConfigurationFromMove(
+                pieceConfiguration, moves[i], 0);
+
+            assertThat(onwardConfiguration).isInstanceOf(configurationClass);
+            assertThat(FENWriter.write(onwardConfiguration)).isEqualTo(FENWriter.write(expectedConfiguration));
+            assertThat(onwardConfiguration.getZobristKey()).isEqualTo(expectedConfiguration.getZobristKey());
+            assertThat(onwardConfiguration.isCheck()).isEqualTo(expectedConfiguration.isCheck());
+            assertThat(onwardConfiguration.getHistoricMoves()).isEqualTo(expectedConfiguration.getHistoricMoves());
+            assertThat(onwardConfiguration.getHistoricZobristKeys()).isEqualTo(expectedConfiguration.getHistoricZobristKeys());
+        }
+    }
+
+    @Test
+    void toNewConfigurationFromMove_reusesConfigurationForPly() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(STARTING_POSITION, CompactPieceConfiguration.class);
+        final ConfigurationArena arena = new ConfigurationArena();
+
+        final PieceConfiguration firstConfiguration = arena.toNewConfigurationFromMove(
+            pieceConfiguration, getMoveFromAlgebraicNotation("e2e4"), 0);
+        final MoveHistory firstMoveHistory = firstConfiguration.getMoveHistory();
+        final PieceConfiguration replyConfiguration = arena.toNewConfigurationFromMove(
+            firstConfiguration, getMoveFromAlgebraicNotation("e7e5"), 1);
+        final PieceConfiguration secondConfiguration = arena.toNewConfigurationFromMove(
+            pieceConfiguration, getMoveFromAlgebraicNotation("d2d4"), 0);
+
+        assertThat(secondConfiguration).isSameAs(firstConfiguration);
+        assertThat(replyConfiguration).isNotSameAs(firstConfiguration);
+        assertThat(secondConfiguration.getMoveHistory()).isSameAs(firstMoveHistory);
+        assertThat(secondConfiguration.getHistoricMoves()).containsExactly(getMoveFromAlgebraicNotation("d2d4"));
+        assertThat(FENWriter.write(secondConfiguration))
+            .isEqualTo("rnbqkbnr/pppppppp/8/8/3P4/8/PPP1PPPP/RNBQKBNR b KQkq d3 0 1");
+    }
+
+    @Test
+    void toNewConfigurationFromMove_replacesConfigurationOfAnotherImplementation() {
+        final ConfigurationArena arena = new ConfigurationArena();
+        final short move = getMoveFromAlgebraicNotation("e2e4");
+        final PieceConfiguration longsConfiguration = arena.toNewConfigurationFromMove(
+            FENReader.read(STARTING_POSITION, LongsPieceConfiguration.class), move, 0);
+
+        final PieceConfiguration compactConfiguration = arena.toNewConfigurationFromMove(
+            FENReader.read(STARTING_POSITION, CompactPieceConfiguration.class), move, 0);
+
+        assertThat(longsConfiguration).isInstanceOf(LongsPieceConfiguration.class);
+        assertThat(compactConfiguration).isInstanceOf(CompactPieceConfiguration.class);
+        assertThat(FENWriter.write(compactConfiguration)).isEqualTo(FENWriter.write(longsConfiguration));
+    }
+
+    @Test
+    void toNewConfigurationFromMove_withoutHistoricMoves() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(STARTING_POSITION, CompactPieceConfiguration.class);
+        final ConfigurationArena arena = new ConfigurationArena();
+        arena.toNewConfigurationFromMove(pieceConfiguration, getMoveFromAlgebraicNotation("e2e4"), 0);
+        pieceConfiguration.setHistoricMoves(null);
+
+        final PieceConfiguration onwardConfiguration = arena.toNewConfigurationFromMove(
+            pieceConfiguration, getMoveFromAlgebraicNotation("d2d4"), 0);
+
+        assertThat(onwardConfiguration.getHistoricMoves()).isNull();
+    }
+
+    @Test
+    void getMoveBufferAndGenerators_reusedForPly() {
+        final ConfigurationArena arena = new ConfigurationArena();
+
+        final short[] moveBuffer = arena.getMoveBuffer(2);
+        final StagedMoveGenerator moveGenerator = arena.getMoveGenerator(2);
+        final StagedMoveGenerator[] moveGenerators = arena.getMoveGenerators(4);
+
+        assertThat(moveBuffer).hasSize(MAX_MOVE_COUNT);
+        assertThat(arena.getMoveBuffer(2)).isSameAs(moveBuffer);
+        assertThat(arena.getMoveGenerator(2)).isSameAs(moveGenerator);
+        assertThat(moveGenerators.length).isGreaterThanOrEqualTo(4);
+        assertThat(moveGenerators[2]).isSameAs(moveGenerator);
+    }
+}
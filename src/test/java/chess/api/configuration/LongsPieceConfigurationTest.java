@@ -1,14 +1,24 @@
 package chess.api.configuration;
 
 import chess.api.FENReader;
+import chess.api.FENWriter;
+import chess.api.MoveDescriber;
+import chess.api.pieces.MagicBitboards;
+import chess.api.pieces.Piece;
+import com.sun.management.ThreadMXBean;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
 import static chess.api.BitUtil.hasBitFlag;
 import static chess.api.FENWriter.STARTING_POSITION;
 import static chess.api.configuration.PieceConfiguration.*;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public class LongsPieceConfigurationTest {
 
@@ -109,4 +119,322 @@ public class LongsPieceConfigurationTest {
             .as("The lesser score should favour piece development")
             .isLessThan(lessDevelopedLesserScore);
     }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        STARTING_POSITION,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3"
+    })
+    void makeMove_matchesNewConfigurationFromMove(String fen) {
+        final LongsPieceConfiguration pieceConfiguration = (LongsPieceConfiguration) FENReader.read(
+            fen, LongsPieceConfiguration.class);
+        final short[] moves = new short[MAX_MOVE_COUNT];
+        final int moveCount = pieceConfiguration.generateMoves(moves);
+
+        final long zobristKey = pieceConfiguration.getZobristKey();
+
+        for(int i = 0; i < moveCount; i++) {
+            final PieceConfiguration expectedConfiguration = toNewConfigurationFromMove(pieceConfiguration, moves[i]);
+            pieceConfiguration.makeMove(moves[i]);
+
+            assertThat(FENWriter.write(pieceConfiguration)).isEqualTo(FENWriter.write(expectedConfiguration));
+            assertThat(pieceConfiguration.getZobristKey()).isEqualTo(expectedConfiguration.getZobristKey());
+
+            pieceConfiguration.unmakeMove();
+
+            assertThat(FENWriter.write(pieceConfiguration)).isEqualTo(fen);
+            assertThat(pieceConfiguration.getZobristKey()).isEqualTo(zobristKey);
+        }
+    }
+
+    @Test
+    void getPieceAndColourFlags_followsMadeAndUnmadeMoves() {
+        final String fen = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+        final LongsPieceConfiguration pieceConfiguration = (LongsPieceConfiguration) FENReader.read(
+            fen, LongsPieceConfiguration.class);
+        final PieceConfiguration compactConfiguration = FENReader.read(fen, CompactPieceConfiguration.class);
+        final short[] moves = new short[MAX_MOVE_COUNT];
+        final int moveCount = pieceConfiguration.generateMoves(moves);
+
+        for(int i = 0; i < moveCount; i++) {
+            pieceConfiguration.makeMove(moves[i]);
+            // The compact configuration holds its pieces in data planes only
+            final PieceConfiguration expectedConfiguration = toNewConfigurationFromMove(compactConfiguration, moves[i]);
+            for(int position = 0; position < 64; position++) {
+                assertThat(pieceConfiguration.getPieceAndColourFlags(position))
+                    .as("Unexpected piece at position %d after %s", position,
+                        MoveDescriber.getAlgebraicNotation(moves[i]))
+                    .isEqualTo(expectedConfiguration.getPieceAndColourFlags(position));
+            }
+            pieceConfiguration.unmakeMove();
+        }
+    }
+
+    @Test
+    void unmakeMove_reversesSequenceOfMoves() {
+        final LongsPieceConfiguration pieceConfiguration = (LongsPieceConfiguration) FENReader.read(
+            STARTING_POSITION, LongsPieceConfiguration.class);
+        final String[] algebraicNotations = {"e2e4", "d7d5", "e4d5", "e7e5", "d5e6", "g8f6", "e6f7", "e8e7", "f7g8q"};
+
+        for(String algebraicNotation : algebraicNotations) {
+            pieceConfiguration.makeMove(MoveDescriber.getMoveFromAlgebraicNotation(algebraicNotation));
+        }
+
+        assertThat(FENWriter.write(pieceConfiguration))
+            .isEqualTo("rnbq1bQr/ppp1k1pp/5n2/8/8/8/PPPP1PPP/RNBQKBNR b KQ - 0 5");
+
+        for(int i = 0; i < algebraicNotations.length; i++) {
+            pieceConfiguration.unmakeMove();
+        }
+
+        assertThat(FENWriter.write(pieceConfiguration)).isEqualTo(STARTING_POSITION);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        STARTING_POSITION,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+        "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"
+    })
+    void setHigherBitFlags_matchesPerPieceStamping(String fen) {
+        final List<String> corpus = new ArrayList<>();
+        collectPositions(FENReader.read(fen, LongsPieceConfiguration.class), 2, corpus);
+
+        for(String corpusFen : corpus) {
+            final LongsPieceConfiguration longsConfiguration = (LongsPieceConfiguration) FENReader.read(corpusFen, LongsPieceConfiguration.class);
+            final PieceConfiguration intsConfiguration = FENReader.read(corpusFen, IntsPieceConfiguration.class);
+            longsConfiguration.setHigherBitFlags();
+            intsConfiguration.setHigherBitFlags();
+
+            for(int position = 0; position < 64; position++) {
+                final int intsFlags = intsConfiguration.getPieceAtPosition(position);
+                // Pins and checks are held as masks rather than flags on the positions
+                assertThat(longsConfiguration.getPieceAtPosition(position))
+                    .as("Unexpected flags at position %d of %s", position, corpusFen)
+                    .isEqualTo(intsFlags & ~(ALL_DIRECTIONAL_FLAGS_COMBINED | DOES_NOT_BLOCK_CHECK));
+                assertThat(longsConfiguration.isIneffectiveCheckBlockAttempt(position))
+                    .as("Unexpected check block at position %d of %s", position, corpusFen)
+                    .isEqualTo(intsConfiguration.isIneffectiveCheckBlockAttempt(position));
+                final boolean isPinned = hasBitFlag(intsFlags, PLAYER_OCCUPIED)
+                    && !hasBitFlag(intsFlags, KING_OCCUPIED)
+                    && (intsFlags & ALL_DIRECTIONAL_FLAGS_COMBINED) != 0;
+                assertThat((longsConfiguration.getPinnedData() & (1L << position)) != 0)
+                    .as("Unexpected pin at position %d of %s", position, corpusFen)
+                    .isEqualTo(isPinned);
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        STARTING_POSITION,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3"
+    })
+    void generateMoves_matchesPerPieceGeneration(String fen) {
+        final List<String> corpus = new ArrayList<>();
+        collectPositions(FENReader.read(fen, LongsPieceConfiguration.class), 2, corpus);
+        final short[] moves = new short[MAX_MOVE_COUNT];
+        final short[] pieceMoves = new short[MAX_MOVE_COUNT];
+
+        for(String corpusFen : corpus) {
+            final LongsPieceConfiguration pieceConfiguration = (LongsPieceConfiguration) FENReader.read(
+                corpusFen, LongsPieceConfiguration.class);
+            final int moveCount = pieceConfiguration.generateMoves(moves);
+            int pieceMoveCount = 0;
+            for(int position = 0; position < 64; position++) {
+                if (pieceConfiguration.isPlayerOccupied(position)) {
+                    pieceMoveCount = Piece.generateMoves(pieceConfiguration.getPieceAndColourWithPosition(position),
+                        pieceConfiguration, pieceMoves, pieceMoveCount);
+                }
+            }
+
+            assertThat(toList(moves, moveCount))
+                .as("Unexpected moves of %s", corpusFen)
+                .containsExactlyInAnyOrderElementsOf(toList(pieceMoves, pieceMoveCount));
+        }
+    }
+
+    @Test
+    void generateMoves_allocatesNothingOnceWarmedUp() {
+        final ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled());
+        final LongsPieceConfiguration[] pieceConfigurations = {
+            (LongsPieceConfiguration) FENReader.read(
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", LongsPieceConfiguration.class),
+            (LongsPieceConfiguration) FENReader.read(
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", LongsPieceConfiguration.class),
+            (LongsPieceConfiguration) FENReader.read(
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", LongsPieceConfiguration.class)
+        };
+        final short[][] moveBuffers = new short[3][MAX_MOVE_COUNT];
+        // The first walk grows the undo buffers and loads the classes involved
+        for(LongsPieceConfiguration pieceConfiguration : pieceConfigurations) {
+            walkMoves(pieceConfiguration, 3, moveBuffers);
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedBytesBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long moveCount = 0;
+        for(LongsPieceConfiguration pieceConfiguration : pieceConfigurations) {
+            moveCount += walkMoves(pieceConfiguration, 3, moveBuffers);
+        }
+        final long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBytesBefore;
+
+        assertThat(allocatedBytes)
+            .as("Allocated %f bytes per generated move", (double) allocatedBytes / moveCount)
+            .isZero();
+    }
+
+    @Test
+    void setHigherBitFlags_stampsCheckMask() {
+        // The black bishop on b4 checks the white king on e1
+        final LongsPieceConfiguration pieceConfiguration = (LongsPieceConfiguration) FENReader.read(
+            "rnbqk1nr/pppp1ppp/8/4p3/1b1P4/8/PPP1PPPP/RNBQKBNR w KQkq - 1 3", LongsPieceConfiguration.class);
+        pieceConfiguration.setHigherBitFlags();
+
+        assertThat(pieceConfiguration.getCheckersData()).isEqualTo(1L << 25);
+        // The check can be answered on b4, c3 or d2
+        assertThat(pieceConfiguration.getCheckMaskData()).isEqualTo((1L << 25) | (1L << 18) | (1L << 11));
+        assertThat(pieceConfiguration.getPinnedData()).isZero();
+        assertThat(pieceConfiguration.isCheck()).isTrue();
+    }
+
+    @Test
+    void setHigherBitFlags_doubleCheckLeavesEmptyCheckMask() {
+        // The black rook on e8 and the black knight on d3 both check the white king on e1
+        final LongsPieceConfiguration pieceConfiguration = (LongsPieceConfiguration) FENReader.read(
+            "4r1k1/8/8/8/8/3n4/8/4K3 w - - 0 1", LongsPieceConfiguration.class);
+        pieceConfiguration.setHigherBitFlags();
+
+        assertThat(pieceConfiguration.getCheckersData()).isEqualTo((1L << 60) | (1L << 19));
+        assertThat(pieceConfiguration.getCheckMaskData()).isZero();
+        // Only the king can move
+        final short[] moves = new short[MAX_MOVE_COUNT];
+        final int moveCount = pieceConfiguration.generateMoves(moves);
+        for(int i = 0; i < moveCount; i++) {
+            assertThat((moves[i] >> 6) & 63).isEqualTo(4);
+        }
+    }
+
+    @Test
+    void getMovableData_restrictsPinnedPieceToPinLine() {
+        // The white rook on e4 is pinned by the black queen on e8, and the white bishop on d2 by the black bishop on b4
+        final LongsPieceConfiguration pieceConfiguration = (LongsPieceConfiguration) FENReader.read(
+            "4q1k1/8/8/8/1b2R3/8/3B4/4K3 w - - 0 1", LongsPieceConfiguration.class);
+        pieceConfiguration.setHigherBitFlags();
+
+        assertThat(pieceConfiguration.getPinnedData()).isEqualTo((1L << 28) | (1L << 11));
+        assertThat(pieceConfiguration.getCheckersData()).isZero();
+        assertThat(pieceConfiguration.getCheckMaskData()).isEqualTo(-1L);
+        // The rook can move along the e-file up to and including the queen
+        assertThat(pieceConfiguration.getMovableData(28) & MagicBitboards.getRookAttacks(28, pieceConfiguration.getOccupiedData()))
+            .isEqualTo(0x1010101000101000L);
+        // The bishop can only take the pinning bishop or move to c3
+        assertThat(pieceConfiguration.getMovableData(11) & MagicBitboards.getBishopAttacks(11, pieceConfiguration.getOccupiedData()))
+            .isEqualTo((1L << 25) | (1L << 18));
+    }
+
+    @Test
+    void isLegalEnPassantCapture_detectsKingExposedAlongRank() {
+        // Taking e6 en passant from d5 would leave the white king on a5 exposed to the black rook on h5
+        final LongsPieceConfiguration pieceConfiguration = (LongsPieceConfiguration) FENReader.read(
+            "4k3/8/8/K2Pp2r/8/8/8/8 w - e6 0 2", LongsPieceConfiguration.class);
+        pieceConfiguration.setHigherBitFlags();
+
+        assertThat(pieceConfiguration.isLegalEnPassantCapture(35, 44)).isFalse();
+    }
+
+    @Test
+    void isLegalEnPassantCapture_allowsTakingCheckingPawn() {
+        // The black pawn on e5 checks the white king on f4 and can be taken en passant from d5
+        final LongsPieceConfiguration pieceConfiguration = (LongsPieceConfiguration) FENReader.read(
+            "4k3/8/8/3Pp3/5K2/8/8/8 w - e6 0 2", LongsPieceConfiguration.class);
+        pieceConfiguration.setHigherBitFlags();
+
+        assertThat(pieceConfiguration.getCheckersData()).isEqualTo(1L << 36);
+        assertThat(pieceConfiguration.isLegalEnPassantCapture(35, 44)).isTrue();
+        final List<String> moves = new ArrayList<>();
+        final short[] buffer = new short[MAX_MOVE_COUNT];
+        final int moveCount = pieceConfiguration.generateMoves(buffer);
+        for(int i = 0; i < moveCount; i++) {
+            moves.add(MoveDescriber.getAlgebraicNotation(buffer[i]));
+        }
+        assertThat(moves).contains("d5e6");
+    }
+
+    @Test
+    void derivedData_followsPieceChanges() {
+        final LongsPieceConfiguration pieceConfiguration = (LongsPieceConfiguration) FENReader.read(
+            "4k3/8/8/8/8/8/8/4K3 w - - 0 1", LongsPieceConfiguration.class);
+        assertThat(pieceConfiguration.isCheck()).isFalse();
+        assertThat(pieceConfiguration.isThreatened(12)).isFalse();
+
+        // A black rook on e5 checks the white king once it is added
+        pieceConfiguration.addPiece(BLACK_OCCUPIED | ROOK_OCCUPIED | 36);
+        assertThat(pieceConfiguration.isThreatened(12)).isTrue();
+        assertThat(pieceConfiguration.isCheck()).isTrue();
+        assertThat(pieceConfiguration.getCheckMaskData()).isEqualTo(0x0000001010101000L);
+
+        pieceConfiguration.removePiece(36);
+        assertThat(pieceConfiguration.isCheck()).isFalse();
+        assertThat(pieceConfiguration.getCheckMaskData()).isEqualTo(-1L);
+    }
+
+    @Test
+    void derivedData_followsAuxiliaryDataChanges() {
+        final LongsPieceConfiguration pieceConfiguration = (LongsPieceConfiguration) FENReader.read(
+            STARTING_POSITION, LongsPieceConfiguration.class);
+        assertThat(pieceConfiguration.isPlayerOccupied(4)).isTrue();
+        assertThat(pieceConfiguration.isCastleAvailable(6)).isTrue();
+
+        pieceConfiguration.setTurnSide(1);
+        assertThat(pieceConfiguration.isPlayerOccupied(4)).isFalse();
+        assertThat(pieceConfiguration.isPlayerOccupied(60)).isTrue();
+
+        pieceConfiguration.removeCastlePosition(6);
+        assertThat(pieceConfiguration.isCastleAvailable(6)).isFalse();
+    }
+
+    private static long walkMoves(LongsPieceConfiguration pieceConfiguration, int depth, short[][] moveBuffers) {
+        final short[] moves = moveBuffers[depth - 1];
+        long moveCount = pieceConfiguration.generateCaptures(moves)
+            + pieceConfiguration.generatePromotions(moves)
+            + pieceConfiguration.generateQuietMoves(moves);
+        final int onwardMoveCount = pieceConfiguration.generateMoves(moves);
+        moveCount += onwardMoveCount;
+        if (depth > 1) {
+            for(int i = 0; i < onwardMoveCount; i++) {
+                pieceConfiguration.makeMove(moves[i]);
+                pieceConfiguration.isCheck();
+                moveCount += walkMoves(pieceConfiguration, depth - 1, moveBuffers);
+                pieceConfiguration.unmakeMove();
+            }
+        }
+        return moveCount;
+    }
+
+    private static List<Short> toList(short[] moves, int moveCount) {
+        final List<Short> moveList = new ArrayList<>(moveCount);
+        for(int i = 0; i < moveCount; i++) {
+            moveList.add(moves[i]);
+        }
+        return moveList;
+    }
+
+    private static void collectPositions(PieceConfiguration pieceConfiguration, int depth, List<String> corpus) {
+        corpus.add(FENWriter.write(pieceConfiguration));
+        if (depth > 0) {
+            for(PieceConfiguration onwardConfiguration : pieceConfiguration.getOnwardConfigurations()) {
+                collectPositions(onwardConfiguration, depth - 1, corpus);
+            }
+        }
+    }
 }
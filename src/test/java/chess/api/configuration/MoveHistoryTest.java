@@ -0,0 +1,53 @@
+package chess.api.configuration;
+
+import chess.api.FENReader;
+import chess.api.FENWriter;
+import org.junit.jupiter.api.Test;
+
+import static chess.api.MoveDescriber.getMoveFromAlgebraicNotation;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MoveHistoryTest {
+
+    @Test
+    void append_leavesPreviousHistoryUnchanged() {
+        final short firstMove = getMoveFromAlgebraicNotation("e2e4");
+        final short secondMove = getMoveFromAlgebraicNotation("e7e5");
+        final MoveHistory firstMoveHistory = MoveHistory.EMPTY.append(firstMove);
+
+        final MoveHistory secondMoveHistory = firstMoveHistory.append(secondMove);
+
+        assertThat(firstMoveHistory.getLength()).isEqualTo(1);
+        assertThat(firstMoveHistory.toArray()).containsExactly(firstMove);
+        assertThat(secondMoveHistory.getLength()).isEqualTo(2);
+        assertThat(secondMoveHistory.getMove()).isEqualTo(secondMove);
+        assertThat(secondMoveHistory.getPreviousMoveHistory()).isSameAs(firstMoveHistory);
+        assertThat(secondMoveHistory.toArray()).containsExactly(firstMove, secondMove);
+        assertThat(MoveHistory.EMPTY.toArray()).isEmpty();
+    }
+
+    @Test
+    void of_keepsMoveOrder() {
+        final short[] moves = {getMoveFromAlgebraicNotation("g1f3"), getMoveFromAlgebraicNotation("b8c6"),
+            getMoveFromAlgebraicNotation("f3g1")};
+
+        assertThat(MoveHistory.of(moves).toArray()).containsExactly(moves);
+        assertThat(MoveHistory.of(moves).getLength()).isEqualTo(3);
+    }
+
+    @Test
+    void toNewConfigurationFromMove_sharesPreviousHistory() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(
+            FENWriter.STARTING_POSITION, LongsPieceConfiguration.class);
+
+        final PieceConfiguration firstConfiguration = PieceConfiguration.toNewConfigurationFromMove(
+            pieceConfiguration, getMoveFromAlgebraicNotation("e2e4"));
+        final PieceConfiguration secondConfiguration = PieceConfiguration.toNewConfigurationFromMove(
+            pieceConfiguration, getMoveFromAlgebraicNotation("d2d4"));
+
+        assertThat(pieceConfiguration.getMoveHistory()).isSameAs(MoveHistory.EMPTY);
+        assertThat(firstConfiguration.getMoveHistory().getPreviousMoveHistory()).isSameAs(MoveHistory.EMPTY);
+        assertThat(secondConfiguration.getMoveHistory().getPreviousMoveHistory()).isSameAs(MoveHistory.EMPTY);
+        assertThat(secondConfiguration.getHistoricMoves()).containsExactly(getMoveFromAlgebraicNotation("d2d4"));
+    }
+}
@@ -0,0 +1,90 @@
+package chess.api.configuration;
+
+import chess.api.FENReader;
+import chess.api.FENWriter;
+import chess.api.perft.Perft;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static chess.api.FENWriter.STARTING_POSITION;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PackedPositionTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        STARTING_POSITION,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R b KQ - 0 1",
+        "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 1"
+    })
+    void encodeAndDecode_roundTrip(String fen) {
+        final PackedPosition packedPosition = PackedPosition.encode(FENReader.read(fen, LongsPieceConfiguration.class));
+
+        for(Class<? extends PieceConfiguration> configurationClass : List.of(IntsPieceConfiguration.class,
+                LongsPieceConfiguration.class, CompactPieceConfiguration.class)) {
+            final PieceConfiguration decodedConfiguration = packedPosition.decode(configurationClass);
+            assertThat(FENWriter.write(decodedConfiguration)).isEqualTo(fen);
+            assertThat(decodedConfiguration.getZobristKey())
+                .isEqualTo(FENReader.read(fen, configurationClass).getZobristKey());
+        }
+        assertThat(PackedPosition.fromBytes(packedPosition.toBytes())).isEqualTo(packedPosition);
+        assertThat(packedPosition.toBytes().length).isEqualTo(PackedPosition.ENCODED_LENGTH);
+    }
+
+    @Test
+    void decode_generatesSameMoves() {
+        final String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+        final PackedPosition packedPosition = PackedPosition.encode(FENReader.read(fen, CompactPieceConfiguration.class));
+
+        assertThat(Perft.perft(packedPosition.decode(LongsPieceConfiguration.class), 3)).isEqualTo(97862L);
+    }
+
+    @Test
+    void encode_ignoresMoveCounters() {
+        final PackedPosition packedPosition = PackedPosition.encode(
+            FENReader.read("r3k2r/8/8/8/8/8/8/R3K2R b Kq - 12 40", IntsPieceConfiguration.class));
+
+        assertThat(packedPosition).isEqualTo(PackedPosition.encode(
+            FENReader.read("r3k2r/8/8/8/8/8/8/R3K2R b Kq - 0 1", LongsPieceConfiguration.class)));
+        assertThat(packedPosition.hashCode()).isEqualTo(PackedPosition.encode(
+            FENReader.read("r3k2r/8/8/8/8/8/8/R3K2R b Kq - 3 7", CompactPieceConfiguration.class)).hashCode());
+        assertThat(packedPosition).isNotEqualTo(PackedPosition.encode(
+            FENReader.read("r3k2r/8/8/8/8/8/8/R3K2R w Kq - 0 1", LongsPieceConfiguration.class)));
+        assertThat(FENWriter.write(packedPosition.decode(LongsPieceConfiguration.class)))
+            .isEqualTo("r3k2r/8/8/8/8/8/8/R3K2R b Kq - 0 1");
+    }
+
+    @Test
+    void encode_withTooManyPieces() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(
+            "rnbqkbnr/pppppppp/8/8/8/P7/PPPPPPPP/RNBQKBNR w KQkq - 0 1", LongsPieceConfiguration.class);
+
+        assertThatThrownBy(() -> PackedPosition.encode(pieceConfiguration))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Positions with more than 32 pieces can't be packed");
+    }
+
+    @Test
+    void fromBytes_withWrongLength() {
+        assertThatThrownBy(() -> PackedPosition.fromBytes(new byte[24]))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("A packed position must be 28 bytes long, not 24");
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0b0111L, 0b1000L})
+    void decode_withInvalidPieceCode(long pieceCode) {
+        final PackedPosition packedPosition = new PackedPosition(1L, pieceCode, 0L, Integer.MIN_VALUE);
+
+        assertThatThrownBy(() -> packedPosition.decode(LongsPieceConfiguration.class))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage(pieceCode + " is not a packed piece code");
+    }
+}
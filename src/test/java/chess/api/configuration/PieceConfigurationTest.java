@@ -2,12 +2,14 @@ package chess.api.configuration;
 
 import chess.api.FENReader;
 import chess.api.FENWriter;
+import chess.api.MoveDescriber;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -158,7 +160,7 @@ public class PieceConfigurationTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testGetAlgebraicNotation_fromStartingPosition(Class<? extends PieceConfiguration> configurationClass) {
         final PieceConfiguration pieceConfiguration1 = FENReader.read(FENWriter.STARTING_POSITION, configurationClass);
         final int pieceBitFlag = pieceConfiguration1.getPieceAtPosition(12);
@@ -171,7 +173,90 @@ public class PieceConfigurationTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
+    void testGenerateMoves_fromStartingPosition(Class<? extends PieceConfiguration> configurationClass) {
+        final PieceConfiguration pieceConfiguration = FENReader.read(FENWriter.STARTING_POSITION, configurationClass);
+        final short[] moves = new short[PieceConfiguration.MAX_MOVE_COUNT];
+
+        final int moveCount = pieceConfiguration.generateMoves(moves);
+
+        assertThat(moveCount).isEqualTo(20);
+        assertThat(Arrays.asList(toBoxedMoves(moves, moveCount)))
+            .contains(MoveDescriber.describeMove(12, 28, 0), MoveDescriber.describeMove(6, 21, 0));
+    }
+
+    @ParameterizedTest
+    @MethodSource("getLegalMoveCountArguments")
+    void testCountLegalMoves(Class<? extends PieceConfiguration> configurationClass, String fen, int expectedMoveCount) {
+        final PieceConfiguration pieceConfiguration = FENReader.read(fen, configurationClass);
+
+        assertThat(pieceConfiguration.countLegalMoves()).isEqualTo(expectedMoveCount);
+        assertThat(pieceConfiguration.hasAnyLegalMove()).isEqualTo(expectedMoveCount > 0);
+        assertThat(pieceConfiguration.getOnwardConfigurations()).hasSize(expectedMoveCount);
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
+    void testGenerateMoves_matchesOnwardConfigurations(Class<? extends PieceConfiguration> configurationClass) {
+        final PieceConfiguration pieceConfiguration = FENReader.read(
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", configurationClass);
+        final short[] moves = new short[PieceConfiguration.MAX_MOVE_COUNT];
+
+        final int moveCount = pieceConfiguration.generateMoves(moves);
+        final List<String> fensFromMoves = Arrays.stream(toBoxedMoves(moves, moveCount))
+            .map(move -> FENWriter.write(PieceConfiguration.toNewConfigurationFromMove(pieceConfiguration, move)))
+            .toList();
+        final List<String> fensFromOnwardConfigurations = pieceConfiguration.getOnwardConfigurations()
+            .stream()
+            .map(FENWriter::write)
+            .toList();
+
+        assertThat(moveCount).isEqualTo(48);
+        assertThat(fensFromMoves).isEqualTo(fensFromOnwardConfigurations);
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
+    void testGetZobristKey_matchesKeyFromFENAfterEachMove(Class<? extends PieceConfiguration> configurationClass) {
+        PieceConfiguration pieceConfiguration = FENReader.read(
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", configurationClass);
+        final String[] algebraicNotations = {"a2a4", "b4a3", "e1c1", "h3g2", "e5f7", "g2h1q", "f7h8", "e8d8"};
+
+        for(String algebraicNotation : algebraicNotations) {
+            final short move = MoveDescriber.getMoveFromAlgebraicNotation(algebraicNotation);
+            pieceConfiguration = PieceConfiguration.toNewConfigurationFromMove(pieceConfiguration, move);
+            final PieceConfiguration expectedConfiguration = FENReader.read(
+                FENWriter.write(pieceConfiguration), configurationClass);
+
+            assertThat(pieceConfiguration.getZobristKey())
+                .as("Unexpected Zobrist key after %s", algebraicNotation)
+                .isEqualTo(expectedConfiguration.getZobristKey());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
+    void testGetZobristKey_transposition(Class<? extends PieceConfiguration> configurationClass) {
+        final PieceConfiguration startingConfiguration = FENReader.read(FENWriter.STARTING_POSITION, configurationClass);
+        PieceConfiguration pieceConfiguration = startingConfiguration;
+
+        for(String algebraicNotation : new String[]{"g1f3", "g8f6", "f3g1"}) {
+            final short move = MoveDescriber.getMoveFromAlgebraicNotation(algebraicNotation);
+            pieceConfiguration = PieceConfiguration.toNewConfigurationFromMove(pieceConfiguration, move);
+        }
+
+        assertThat(pieceConfiguration.getZobristKey())
+            .as("The same pieces with a different side to move should have a different key")
+            .isNotEqualTo(startingConfiguration.getZobristKey());
+
+        pieceConfiguration = PieceConfiguration.toNewConfigurationFromMove(
+            pieceConfiguration, MoveDescriber.getMoveFromAlgebraicNotation("f6g8"));
+
+        assertThat(pieceConfiguration.getZobristKey()).isEqualTo(startingConfiguration.getZobristKey());
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testStartingDifferential(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = FENReader.read(
             "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", configurationClass);
@@ -182,7 +267,7 @@ public class PieceConfigurationTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testPlayerTeamTotalValue(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = FENReader.read(
             "8/8/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", configurationClass);
@@ -193,7 +278,7 @@ public class PieceConfigurationTest {
     }
 
     @ParameterizedTest
-    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class})
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
     void testOpponentTotalValue(Class<? extends PieceConfiguration> configurationClass) {
         PieceConfiguration pieceConfiguration = FENReader.read(
             "rnbqkbnr/pppppppp/8/8/8/8/8/8 w KQkq - 0 1", configurationClass);
@@ -210,6 +295,73 @@ public class PieceConfigurationTest {
         assertThat(pieceConfiguration.isThreefoldRepetitionFailure()).isEqualTo(expectedIsFailure);
     }
 
+    @ParameterizedTest
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
+    void isThreefoldRepetitionFailure_afterMoves(Class<? extends PieceConfiguration> configurationClass) {
+        final String[] algebraicNotations = {"g1f3", "g8f6", "f3g1", "f6g8", "g1f3", "g8f6", "f3g1", "f6g8"};
+        PieceConfiguration pieceConfiguration = FENReader.read(FENWriter.STARTING_POSITION, configurationClass);
+
+        for(int index = 0; index < algebraicNotations.length; index++) {
+            assertThat(pieceConfiguration.isThreefoldRepetitionFailure()).isFalse();
+            pieceConfiguration = PieceConfiguration.toNewConfigurationFromMove(
+                pieceConfiguration, MoveDescriber.getMoveFromAlgebraicNotation(algebraicNotations[index]));
+        }
+
+        assertThat(pieceConfiguration.isThreefoldRepetitionFailure()).isTrue();
+    }
+
+    @Test
+    void isThreefoldRepetitionFailure_afterMadeMoves() {
+        final String[] algebraicNotations = {"g1f3", "g8f6", "f3g1", "f6g8", "g1f3", "g8f6", "f3g1", "f6g8"};
+        final LongsPieceConfiguration pieceConfiguration = (LongsPieceConfiguration) FENReader.read(
+            FENWriter.STARTING_POSITION, LongsPieceConfiguration.class);
+
+        for(String algebraicNotation : algebraicNotations) {
+            pieceConfiguration.makeMove(MoveDescriber.getMoveFromAlgebraicNotation(algebraicNotation));
+        }
+        assertThat(pieceConfiguration.isThreefoldRepetitionFailure()).isTrue();
+
+        pieceConfiguration.unmakeMove();
+        pieceConfiguration.unmakeMove();
+        assertThat(pieceConfiguration.isThreefoldRepetitionFailure()).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
+    void isThreefoldRepetitionFailure_afterMovesWithBranches(Class<? extends PieceConfiguration> configurationClass) {
+        final String[] algebraicNotations = {"g1f3", "g8f6", "f3g1", "f6g8", "g1f3", "g8f6", "f3g1", "f6g8"};
+        final String[][] branchAlgebraicNotations = {{"b1c3", "b8c6"}, {"b8c6", "b1c3"}};
+        PieceConfiguration pieceConfiguration = FENReader.read(FENWriter.STARTING_POSITION, configurationClass);
+        PieceConfiguration branchConfiguration = pieceConfiguration;
+
+        for(int index = 0; index < algebraicNotations.length; index++) {
+            // Each branch leaves the main line, and is extended beyond where the main line has reached
+            final long[] historicZobristKeys = pieceConfiguration.getHistoricZobristKeys();
+            branchConfiguration = pieceConfiguration;
+            for(String branchAlgebraicNotation : branchAlgebraicNotations[pieceConfiguration.getTurnSide()]) {
+                branchConfiguration = toNewConfigurationFromMove(branchConfiguration, branchAlgebraicNotation);
+            }
+            assertThat(pieceConfiguration.getHistoricZobristKeys()).isEqualTo(historicZobristKeys);
+            pieceConfiguration = toNewConfigurationFromMove(pieceConfiguration, algebraicNotations[index]);
+        }
+
+        assertThat(pieceConfiguration.isThreefoldRepetitionFailure()).isTrue();
+        assertThat(branchConfiguration.isThreefoldRepetitionFailure()).isFalse();
+    }
+
+    @Test
+    void isThreefoldRepetitionFailure_ignoresPositionsBeforeHalfMoveClock() {
+        // The half move clock says the position has only been reached since the previous pawn move
+        final LongsPieceConfiguration pieceConfiguration = (LongsPieceConfiguration) FENReader.read(
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", LongsPieceConfiguration.class);
+        for(String algebraicNotation : new String[]{"g1f3", "g8f6", "f3g1", "f6g8"}) {
+            pieceConfiguration.makeMove(MoveDescriber.getMoveFromAlgebraicNotation(algebraicNotation));
+        }
+        pieceConfiguration.setHalfMoveClock(2);
+
+        assertThat(pieceConfiguration.isThreefoldRepetitionFailure()).isFalse();
+    }
+
     @ParameterizedTest
     @MethodSource("getDeadPositionArguments")
     void isDeadPosition(Class<? extends PieceConfiguration> configurationClass, String fen, boolean expectedResult) {
@@ -371,4 +523,36 @@ public class PieceConfigurationTest {
             Arguments.of(LongsPieceConfiguration.class, "k7/ppp5/8/8/8/8/8/7K w - - 10 50", false)
         );
     }
+
+    private static PieceConfiguration toNewConfigurationFromMove(PieceConfiguration pieceConfiguration,
+                                                                 String algebraicNotation) {
+        return PieceConfiguration.toNewConfigurationFromMove(
+            pieceConfiguration, MoveDescriber.getMoveFromAlgebraicNotation(algebraicNotation));
+    }
+
+    private static Short[] toBoxedMoves(short[] moves, int moveCount) {
+        final Short[] boxedMoves = new Short[moveCount];
+        for(int moveIndex = 0; moveIndex < moveCount; moveIndex++) {
+            boxedMoves[moveIndex] = moves[moveIndex];
+        }
+        return boxedMoves;
+    }
+
+    private static Stream<Arguments> getLegalMoveCountArguments() {
+        final Object[][] fensAndMoveCounts = {
+            {FENWriter.STARTING_POSITION, 20},
+            {"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 48},
+            {"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 14},
+            {"4k3/8/8/8/8/8/8/4K3 w - - 0 1", 5},
+            // Only the king can move, because the pawn is blocked
+            {"k7/8/8/8/8/p7/P7/K7 w - - 0 1", 1},
+            // Stalemate
+            {"k7/7R/8/8/8/8/8/1R5K b - - 0 50", 0},
+            // Checkmate
+            {"k7/1Q6/1K6/8/8/8/8/8 b - - 0 1", 0}
+        };
+        return Stream.of(IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class)
+            .flatMap(configurationClass -> Arrays.stream(fensAndMoveCounts)
+                .map(fenAndMoveCount -> Arguments.of(configurationClass, fenAndMoveCount[0], fenAndMoveCount[1])));
+    }
 }
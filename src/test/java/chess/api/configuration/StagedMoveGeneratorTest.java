@@ -0,0 +1,291 @@
+package chess.api.configuration;
+
+import chess.api.FENReader;
+import chess.api.FENWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static chess.api.FENWriter.STARTING_POSITION;
+import static chess.api.MoveDescriber.getMoveFromAlgebraicNotation;
+import static chess.api.configuration.PieceConfiguration.MAX_MOVE_COUNT;
+import static chess.api.configuration.StagedMoveGenerator.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StagedMoveGeneratorTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private static final String PROMOTIONS = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+
+    private static final String EN_PASSANT = "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3";
+
+    private static final String[] FENS = {
+        STARTING_POSITION,
+        KIWIPETE,
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        PROMOTIONS,
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+        EN_PASSANT
+    };
+
+    @ParameterizedTest
+    @MethodSource("getConfigurationArguments")
+    void nextMove_handsOutEveryMoveOnce(Class<? extends PieceConfiguration> configurationClass, String fen) {
+        final PieceConfiguration pieceConfiguration = FENReader.read(fen, configurationClass);
+        final short[] moves = new short[MAX_MOVE_COUNT];
+        final int moveCount = pieceConfiguration.generateMoves(moves);
+        final List<Short> expectedMoves = new ArrayList<>();
+        for(int i = 0; i < moveCount; i++) {
+            expectedMoves.add(moves[i]);
+        }
+        final StagedMoveGenerator moveGenerator = new StagedMoveGenerator();
+        moveGenerator.reset(pieceConfiguration, NO_MOVE, NO_MOVE, NO_MOVE);
+
+        assertThat(collectMoves(moveGenerator)).containsExactlyInAnyOrderElementsOf(expectedMoves);
+        assertThat(moveGenerator.getStage()).isEqualTo(FINISHED_STAGE);
+        assertThat(moveGenerator.nextMove()).isEqualTo(NO_MOVE);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getConfigurationArguments")
+    void nextMove_afterResetCapturesAndPromotions_handsOutOnlyThose(
+        Class<? extends PieceConfiguration> configurationClass, String fen) {
+        final PieceConfiguration pieceConfiguration = FENReader.read(fen, configurationClass);
+        final short[] moves = new short[MAX_MOVE_COUNT];
+        final List<Short> expectedMoves = new ArrayList<>();
+        final int captureCount = pieceConfiguration.generateCaptures(moves);
+        for(int i = 0; i < captureCount; i++) {
+            expectedMoves.add(moves[i]);
+        }
+        final int promotionCount = pieceConfiguration.generatePromotions(moves);
+        for(int i = 0; i < promotionCount; i++) {
+            expectedMoves.add(moves[i]);
+        }
+        final StagedMoveGenerator moveGenerator = new StagedMoveGenerator();
+        moveGenerator.reset(pieceConfiguration, NO_MOVE, NO_MOVE, NO_MOVE);
+        final List<Short> stagedMoves = collectMoves(moveGenerator);
+
+        moveGenerator.resetCapturesAndPromotions(pieceConfiguration);
+
+        final List<Short> stagedCapturesAndPromotions = collectMoves(moveGenerator);
+        assertThat(stagedCapturesAndPromotions).containsExactlyInAnyOrderElementsOf(expectedMoves);
+        assertThat(stagedCapturesAndPromotions).isEqualTo(stagedMoves.subList(0, expectedMoves.size()));
+        assertThat(moveGenerator.getStage()).isEqualTo(FINISHED_STAGE);
+
+        // A full reset hands out every move again
+        moveGenerator.reset(pieceConfiguration, NO_MOVE, NO_MOVE, NO_MOVE);
+        assertThat(collectMoves(moveGenerator)).isEqualTo(stagedMoves);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getConfigurationArguments")
+    void generateMovesOfEachKind_partitionsMoves(Class<? extends PieceConfiguration> configurationClass, String fen) {
+        final PieceConfiguration pieceConfiguration = FENReader.read(fen, configurationClass);
+        final short[] moves = new short[MAX_MOVE_COUNT];
+        final int moveCount = pieceConfiguration.generateMoves(moves);
+
+        final short[] captures = new short[MAX_MOVE_COUNT];
+        final int captureCount = pieceConfiguration.generateCaptures(captures);
+        final short[] promotions = new short[MAX_MOVE_COUNT];
+        final int promotionCount = pieceConfiguration.generatePromotions(promotions);
+        final short[] quietMoves = new short[MAX_MOVE_COUNT];
+        final int quietMoveCount = pieceConfiguration.generateQuietMoves(quietMoves);
+
+        assertThat(captureCount + promotionCount + quietMoveCount).isEqualTo(moveCount);
+        for(int i = 0; i < captureCount; i++) {
+            assertThat(pieceConfiguration.isCapture(captures[i])).isTrue();
+        }
+        for(int i = 0; i < promotionCount; i++) {
+            assertThat(pieceConfiguration.isCapture(promotions[i])).isFalse();
+            assertThat(promotions[i] & 0b1111000000000000).isNotZero();
+        }
+        for(int i = 0; i < quietMoveCount; i++) {
+            assertThat(pieceConfiguration.isCapture(quietMoves[i])).isFalse();
+            assertThat(quietMoves[i] & 0b1111000000000000).isZero();
+        }
+    }
+
+    @Test
+    void nextMove_ordersCapturesByVictimThenAttacker() {
+        // The white queen and pawn can both take the black queen on d5, and the white queen can also take the pawn on b4
+        final PieceConfiguration pieceConfiguration = FENReader.read(
+            "4k3/8/8/3q4/1p2P3/8/3Q4/4K3 w - - 0 1", LongsPieceConfiguration.class);
+        final StagedMoveGenerator moveGenerator = new StagedMoveGenerator();
+        moveGenerator.reset(pieceConfiguration, NO_MOVE, NO_MOVE, NO_MOVE);
+
+        assertThat(moveGenerator.nextMove()).isEqualTo(getMoveFromAlgebraicNotation("e4d5"));
+        assertThat(moveGenerator.nextMove()).isEqualTo(getMoveFromAlgebraicNotation("d2d5"));
+        assertThat(moveGenerator.nextMove()).isEqualTo(getMoveFromAlgebraicNotation("d2b4"));
+        assertThat(moveGenerator.getStage()).isEqualTo(CAPTURE_STAGE);
+    }
+
+    @Test
+    void nextMove_stopsAtCapturesUntilTheyAreUsedUp() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(EN_PASSANT, LongsPieceConfiguration.class);
+        final StagedMoveGenerator moveGenerator = new StagedMoveGenerator();
+        moveGenerator.reset(pieceConfiguration, NO_MOVE, NO_MOVE, NO_MOVE);
+
+        // The only capture is en passant
+        assertThat(moveGenerator.nextMove()).isEqualTo(getMoveFromAlgebraicNotation("e5f6"));
+        assertThat(moveGenerator.getStage()).isEqualTo(CAPTURE_STAGE);
+
+        moveGenerator.nextMove();
+
+        assertThat(moveGenerator.getStage()).isEqualTo(QUIET_STAGE);
+    }
+
+    @Test
+    void nextMove_ordersPromotionsByValue() {
+        final PieceConfiguration pieceConfiguration = FENReader.read("4k3/1P6/8/8/8/8/8/4K3 w - - 0 1",
+            IntsPieceConfiguration.class);
+        final StagedMoveGenerator moveGenerator = new StagedMoveGenerator();
+        moveGenerator.reset(pieceConfiguration, NO_MOVE, NO_MOVE, NO_MOVE);
+
+        assertThat(moveGenerator.nextMove()).isEqualTo(getMoveFromAlgebraicNotation("b7b8q"));
+        assertThat(moveGenerator.getStage()).isEqualTo(PROMOTION_STAGE);
+        assertThat(moveGenerator.nextMove()).isEqualTo(getMoveFromAlgebraicNotation("b7b8r"));
+    }
+
+    @Test
+    void nextMove_handsOutHashMoveFirstAndOnlyOnce() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(KIWIPETE, LongsPieceConfiguration.class);
+        final short hashMove = getMoveFromAlgebraicNotation("e2a6");
+        final StagedMoveGenerator moveGenerator = new StagedMoveGenerator();
+        moveGenerator.reset(pieceConfiguration, hashMove, NO_MOVE, NO_MOVE);
+
+        assertThat(moveGenerator.nextMove()).isEqualTo(hashMove);
+        assertThat(moveGenerator.getStage()).isEqualTo(CAPTURE_STAGE);
+        final List<Short> remainingMoves = collectMoves(moveGenerator);
+        assertThat(remainingMoves).doesNotContain(hashMove).hasSize(47);
+    }
+
+    @Test
+    void nextMove_ignoresUnavailableHashMove() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(STARTING_POSITION, LongsPieceConfiguration.class);
+        final StagedMoveGenerator moveGenerator = new StagedMoveGenerator();
+        moveGenerator.reset(pieceConfiguration, getMoveFromAlgebraicNotation("e7e5"), NO_MOVE, NO_MOVE);
+
+        assertThat(collectMoves(moveGenerator)).hasSize(20);
+    }
+
+    @Test
+    void nextMove_handsOutKillerMovesBeforeOtherQuietMoves() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(STARTING_POSITION, LongsPieceConfiguration.class);
+        final short firstKillerMove = getMoveFromAlgebraicNotation("g1f3");
+        final short secondKillerMove = getMoveFromAlgebraicNotation("d2d4");
+        final StagedMoveGenerator moveGenerator = new StagedMoveGenerator();
+        moveGenerator.reset(pieceConfiguration, NO_MOVE, firstKillerMove, secondKillerMove);
+
+        assertThat(moveGenerator.nextMove()).isEqualTo(firstKillerMove);
+        assertThat(moveGenerator.getStage()).isEqualTo(KILLER_STAGE);
+        assertThat(moveGenerator.nextMove()).isEqualTo(secondKillerMove);
+        final List<Short> remainingMoves = collectMoves(moveGenerator);
+        assertThat(remainingMoves).doesNotContain(firstKillerMove, secondKillerMove).hasSize(18);
+    }
+
+    @Test
+    void nextMove_handsOutCounterMoveAfterKillerMoves() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(STARTING_POSITION, LongsPieceConfiguration.class);
+        final short firstKillerMove = getMoveFromAlgebraicNotation("g1f3");
+        final short counterMove = getMoveFromAlgebraicNotation("e2e4");
+        final StagedMoveGenerator moveGenerator = new StagedMoveGenerator();
+        moveGenerator.reset(pieceConfiguration, NO_MOVE, firstKillerMove, NO_MOVE, counterMove);
+
+        assertThat(moveGenerator.nextMove()).isEqualTo(firstKillerMove);
+        assertThat(moveGenerator.nextMove()).isEqualTo(counterMove);
+        assertThat(moveGenerator.getStage()).isEqualTo(KILLER_STAGE);
+        assertThat(collectMoves(moveGenerator)).doesNotContain(firstKillerMove, counterMove).hasSize(18);
+
+        // A counter move which is also a killer move is only handed out once
+        moveGenerator.reset(pieceConfiguration, NO_MOVE, firstKillerMove, counterMove, counterMove);
+        assertThat(collectMoves(moveGenerator)).hasSize(20).containsOnlyOnce(counterMove);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getConfigurationArguments")
+    void nextMove_ordersQuietMovesByHistoryScore(Class<? extends PieceConfiguration> configurationClass, String fen) {
+        final PieceConfiguration pieceConfiguration = FENReader.read(fen, configurationClass);
+        final short[] quietMoves = new short[MAX_MOVE_COUNT];
+        final int quietMoveCount = pieceConfiguration.generateQuietMoves(quietMoves);
+        // Scores which reverse the order the quiet moves are generated in
+        final int[] historyScores = new int[1 << 12];
+        for(int i = 0; i < quietMoveCount; i++) {
+            historyScores[quietMoves[i] & 0b0000111111111111] = i + 1;
+        }
+        final List<Short> expectedMoves = new ArrayList<>();
+        for(int i = quietMoveCount - 1; i >= 0; i--) {
+            expectedMoves.add(quietMoves[i]);
+        }
+        final StagedMoveGenerator moveGenerator = new StagedMoveGenerator();
+        moveGenerator.setHistoryScores(historyScores);
+        moveGenerator.reset(pieceConfiguration, NO_MOVE, NO_MOVE, NO_MOVE);
+
+        final List<Short> moves = collectMoves(moveGenerator);
+
+        assertThat(moves.subList(moves.size() - quietMoveCount, moves.size())).isEqualTo(expectedMoves);
+    }
+
+    @Test
+    void nextMove_skipsUnusableKillerMoves() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(KIWIPETE, LongsPieceConfiguration.class);
+        final short hashMove = getMoveFromAlgebraicNotation("e1g1");
+        final StagedMoveGenerator moveGenerator = new StagedMoveGenerator();
+
+        // A capture is handed out with the other captures
+        moveGenerator.reset(pieceConfiguration, NO_MOVE, getMoveFromAlgebraicNotation("e2a6"), NO_MOVE);
+        assertThat(collectMoves(moveGenerator)).hasSize(48);
+
+        // A move of another configuration isn't handed out at all
+        moveGenerator.reset(pieceConfiguration, NO_MOVE, getMoveFromAlgebraicNotation("e2e4"),
+            getMoveFromAlgebraicNotation("a1a8"));
+        assertThat(collectMoves(moveGenerator)).hasSize(48);
+
+        // The hash move and a repeated killer move are only handed out once
+        moveGenerator.reset(pieceConfiguration, hashMove, hashMove, hashMove);
+        assertThat(collectMoves(moveGenerator)).hasSize(48);
+        final short killerMove = getMoveFromAlgebraicNotation("a2a3");
+        moveGenerator.reset(pieceConfiguration, NO_MOVE, killerMove, killerMove);
+        final List<Short> moves = collectMoves(moveGenerator);
+        assertThat(moves).hasSize(48).containsOnlyOnce(killerMove);
+    }
+
+    @Test
+    void unmakeMove_restoresDerivedData() {
+        final LongsPieceConfiguration pieceConfiguration = (LongsPieceConfiguration) FENReader.read(
+            KIWIPETE, LongsPieceConfiguration.class);
+        pieceConfiguration.setHigherBitFlags();
+        final long threatenedData = pieceConfiguration.getThreatenedData();
+        final long pinnedData = pieceConfiguration.getPinnedData();
+        final StagedMoveGenerator moveGenerator = new StagedMoveGenerator();
+        moveGenerator.reset(pieceConfiguration, NO_MOVE, NO_MOVE, NO_MOVE);
+
+        for(short move = moveGenerator.nextMove(); move != NO_MOVE; move = moveGenerator.nextMove()) {
+            pieceConfiguration.makeMove(move);
+            pieceConfiguration.setHigherBitFlags();
+            pieceConfiguration.unmakeMove();
+
+            assertThat(pieceConfiguration.getThreatenedData()).isEqualTo(threatenedData);
+            assertThat(pieceConfiguration.getPinnedData()).isEqualTo(pinnedData);
+        }
+        assertThat(FENWriter.write(pieceConfiguration)).isEqualTo(KIWIPETE);
+    }
+
+    private static List<Short> collectMoves(StagedMoveGenerator moveGenerator) {
+        final List<Short> moves = new ArrayList<>();
+        for(short move = moveGenerator.nextMove(); move != NO_MOVE; move = moveGenerator.nextMove()) {
+            moves.add(move);
+        }
+        return moves;
+    }
+
+    private static Stream<Arguments> getConfigurationArguments() {
+        return Stream.of(IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class)
+            .flatMap(configurationClass -> Stream.of(FENS).map(fen -> Arguments.of(configurationClass, fen)));
+    }
+}
@@ -35,6 +35,28 @@ public class FENControllerTest {
             .andExpect(status().is2xxSuccessful());
     }
 
+    @Test
+    void testGetAiMove_withMoveTime() throws Exception {
+        final AiMoveRequestDto request = buildAiMoveRequest("k7/2P5/K7/8/8/8/8/8 w - - 0 50", 20);
+        request.setMoveTimeMillis(200L);
+        performAiMoveRequest(request)
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString(WHITE_VICTORY.toString())));
+    }
+
+    @Test
+    void testGetAiMove_withNegativeMoveTime() throws Exception {
+        final AiMoveRequestDto request = buildAiMoveRequest(FENWriter.STARTING_POSITION, 3);
+        request.setMoveTimeMillis(-1L);
+        var resolvedException = performAiMoveRequest(request)
+            .andExpect(status().isBadRequest())
+            .andReturn()
+            .getResolvedException();
+
+        assertThat(resolvedException).isNotNull();
+        assertThat(resolvedException.getMessage()).contains("moveTimeMillis must be positive");
+    }
+
     @Test
     void testGetAiMove_withNonsenseFEN() throws Exception {
         var resolvedException = performAiMoveRequest(buildAiMoveRequest("This is not FEN", 3))
@@ -0,0 +1,34 @@
+package chess.api.perft;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PerftRunnerTest {
+
+    @Test
+    void testRun_startingPosition() {
+        assertThat(PerftRunner.run(new String[]{"3"})).isEqualTo(8902);
+    }
+
+    @Test
+    void testRun_withOptions() {
+        final String fen = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+        assertThat(PerftRunner.run(new String[]{"2", fen, "--divide", "--serial", "--hash=1", "--ints"})).isEqualTo(2039);
+        assertThat(PerftRunner.run(new String[]{"2", fen, "--divide"})).isEqualTo(2039);
+        assertThat(PerftRunner.run(new String[]{"2", fen, "--serial"})).isEqualTo(2039);
+        assertThat(PerftRunner.run(new String[]{"2", fen, "--compact"})).isEqualTo(2039);
+    }
+
+    @Test
+    void testRun_throwsException() {
+        assertThatThrownBy(() -> PerftRunner.run(new String[]{}))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Usage: PerftRunner depth [fen] [--divide] [--hash=megabytes] [--serial] [--ints] [--compact]");
+        assertThatThrownBy(() -> PerftRunner.run(new String[]{"2", "--unknown"}))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Unrecognised perft option --unknown");
+    }
+}
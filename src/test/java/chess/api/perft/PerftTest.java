@@ -0,0 +1,157 @@
+package chess.api.perft;
+
+import chess.api.FENReader;
+import chess.api.FENWriter;
+import chess.api.configuration.CompactPieceConfiguration;
+import chess.api.configuration.IntsPieceConfiguration;
+import chess.api.configuration.LongsPieceConfiguration;
+import chess.api.configuration.PieceConfiguration;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PerftTest {
+
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+
+    private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+
+    private static final String POSITION_6 = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+    @ParameterizedTest
+    @MethodSource("getLongsPerftArguments")
+    void testPerft_longs(String fen, int depth, long expectedNodeCount) {
+        final PieceConfiguration pieceConfiguration = FENReader.read(fen, LongsPieceConfiguration.class);
+
+        assertThat(Perft.perft(pieceConfiguration, depth))
+            .as("Unexpected node count at depth %d for %s", depth, fen)
+            .isEqualTo(expectedNodeCount);
+        assertThat(FENWriter.write(pieceConfiguration)).isEqualTo(fen);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getLongsPerftArguments")
+    void testPerft_compact(String fen, int depth, long expectedNodeCount) {
+        final PieceConfiguration pieceConfiguration = FENReader.read(fen, CompactPieceConfiguration.class);
+
+        assertThat(Perft.perft(pieceConfiguration, depth))
+            .as("Unexpected node count at depth %d for %s", depth, fen)
+            .isEqualTo(expectedNodeCount);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getIntsPerftArguments")
+    void testPerft_ints(String fen, int depth, long expectedNodeCount) {
+        final PieceConfiguration pieceConfiguration = FENReader.read(fen, IntsPieceConfiguration.class);
+
+        assertThat(Perft.perft(pieceConfiguration, depth))
+            .as("Unexpected node count at depth %d for %s", depth, fen)
+            .isEqualTo(expectedNodeCount);
+    }
+
+    @Test
+    void testPerft_position3Deep() {
+        // Includes en passant captures which would expose the king along the rank
+        final PieceConfiguration pieceConfiguration = FENReader.read(POSITION_3, LongsPieceConfiguration.class);
+
+        assertThat(Perft.perft(pieceConfiguration, 5)).isEqualTo(674624);
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {IntsPieceConfiguration.class, LongsPieceConfiguration.class, CompactPieceConfiguration.class})
+    void testPerft_withHashTable(Class<? extends PieceConfiguration> configurationClass) {
+        final PieceConfiguration pieceConfiguration = FENReader.read(FENWriter.STARTING_POSITION, configurationClass);
+        final PerftHashTable hashTable = new PerftHashTable(1);
+
+        assertThat(Perft.perft(pieceConfiguration, 4, hashTable)).isEqualTo(197281);
+        // The second count is answered from the table
+        assertThat(Perft.perft(pieceConfiguration, 4, hashTable)).isEqualTo(197281);
+    }
+
+    @Test
+    void testPerftConcurrently() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(KIWIPETE, LongsPieceConfiguration.class);
+
+        assertThat(Perft.perftConcurrently(pieceConfiguration, 3, new PerftHashTable(1))).isEqualTo(97862);
+        assertThat(Perft.perftConcurrently(pieceConfiguration, 1, null)).isEqualTo(48);
+    }
+
+    @Test
+    void testPerft_depthZero() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(KIWIPETE, LongsPieceConfiguration.class);
+
+        assertThat(Perft.perft(pieceConfiguration, 0)).isEqualTo(1);
+    }
+
+    @Test
+    void testDivide() {
+        final PieceConfiguration pieceConfiguration = FENReader.read(FENWriter.STARTING_POSITION, LongsPieceConfiguration.class);
+
+        final Map<String, Long> nodeCounts = Perft.divide(pieceConfiguration, 3, null);
+        final Map<String, Long> concurrentNodeCounts = Perft.divideConcurrently(pieceConfiguration, 3, null);
+
+        assertThat(nodeCounts.size()).isEqualTo(20);
+        assertThat(nodeCounts.get("e2e4")).isEqualTo(600L);
+        assertThat(nodeCounts.get("g1f3")).isEqualTo(440L);
+        assertThat(nodeCounts.values().stream().mapToLong(Long::longValue).sum()).isEqualTo(8902L);
+        assertThat(concurrentNodeCounts).isEqualTo(nodeCounts);
+    }
+
+    @Test
+    void testPerftHashTable() {
+        final PerftHashTable hashTable = new PerftHashTable(1);
+
+        hashTable.put(0x1234567890ABCDEFL, 3, 97862);
+
+        assertThat(hashTable.get(0x1234567890ABCDEFL, 3)).isEqualTo(97862);
+        assertThat(hashTable.get(0x1234567890ABCDEFL, 2)).isEqualTo(-1);
+        assertThat(hashTable.get(0x1234567890ABCDEEL, 3)).isEqualTo(-1);
+        assertThatThrownBy(() -> new PerftHashTable(0))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Perft hash table size must be at least one megabyte");
+    }
+
+    @Test
+    void testPerftHashTable_tooLarge() {
+        assertThat(PerftHashTable.MAX_SIZE_IN_MEGABYTES).isEqualTo(8192);
+        assertThatThrownBy(() -> new PerftHashTable(PerftHashTable.MAX_SIZE_IN_MEGABYTES + 1))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Perft hash table size must be at most 8192 megabytes");
+        assertThatThrownBy(() -> new PerftHashTable(16384))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new PerftHashTable(Integer.MAX_VALUE))
+            .isExactlyInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static Stream<Arguments> getLongsPerftArguments() {
+        return Stream.of(
+            Arguments.of(FENWriter.STARTING_POSITION, 4, 197281L),
+            Arguments.of(KIWIPETE, 3, 97862L),
+            Arguments.of(POSITION_3, 3, 2812L),
+            Arguments.of(POSITION_4, 3, 9467L),
+            Arguments.of(POSITION_5, 3, 62379L),
+            Arguments.of(POSITION_6, 3, 89890L)
+        );
+    }
+
+    private static Stream<Arguments> getIntsPerftArguments() {
+        return Stream.of(
+            Arguments.of(FENWriter.STARTING_POSITION, 3, 8902L),
+            Arguments.of(KIWIPETE, 2, 2039L),
+            Arguments.of(POSITION_4, 2, 264L),
+            Arguments.of(POSITION_5, 2, 1486L)
+        );
+    }
+}
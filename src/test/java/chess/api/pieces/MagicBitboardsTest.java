@@ -0,0 +1,111 @@
+package chess.api.pieces;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MagicBitboardsTest {
+
+    private static final int[][] ROOK_DIRECTIONS = {{0, -1}, {-1, 0}, {1, 0}, {0, 1}};
+
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {1, -1}, {-1, 1}, {1, 1}};
+
+    @Test
+    void testSlidingAttacks_matchRayWalkForRandomOccupancies() {
+        final Random random = new Random(12345L);
+        for(int i = 0; i < 2000; i++) {
+            final long occupancy = random.nextLong() & random.nextLong();
+            for(int position = 0; position < 64; position++) {
+                assertThat(MagicBitboards.getRookAttacks(position, occupancy))
+                    .as("Unexpected rook attacks from %d", position)
+                    .isEqualTo(walkRays(position, occupancy, ROOK_DIRECTIONS));
+                assertThat(MagicBitboards.getBishopAttacks(position, occupancy))
+                    .as("Unexpected bishop attacks from %d", position)
+                    .isEqualTo(walkRays(position, occupancy, BISHOP_DIRECTIONS));
+            }
+        }
+    }
+
+    @Test
+    void testGetQueenAttacks_onEmptyBoard() {
+        // Queen on d4 sees 27 squares on an empty board
+        assertThat(Long.bitCount(MagicBitboards.getQueenAttacks(27, 0L))).isEqualTo(27);
+    }
+
+    @ParameterizedTest
+    @MethodSource("getSquaresBetweenArguments")
+    void testGetSquaresBetween(int from, int to, long expected) {
+        assertThat(MagicBitboards.getSquaresBetween(from, to)).isEqualTo(expected);
+        assertThat(MagicBitboards.getSquaresBetween(to, from)).isEqualTo(expected);
+    }
+
+    @Test
+    void testGetLine() {
+        // a1 and h8 share the long diagonal
+        assertThat(MagicBitboards.getLine(0, 63)).isEqualTo(0x8040201008040201L);
+        // a1 and c2 share no line
+        assertThat(MagicBitboards.getLine(0, 10)).isEqualTo(0L);
+        // e1 and e4 share the e-file
+        assertThat(MagicBitboards.getLine(4, 28)).isEqualTo(0x1010101010101010L);
+    }
+
+    @Test
+    void testGetRay() {
+        // From a1 heading north along the a-file
+        assertThat(MagicBitboards.getRay(0, 0, 1)).isEqualTo(0x0101010101010100L);
+        // From h1 heading west along the first rank
+        assertThat(MagicBitboards.getRay(7, -1, 0)).isEqualTo(0x7FL);
+    }
+
+    @Test
+    void testGetKnightAndKingAttacks() {
+        // Knight on a1 attacks b3 and c2
+        assertThat(MagicBitboards.getKnightAttacks(0)).isEqualTo((1L << 17) | (1L << 10));
+        // King on h8 attacks g8, g7 and h7
+        assertThat(MagicBitboards.getKingAttacks(63)).isEqualTo((1L << 62) | (1L << 54) | (1L << 55));
+        assertThat(Long.bitCount(MagicBitboards.getKnightAttacks(27))).isEqualTo(8);
+        assertThat(Long.bitCount(MagicBitboards.getKingAttacks(27))).isEqualTo(8);
+    }
+
+    @Test
+    void testGetPawnAttacks() {
+        // White pawns on a2 and h2 attack b3 and g3
+        assertThat(MagicBitboards.getPawnAttacks((1L << 8) | (1L << 15), 0)).isEqualTo((1L << 17) | (1L << 22));
+        // Black pawns on a7 and h7 attack b6 and g6
+        assertThat(MagicBitboards.getPawnAttacks((1L << 48) | (1L << 55), 1)).isEqualTo((1L << 41) | (1L << 46));
+    }
+
+    private static Stream<Arguments> getSquaresBetweenArguments() {
+        return Stream.of(
+            Arguments.of(0, 7, 0x7EL),
+            Arguments.of(0, 63, 0x0040201008040200L),
+            Arguments.of(0, 1, 0L),
+            Arguments.of(0, 10, 0L),
+            Arguments.of(4, 60, 0x0010101010101000L)
+        );
+    }
+
+    private static long walkRays(int position, long occupancy, int[][] directions) {
+        long attacks = 0;
+        for(int[] direction : directions) {
+            int x = (position & 7) + direction[0];
+            int y = (position >> 3) + direction[1];
+            while (x >= 0 && x < 8 && y >= 0 && y < 8) {
+                final long bit = 1L << (y * 8 + x);
+                attacks |= bit;
+                if ((occupancy & bit) != 0) {
+                    break;
+                }
+                x += direction[0];
+                y += direction[1];
+            }
+        }
+        return attacks;
+    }
+}